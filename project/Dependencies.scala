@@ -32,6 +32,7 @@ object Dependencies {
   // make sure to sync spring-boot-starter-parent version in samples and archetype to this version
   val SpringBootVersion = "3.1.5"
   val OpenTelemetryVersion = "1.28.0"
+  val AirCompressorVersion = "0.25"
 
   val CommonsIoVersion = "2.11.0"
   val MunitVersion = "0.7.29"
@@ -71,11 +72,16 @@ object Dependencies {
   val junit5 = "org.junit.jupiter" % "junit-jupiter" % JUnitJupiterVersion
   val junit5Vintage = "org.junit.vintage" % "junit-vintage-engine" % JUnitJupiterVersion
 
+  // pure Java LZ4 and zstd, for the opt-in compression of entity payloads
+  val airCompressor = "io.airlift" % "aircompressor" % AirCompressorVersion
+
   val opentelemetryApi = "io.opentelemetry" % "opentelemetry-api" % OpenTelemetryVersion
   val opentelemetrySdk = "io.opentelemetry" % "opentelemetry-sdk" % OpenTelemetryVersion
   val opentelemetryExporterOtlp = "io.opentelemetry" % "opentelemetry-exporter-otlp" % OpenTelemetryVersion
   val opentelemetryContext = "io.opentelemetry" % "opentelemetry-context" % OpenTelemetryVersion
   val opentelemetrySemConv = "io.opentelemetry" % "opentelemetry-semconv" % (OpenTelemetryVersion + "-alpha")
+  val opentelemetryExporterPrometheus =
+    "io.opentelemetry" % "opentelemetry-exporter-prometheus" % (OpenTelemetryVersion + "-alpha")
 
   val scalapbCompilerPlugin = "com.thesamet.scalapb" %% "compilerplugin" % scalapb.compiler.Version.scalapbVersion
   val sbtProtoc = "com.thesamet" % "sbt-protoc" % "1.0.0"
@@ -101,6 +107,8 @@ object Dependencies {
     opentelemetryExporterOtlp,
     opentelemetryContext,
     opentelemetrySemConv,
+    opentelemetryExporterPrometheus,
+    airCompressor,
     akkaDependency("akka-testkit") % Test,
     akkaDependency("akka-actor-testkit-typed") % Test,
     akkaDependency("akka-stream-testkit") % Test,
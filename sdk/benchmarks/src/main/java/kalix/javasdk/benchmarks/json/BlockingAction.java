@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks.json;
+
+import kalix.javasdk.action.Action;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+/** Blocks the handling thread for {@code value} milliseconds, like a synchronous JDBC or HTTP call would. */
+public class BlockingAction extends Action {
+
+  @PostMapping("/bench/blocking")
+  public Effect<Increase> block(@RequestBody Increase increase) {
+    try {
+      Thread.sleep(increase.value());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return effects().reply(increase);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks.json;
+
+import kalix.javasdk.annotations.EventHandler;
+import kalix.javasdk.annotations.Id;
+import kalix.javasdk.annotations.TypeId;
+import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@Id("id")
+@TypeId("bench-es-counter")
+@RequestMapping("/bench/es-counter/{id}")
+public class CounterEventSourcedEntity extends EventSourcedEntity<CounterState, CounterEvent> {
+
+  @Override
+  public CounterState emptyState() {
+    return new CounterState("", 0);
+  }
+
+  @PostMapping("/increase")
+  public Effect<CounterState> increase(@RequestBody Increase increase) {
+    return effects()
+        .emitEvent(new CounterEvent.ValueIncreased(increase.value()))
+        .thenReply(newState -> newState);
+  }
+
+  @GetMapping
+  public Effect<CounterState> get() {
+    return effects().reply(currentState());
+  }
+
+  @EventHandler
+  public CounterState onIncreased(CounterEvent.ValueIncreased event) {
+    return currentState().increase(event.value());
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks.json;
+
+import kalix.javasdk.annotations.Query;
+import kalix.javasdk.annotations.Subscribe;
+import kalix.javasdk.annotations.Table;
+import kalix.javasdk.annotations.ViewId;
+import kalix.javasdk.view.View;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@ViewId("bench-counters")
+@Table("counters")
+public class CounterView extends View<CounterState> {
+
+  @Subscribe.EventSourcedEntity(CounterEventSourcedEntity.class)
+  public UpdateEffect<CounterState> onIncreased(CounterEvent.ValueIncreased event) {
+    CounterState current = viewState() == null ? new CounterState("", 0) : viewState();
+    return effects().updateState(current.increase(event.value()));
+  }
+
+  @Query("SELECT * FROM counters WHERE id = :id")
+  @GetMapping("/bench/counters/{id}")
+  public CounterState getCounter(@PathVariable String id) {
+    return null;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks.json;
+
+import com.google.protobuf.any.Any;
+import kalix.javasdk.DeferredCall;
+import kalix.javasdk.client.ComponentClient;
+
+/**
+ * Component client calls to {@link EchoAction}, the method references are only resolvable from Java.
+ */
+public final class EchoCalls {
+
+  private EchoCalls() {
+  }
+
+  public static DeferredCall<Any, Increase> echo(ComponentClient componentClient, Increase increase) {
+    return componentClient.forAction().call(EchoAction::echo).params(increase);
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks.protobuf;
+
+import kalix.javasdk.impl.view.UpdateHandlerNotFound;
+import kalix.javasdk.impl.view.ViewRouter;
+import kalix.javasdk.shoppingcart.ShoppingCart;
+import kalix.javasdk.shoppingcart.ShoppingCartViewModel;
+import kalix.javasdk.view.View;
+
+public class CartViewRouter extends ViewRouter<ShoppingCartViewModel.CartViewState, CartView> {
+
+  public CartViewRouter(CartView view) {
+    super(view);
+  }
+
+  @Override
+  public View.UpdateEffect<ShoppingCartViewModel.CartViewState> handleUpdate(
+      String eventName, ShoppingCartViewModel.CartViewState state, Object event) {
+    switch (eventName) {
+      case "ProcessAdded":
+        return view().processAdded(state, (ShoppingCart.ItemAdded) event);
+      default:
+        throw new UpdateHandlerNotFound(eventName);
+    }
+  }
+}
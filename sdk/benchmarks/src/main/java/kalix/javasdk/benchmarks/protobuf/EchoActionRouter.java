@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks.protobuf;
+
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import kalix.javasdk.action.Action.Effect;
+import kalix.javasdk.action.MessageEnvelope;
+import kalix.javasdk.actionspec.ActionspecApi;
+import kalix.javasdk.impl.action.ActionRouter;
+
+public class EchoActionRouter extends ActionRouter<EchoAction> {
+
+  public EchoActionRouter(EchoAction actionBehavior) {
+    super(actionBehavior);
+  }
+
+  @Override
+  public Effect<?> handleUnary(String commandName, MessageEnvelope<Object> message) {
+    switch (commandName) {
+      case "Unary":
+        return action().unary((ActionspecApi.In) message.payload());
+      default:
+        throw new ActionRouter.HandlerNotFound(commandName);
+    }
+  }
+
+  @Override
+  public Source<Effect<?>, NotUsed> handleStreamedOut(String commandName, MessageEnvelope<Object> message) {
+    throw new ActionRouter.HandlerNotFound(commandName);
+  }
+
+  @Override
+  public Effect<?> handleStreamedIn(String commandName, Source<MessageEnvelope<Object>, NotUsed> stream) {
+    throw new ActionRouter.HandlerNotFound(commandName);
+  }
+
+  @Override
+  public Source<Effect<?>, NotUsed> handleStreamed(String commandName, Source<MessageEnvelope<Object>, NotUsed> stream) {
+    throw new ActionRouter.HandlerNotFound(commandName);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+
+import akka.actor.ActorSystem
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.action.ReflectiveActionProvider
+import kalix.javasdk.actionspec.ActionspecApi
+import kalix.javasdk.benchmarks.json.Increase
+import kalix.javasdk.benchmarks.protobuf.EchoActionRouter
+import kalix.javasdk.impl.AbstractContext
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.ActionFactory
+import kalix.javasdk.impl.action.ActionService
+import kalix.javasdk.impl.action.ActionsImpl
+import kalix.javasdk.impl.action.ResolvedActionFactory
+import kalix.protocol.action.ActionCommand
+import kalix.protocol.action.ActionResponse
+import org.openjdk.jmh.annotations._
+
+/**
+ * Unary action invocation through `ActionsImpl.handleUnary`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class ActionBenchmark {
+  import BenchmarkSupport._
+
+  @Param(Array("protobuf", "json"))
+  var codec: String = _
+
+  private var system: ActorSystem = _
+  private var actions: ActionsImpl = _
+  private var actionCommand: ActionCommand = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    system = createSystem("ActionBenchmark")
+
+    val service =
+      if (isJson(codec)) {
+        val messageCodec = new JsonMessageCodec
+        val provider = ReflectiveActionProvider.of(classOf[json.EchoAction], messageCodec, _ => new json.EchoAction)
+        val desc = provider.serviceDescriptor()
+        actionCommand = ActionCommand(
+          desc.getFullName,
+          "Echo",
+          Some(jsonCommand(messageCodec, desc, "Echo", "", Some(new Increase(1)))))
+        val factory: ActionFactory = provider.newRouter(_)
+        new ActionService(
+          factory,
+          desc,
+          provider.additionalDescriptors(),
+          messageCodec,
+          Some(provider.options()))
+      } else {
+        val desc = ActionspecApi.getDescriptor.findServiceByName("ActionSpecService")
+        val anySupport = new AnySupport(Array(ActionspecApi.getDescriptor), getClass.getClassLoader)
+        actionCommand = ActionCommand(
+          desc.getFullName,
+          "Unary",
+          Some(ScalaPbAny.fromJavaProto(JavaPbAny.pack(ActionspecApi.In.newBuilder().setField("echo").build()))))
+        new ActionService(
+          new ResolvedActionFactory(
+            _ => new EchoActionRouter(new protobuf.EchoAction),
+            anySupport.resolveServiceDescriptor(desc)),
+          desc,
+          Array(),
+          anySupport,
+          None)
+      }
+
+    actions = new ActionsImpl(system, Map(service.descriptor.getFullName -> service), new AbstractContext(system) {})
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit =
+    shutdown(system)
+
+  @Benchmark
+  def unary(): ActionResponse =
+    Await.result(actions.handleUnary(actionCommand), Timeout)
+}
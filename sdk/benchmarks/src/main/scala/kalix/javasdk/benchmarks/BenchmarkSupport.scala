@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.stream.OverflowStrategy
+import akka.stream.QueueOfferResult
+import akka.stream.scaladsl.Keep
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.SinkQueueWithCancel
+import akka.stream.scaladsl.Source
+import akka.stream.scaladsl.SourceQueueWithComplete
+import com.google.protobuf.DynamicMessage
+import com.google.protobuf.Descriptors
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigFactory
+import kalix.javasdk.KalixRunner
+import kalix.javasdk.impl.JsonMessageCodec
+
+/**
+ * Shared plumbing for the protocol handler benchmarks: an actor system configured like the runner's, and helpers to
+ * drive the full duplex entity streams one command at a time, the way the proxy does.
+ */
+object BenchmarkSupport {
+
+  val Timeout: FiniteDuration = 10.seconds
+
+  val JsonTypeUrlPrefix = "type.googleapis.com/"
+
+  def config(): Config = ConfigFactory.load()
+
+  def createSystem(name: String): ActorSystem =
+    createSystem(name, ConfigFactory.empty())
+
+  def createSystem(name: String, overrides: Config): ActorSystem = {
+    val loaded = overrides.withFallback(config())
+    ActorSystem(name, loaded.getConfig("kalix.system").withFallback(loaded))
+  }
+
+  def runnerConfiguration(): KalixRunner.Configuration =
+    new KalixRunner.Configuration(config().getConfig("kalix"))
+
+  def shutdown(system: ActorSystem): Unit =
+    Await.result(system.terminate(), Timeout)
+
+  /**
+   * Build the payload for a JSON (Spring SDK) command, wrapping the body in the synthetic request message of the
+   * method and filling in any path parameter with the entity id.
+   */
+  def jsonCommand(
+      codec: JsonMessageCodec,
+      service: Descriptors.ServiceDescriptor,
+      methodName: String,
+      entityId: String,
+      body: Option[Any]): ScalaPbAny = {
+    val inputType = service.findMethodByName(methodName).getInputType
+    val builder = DynamicMessage.newBuilder(inputType)
+    inputType.getFields.forEach { field =>
+      if (field.getName == "json_body")
+        body.foreach(b => builder.setField(field, codec.encodeJava(b)))
+      else if (field.getJavaType == JavaType.STRING)
+        builder.setField(field, entityId)
+    }
+    ScalaPbAny(JsonTypeUrlPrefix + inputType.getFullName, builder.build().toByteString)
+  }
+
+  /**
+   * A materialized full duplex stream where each `send` offers one message and waits for the next reply.
+   */
+  final class StreamHarness[In, Out](handler: Source[In, NotUsed] => Source[Out, NotUsed])(implicit
+      system: ActorSystem) {
+
+    private val (queue: SourceQueueWithComplete[In], replies: SinkQueueWithCancel[Out]) = {
+      val (queue, source) = Source.queue[In](16, OverflowStrategy.backpressure).preMaterialize()
+      (queue, handler(source).toMat(Sink.queue[Out]())(Keep.right).run())
+    }
+
+    /** Send a message without waiting for a reply (for example the init message) */
+    def offer(in: In): Unit =
+      Await.result(queue.offer(in), Timeout) match {
+        case QueueOfferResult.Enqueued => ()
+        case other                     => throw new IllegalStateException(s"Failed to offer message: $other")
+      }
+
+    def send(in: In): Out = {
+      offer(in)
+      Await.result(replies.pull(), Timeout).getOrElse(throw new IllegalStateException("Stream completed"))
+    }
+
+    def complete(): Unit = {
+      queue.complete()
+      replies.cancel()
+    }
+  }
+
+  def isJson(codec: String): Boolean = codec match {
+    case "json"     => true
+    case "protobuf" => false
+    case other      => throw new IllegalArgumentException(s"Unknown codec [$other], expected 'protobuf' or 'json'")
+  }
+}
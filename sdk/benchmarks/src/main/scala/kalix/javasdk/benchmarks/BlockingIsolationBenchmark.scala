@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+
+import akka.actor.ActorSystem
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.typesafe.config.ConfigFactory
+import kalix.javasdk.action.ReflectiveActionProvider
+import kalix.javasdk.benchmarks.json.BlockingAction
+import kalix.javasdk.benchmarks.json.CounterState
+import kalix.javasdk.benchmarks.json.CounterValueEntity
+import kalix.javasdk.benchmarks.json.Increase
+import kalix.javasdk.impl.AbstractContext
+import kalix.javasdk.impl.ActionFactory
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.ValueEntityFactory
+import kalix.javasdk.impl.action.ActionService
+import kalix.javasdk.impl.action.ActionsImpl
+import kalix.javasdk.impl.valueentity.ValueEntitiesImpl
+import kalix.javasdk.impl.valueentity.ValueEntityService
+import kalix.javasdk.valueentity.ReflectiveValueEntityProvider
+import kalix.protocol.action.ActionCommand
+import kalix.protocol.entity.Command
+import kalix.protocol.value_entity._
+import org.openjdk.jmh.annotations._
+
+/**
+ * Value entity reads while `BlockingCalls` action calls that block their thread for `blockMillis` are kept in flight.
+ * The action calls are started on the default dispatcher, like the gRPC server does, and the action handlers run where
+ * `kalix.action.dispatcher` puts them: on the default dispatcher shared with the entity (`default`), on a dedicated
+ * thread pool (`dedicated`) or in virtual threads (`virtual-threads`, JDK 21 or later).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class BlockingIsolationBenchmark {
+  import BenchmarkSupport._
+  import BlockingIsolationBenchmark._
+
+  @Param(Array("default", "dedicated", "virtual-threads"))
+  var actionDispatcher: String = _
+
+  @Param(Array("10"))
+  var blockMillis: Int = _
+
+  private implicit var system: ActorSystem = _
+  private var actions: ActionsImpl = _
+  private var blockingCommand: ActionCommand = _
+  private var harness: StreamHarness[ValueEntityStreamIn, ValueEntityStreamOut] = _
+  private var readCommand: Option[ScalaPbAny] = _
+  private var commandId = 0L
+  @volatile private var running = false
+
+  private val entityId = "isolated-1"
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    val dispatcher = actionDispatcher match {
+      case "default"   => ""
+      case "dedicated" => "blocking-action-dispatcher"
+      case other       => other
+    }
+    system = createSystem(
+      "BlockingIsolationBenchmark",
+      ConfigFactory.parseString(s"""
+        kalix.action.dispatcher = "$dispatcher"
+        kalix.system.blocking-action-dispatcher {
+          type = Dispatcher
+          executor = thread-pool-executor
+          thread-pool-executor.fixed-pool-size = $BlockingCalls
+        }"""))
+
+    val messageCodec = new JsonMessageCodec
+
+    val actionProvider = ReflectiveActionProvider.of(classOf[BlockingAction], messageCodec, _ => new BlockingAction)
+    val actionDesc = actionProvider.serviceDescriptor()
+    blockingCommand = ActionCommand(
+      actionDesc.getFullName,
+      "Block",
+      Some(jsonCommand(messageCodec, actionDesc, "Block", "", Some(new Increase(blockMillis)))))
+    val actionFactory: ActionFactory = actionProvider.newRouter(_)
+    val actionService =
+      new ActionService(
+        actionFactory,
+        actionDesc,
+        actionProvider.additionalDescriptors(),
+        messageCodec,
+        Some(actionProvider.options()))
+    actions = new ActionsImpl(system, Map(actionDesc.getFullName -> actionService), new AbstractContext(system) {})
+
+    val entityProvider =
+      ReflectiveValueEntityProvider.of[CounterState, CounterValueEntity](
+        classOf[CounterValueEntity],
+        messageCodec,
+        _ => new CounterValueEntity)
+    val entityDesc = entityProvider.serviceDescriptor()
+    readCommand = Some(jsonCommand(messageCodec, entityDesc, "Get", entityId, None))
+    val entityFactory: ValueEntityFactory = entityProvider.newRouter(_)
+    val entityService = new ValueEntityService(
+      entityFactory,
+      entityDesc,
+      entityProvider.additionalDescriptors(),
+      messageCodec,
+      entityProvider.entityType(),
+      Some(entityProvider.options()))
+    val valueEntities =
+      new ValueEntitiesImpl(system, Map(entityDesc.getFullName -> entityService), runnerConfiguration())
+    harness = new StreamHarness(valueEntities.handle)
+    harness.offer(
+      ValueEntityStreamIn(ValueEntityStreamIn.Message.Init(ValueEntityInit(entityDesc.getFullName, entityId, None))))
+
+    running = true
+    (1 to BlockingCalls).foreach(_ => blockingCall())
+  }
+
+  // keeps one blocking action call in flight until the trial ends
+  private def blockingCall(): Unit =
+    if (running) {
+      val call = Future(actions.handleUnary(blockingCommand))(system.dispatcher).flatten
+      call.onComplete(_ => blockingCall())(ExecutionContext.parasitic)
+    }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit = {
+    running = false
+    harness.complete()
+    shutdown(system)
+  }
+
+  @Benchmark
+  def entityRead(): ValueEntityStreamOut = {
+    commandId += 1
+    harness.send(
+      ValueEntityStreamIn(ValueEntityStreamIn.Message.Command(Command(entityId, commandId, "Get", readCommand))))
+  }
+}
+
+object BlockingIsolationBenchmark {
+  final val BlockingCalls = 64
+}
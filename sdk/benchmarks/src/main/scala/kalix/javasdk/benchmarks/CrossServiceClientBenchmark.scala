@@ -0,0 +1,204 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.io.InputStream
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.google.protobuf.ByteString
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.typesafe.config.ConfigFactory
+import io.grpc.Metadata
+import io.grpc.MethodDescriptor
+import io.grpc.Server
+import io.grpc.ServerBuilder
+import io.grpc.ServerCall
+import io.grpc.ServerCallHandler
+import io.grpc.ServerServiceDefinition
+import io.grpc.Status
+import kalix.javasdk.JsonSupport
+import kalix.javasdk.benchmarks.json.EchoAction
+import kalix.javasdk.benchmarks.json.EchoCalls
+import kalix.javasdk.benchmarks.json.Increase
+import kalix.javasdk.client.ComponentClient
+import kalix.javasdk.impl.ComponentDescriptor
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.ProxyInfoHolder
+import kalix.spring.impl.GrpcComponentTransport
+import kalix.spring.impl.RestKalixClientImpl
+import kalix.spring.impl.WebClientProviderHolder
+import org.openjdk.jmh.annotations._
+import reactor.core.publisher.Mono
+import reactor.netty.DisposableServer
+import reactor.netty.http.HttpProtocol
+import reactor.netty.http.server.HttpServer
+import reactor.netty.http.server.HttpServerRequest
+import reactor.netty.http.server.HttpServerResponse
+
+/**
+ * Component client calls against a local stub of the Kalix Runtime that replies right away, over the REST transport
+ * (the WebClient of `WebClientProviderImpl`, with HTTP/1.1 or h2c) or the gRPC transport. `single` is one call at a
+ * time, `concurrent` keeps `Concurrency` calls in flight so that the connection pool (or the HTTP/2 multiplexing) is
+ * exercised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class CrossServiceClientBenchmark {
+  import BenchmarkSupport._
+  import CrossServiceClientBenchmark._
+
+  @Param(Array("rest-http1", "rest-h2c", "grpc"))
+  var transport: String = _
+
+  @Param(Array("100"))
+  var maxConnections: Int = _
+
+  private var stub: StubRuntime = _
+  private var system: ActorSystem = _
+  private var componentClient: ComponentClient = _
+  private val increase = new Increase(1)
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    val messageCodec = new JsonMessageCodec
+    val descriptor = ComponentDescriptor.descriptorFor(classOf[EchoAction], messageCodec)
+
+    stub =
+      if (transport == "grpc") new GrpcStubRuntime(descriptor.serviceDescriptor.getFullName)
+      else new HttpStubRuntime
+
+    system = createSystem(
+      "CrossServiceClientBenchmark",
+      ConfigFactory.parseString(s"""
+        kalix.cross-service {
+          http-client {
+            h2c-prior-knowledge = ${transport == "rest-h2c"}
+            max-connections = $maxConnections
+          }
+          component-client-transport = ${if (transport == "grpc") "grpc" else "rest"}
+        }"""))
+    val proxyInfo = ProxyInfoHolder(system)
+    proxyInfo.overrideProxyHost("127.0.0.1")
+    proxyInfo.overridePort(stub.port)
+
+    val kalixClient = new RestKalixClientImpl(messageCodec)
+    kalixClient.registerComponent(descriptor.serviceDescriptor)
+    kalixClient.setWebClient(WebClientProviderHolder(system).webClientProvider.localWebClient)
+    kalixClient.setGrpcTransport(GrpcComponentTransport(system))
+    componentClient = new ComponentClient(kalixClient)
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit = {
+    shutdown(system)
+    stub.stop()
+  }
+
+  @Benchmark
+  def single(): Increase =
+    EchoCalls
+      .echo(componentClient, increase)
+      .execute()
+      .toCompletableFuture
+      .get(Timeout.toMillis, TimeUnit.MILLISECONDS)
+
+  @Benchmark
+  @OperationsPerInvocation(Concurrency)
+  def concurrent(): Unit = {
+    val calls = Array.fill[CompletableFuture[_]](Concurrency)(
+      EchoCalls.echo(componentClient, increase).execute().toCompletableFuture)
+    CompletableFuture.allOf(calls: _*).get(Timeout.toMillis, TimeUnit.MILLISECONDS)
+  }
+}
+
+object CrossServiceClientBenchmark {
+  final val Concurrency = 64
+
+  private val Reply = """{"value":1}"""
+
+  private trait StubRuntime {
+    def port: Int
+    def stop(): Unit
+  }
+
+  private final class HttpStubRuntime extends StubRuntime {
+    private val server: DisposableServer = HttpServer
+      .create()
+      .host("127.0.0.1")
+      .port(0)
+      .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+      .handle((request: HttpServerRequest, response: HttpServerResponse) =>
+        request
+          .receive()
+          .aggregate()
+          .`then`(response.header("Content-Type", "application/json").sendString(Mono.just(Reply)).`then`()))
+      .bindNow()
+
+    override def port: Int = server.port()
+    override def stop(): Unit = server.disposeNow()
+  }
+
+  /** Replies to any call of the Echo method with the same JSON payload, the request is not decoded */
+  private final class GrpcStubRuntime(serviceName: String) extends StubRuntime {
+    private val reply = JsonSupport.encodeJson(new Increase(1))
+
+    private val method =
+      MethodDescriptor
+        .newBuilder[ByteString, JavaPbAny]()
+        .setType(MethodDescriptor.MethodType.UNARY)
+        .setFullMethodName(MethodDescriptor.generateFullMethodName(serviceName, "Echo"))
+        .setRequestMarshaller(new MethodDescriptor.Marshaller[ByteString] {
+          override def stream(value: ByteString): InputStream = value.newInput()
+          override def parse(stream: InputStream): ByteString = ByteString.readFrom(stream)
+        })
+        .setResponseMarshaller(new MethodDescriptor.Marshaller[JavaPbAny] {
+          override def stream(value: JavaPbAny): InputStream = value.toByteString.newInput()
+          override def parse(stream: InputStream): JavaPbAny = JavaPbAny.parseFrom(stream)
+        })
+        .build()
+
+    private val handler = new ServerCallHandler[ByteString, JavaPbAny] {
+      override def startCall(
+          call: ServerCall[ByteString, JavaPbAny],
+          headers: Metadata): ServerCall.Listener[ByteString] = {
+        call.request(1)
+        new ServerCall.Listener[ByteString] {
+          override def onHalfClose(): Unit = {
+            call.sendHeaders(new Metadata())
+            call.sendMessage(reply)
+            call.close(Status.OK, new Metadata())
+          }
+        }
+      }
+    }
+
+    private val server: Server = ServerBuilder
+      .forPort(0)
+      .addService(ServerServiceDefinition.builder(serviceName).addMethod(method, handler).build())
+      .build()
+      .start()
+
+    override def port: Int = server.getPort
+    override def stop(): Unit = server.shutdownNow()
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.example.shoppingcart.ShoppingCartApi
+import com.example.shoppingcart.domain.ShoppingCartDomain
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.benchmarks.json.CounterEvent
+import kalix.javasdk.benchmarks.json.CounterEventSourcedEntity
+import kalix.javasdk.benchmarks.json.CounterState
+import kalix.javasdk.benchmarks.json.Increase
+import kalix.javasdk.eventsourced.ReflectiveEventSourcedEntityProvider
+import kalix.javasdk.eventsourcedentity.CartEntity
+import kalix.javasdk.eventsourcedentity.CartEntityProvider
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.EventSourcedEntityFactory
+import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntitiesImpl
+import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntityService
+import kalix.javasdk.impl.eventsourcedentity.ResolvedEventSourcedEntityFactory
+import kalix.protocol.entity.Command
+import kalix.protocol.event_sourced_entity._
+import org.openjdk.jmh.annotations._
+
+/**
+ * Event sourced entity protocol handler: `command` measures a command emitting one event on a recovered entity,
+ * `replay` measures recovering an entity from `replayEvents` events followed by a first command, decoding up to
+ * `replayDecodeParallelism` events ahead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class EventSourcedEntityBenchmark {
+  import BenchmarkSupport._
+
+  @Param(Array("protobuf", "json"))
+  var codec: String = _
+
+  @Param(Array("100"))
+  var replayEvents: Int = _
+
+  @Param(Array("1"))
+  var replayDecodeParallelism: Int = _
+
+  private implicit var system: ActorSystem = _
+  private var eventSourcedEntities: EventSourcedEntitiesImpl = _
+  private var serviceName: String = _
+  private var harness: StreamHarness[EventSourcedStreamIn, EventSourcedStreamOut] = _
+  private var updateCommand: Option[ScalaPbAny] = _
+  private var updateName: String = _
+  private var readCommand: Option[ScalaPbAny] = _
+  private var readName: String = _
+  private var event: Option[ScalaPbAny] = _
+  private var commandId = 0L
+
+  private val entityId = "bench-1"
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    system = createSystem("EventSourcedEntityBenchmark")
+
+    val service =
+      if (isJson(codec)) {
+        val messageCodec = new JsonMessageCodec
+        val provider =
+          ReflectiveEventSourcedEntityProvider.of[CounterState, CounterEvent, CounterEventSourcedEntity](
+            classOf[CounterEventSourcedEntity],
+            messageCodec,
+            _ => new CounterEventSourcedEntity)
+        val desc = provider.serviceDescriptor()
+        updateName = "Increase"
+        updateCommand = Some(jsonCommand(messageCodec, desc, updateName, entityId, Some(new Increase(1))))
+        readName = "Get"
+        readCommand = Some(jsonCommand(messageCodec, desc, readName, entityId, None))
+        event = Some(messageCodec.encodeScala(new CounterEvent.ValueIncreased(1)))
+        val factory: EventSourcedEntityFactory = provider.newRouter(_)
+        new EventSourcedEntityService(
+          factory,
+          desc,
+          provider.additionalDescriptors(),
+          messageCodec,
+          provider.entityType(),
+          provider.options().snapshotEvery(),
+          Some(provider.options()))
+      } else {
+        val provider = CartEntityProvider.of(new CartEntity(_))
+        val anySupport = new AnySupport(provider.additionalDescriptors(), getClass.getClassLoader)
+        updateName = "AddItem"
+        updateCommand = Some(
+          ScalaPbAny.fromJavaProto(
+            JavaPbAny.pack(
+              ShoppingCartApi.AddLineItem
+                .newBuilder()
+                .setCartId(entityId)
+                .setProductId("p1")
+                .setName("product")
+                .setQuantity(1)
+                .build())))
+        readName = "GetCart"
+        readCommand = Some(
+          ScalaPbAny.fromJavaProto(
+            JavaPbAny.pack(ShoppingCartApi.GetShoppingCart.newBuilder().setCartId(entityId).build())))
+        event = Some(
+          ScalaPbAny.fromJavaProto(
+            JavaPbAny.pack(
+              ShoppingCartDomain.ItemAdded
+                .newBuilder()
+                .setItem(ShoppingCartDomain.LineItem.newBuilder().setProductId("p1").setName("product").setQuantity(1))
+                .build())))
+        val factory: EventSourcedEntityFactory = provider.newRouter(_)
+        new EventSourcedEntityService(
+          new ResolvedEventSourcedEntityFactory(
+            factory,
+            anySupport.resolveServiceDescriptor(provider.serviceDescriptor())),
+          provider.serviceDescriptor(),
+          provider.additionalDescriptors(),
+          anySupport,
+          provider.entityType(),
+          provider.options().snapshotEvery(),
+          Some(provider.options()))
+      }
+
+    serviceName = service.descriptor.getFullName
+    eventSourcedEntities =
+      new EventSourcedEntitiesImpl(
+        system,
+        Map(serviceName -> service),
+        runnerConfiguration().copy(replayDecodeParallelism = replayDecodeParallelism))
+    harness = startEntity(0)
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit = {
+    harness.complete()
+    shutdown(system)
+  }
+
+  private def startEntity(events: Int): StreamHarness[EventSourcedStreamIn, EventSourcedStreamOut] = {
+    val entity = new StreamHarness(eventSourcedEntities.handle)
+    entity.offer(
+      EventSourcedStreamIn(EventSourcedStreamIn.Message.Init(EventSourcedInit(serviceName, entityId, None))))
+    var sequence = 1L
+    while (sequence <= events) {
+      entity.offer(EventSourcedStreamIn(EventSourcedStreamIn.Message.Event(EventSourcedEvent(sequence, event))))
+      sequence += 1
+    }
+    entity
+  }
+
+  private def commandMessage(name: String, payload: Option[ScalaPbAny]): EventSourcedStreamIn = {
+    commandId += 1
+    EventSourcedStreamIn(EventSourcedStreamIn.Message.Command(Command(entityId, commandId, name, payload)))
+  }
+
+  @Benchmark
+  def command(): EventSourcedStreamOut =
+    harness.send(commandMessage(updateName, updateCommand))
+
+  @Benchmark
+  def replay(): EventSourcedStreamOut = {
+    val recovered = startEntity(replayEvents)
+    try recovered.send(commandMessage(readName, readCommand))
+    finally recovered.complete()
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.benchmarks.json.CounterState
+import kalix.javasdk.benchmarks.json.CounterValueEntity
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.ValueEntityFactory
+import kalix.javasdk.impl.valueentity.ValueEntitiesImpl
+import kalix.javasdk.impl.valueentity.ValueEntityService
+import kalix.javasdk.valueentity.ReflectiveValueEntityProvider
+import kalix.protocol.entity.Command
+import kalix.protocol.value_entity._
+import org.openjdk.jmh.annotations._
+
+/**
+ * Consecutive read commands on one Spring SDK value entity that was initialized with a persisted state from the proxy,
+ * so that the state is never replaced by one from the entity itself. Measures the per command cost of getting the
+ * current state to the command handler and back in the reply, with or without reusing the encoded reply.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class HotEntityBenchmark {
+  import BenchmarkSupport._
+  import HotEntityBenchmark._
+
+  @Param(Array("false", "true"))
+  var reuseEncodedReplies: Boolean = _
+
+  private implicit var system: ActorSystem = _
+  private var harness: StreamHarness[ValueEntityStreamIn, ValueEntityStreamOut] = _
+  private var readCommand: Option[ScalaPbAny] = _
+  private var commandId = 0L
+
+  private val entityId = "hot-1"
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    system = createSystem("HotEntityBenchmark")
+
+    val messageCodec = new JsonMessageCodec
+    val provider =
+      ReflectiveValueEntityProvider.of[CounterState, CounterValueEntity](
+        classOf[CounterValueEntity],
+        messageCodec,
+        _ => new CounterValueEntity)
+    val desc = provider.serviceDescriptor()
+    readCommand = Some(jsonCommand(messageCodec, desc, "Get", entityId, None))
+    val factory: ValueEntityFactory = provider.newRouter(_)
+    val service = new ValueEntityService(
+      factory,
+      desc,
+      provider.additionalDescriptors(),
+      messageCodec,
+      provider.entityType(),
+      Some(provider.options()))
+
+    val valueEntities =
+      new ValueEntitiesImpl(
+        system,
+        Map(service.descriptor.getFullName -> service),
+        runnerConfiguration().copy(reuseEncodedValueEntityReplies = reuseEncodedReplies))
+    harness = new StreamHarness(valueEntities.handle)
+    val persistedState = messageCodec.encodeScala(new CounterState(entityId, 42))
+    harness.offer(
+      ValueEntityStreamIn(
+        ValueEntityStreamIn.Message.Init(
+          ValueEntityInit(service.descriptor.getFullName, entityId, Some(ValueEntityInitState(Some(persistedState)))))))
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit = {
+    harness.complete()
+    shutdown(system)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ConsecutiveCommands)
+  def consecutiveReads(): ValueEntityStreamOut = {
+    var last: ValueEntityStreamOut = null
+    var i = 0
+    while (i < ConsecutiveCommands) {
+      commandId += 1
+      last = harness.send(
+        ValueEntityStreamIn(ValueEntityStreamIn.Message.Command(Command(entityId, commandId, "Get", readCommand))))
+      i += 1
+    }
+    last
+  }
+}
+
+object HotEntityBenchmark {
+  final val ConsecutiveCommands = 10000
+}
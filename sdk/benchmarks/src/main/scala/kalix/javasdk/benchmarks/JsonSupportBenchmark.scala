@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.jdk.CollectionConverters._
+
+import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.JsonSupport
+import kalix.javasdk.benchmarks.json.AggregateState
+import org.openjdk.jmh.annotations._
+
+/**
+ * `JsonSupport` encoding and decoding of a state with `entries` entries, as done for every JSON command, event and
+ * state of the Spring SDK. Run with `-prof gc` to see the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+class JsonSupportBenchmark {
+
+  @Param(Array("1", "100", "10000"))
+  var entries: Int = _
+
+  private var state: AggregateState = _
+  private var encoded: JavaPbAny = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    state = new AggregateState(
+      "bench-1",
+      (1 to entries).map(n => new AggregateState.Entry("entry-" + n, n.toLong)).asJava)
+    encoded = JsonSupport.encodeJson(state)
+  }
+
+  @Benchmark
+  def encode(): JavaPbAny =
+    JsonSupport.encodeJson(state)
+
+  @Benchmark
+  def decode(): AggregateState =
+    JsonSupport.decodeJson(classOf[AggregateState], encoded)
+}
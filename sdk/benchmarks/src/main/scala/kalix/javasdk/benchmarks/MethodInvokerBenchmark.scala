@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import kalix.javasdk.benchmarks.json.ValueIncreased
+import kalix.javasdk.benchmarks.json.CounterState
+import kalix.javasdk.impl.InvocationContext
+import kalix.javasdk.impl.MethodInvoker
+import kalix.javasdk.impl.reflection.ParameterExtractor
+import org.openjdk.jmh.annotations._
+
+/**
+ * Invoking a component method through `MethodInvoker` compared to plain reflection, for the arities that handlers use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+class MethodInvokerBenchmark {
+
+  private val target = new MethodInvokerBenchmark.Target
+  private val state = new CounterState("bench-1", 1)
+  private val event = new ValueIncreased(1)
+
+  private val zeroArityMethod = classOf[MethodInvokerBenchmark.Target].getMethod("get")
+  private val oneArityMethod =
+    classOf[MethodInvokerBenchmark.Target].getMethod("applyEvent", classOf[ValueIncreased])
+  private val twoArityMethod =
+    classOf[MethodInvokerBenchmark.Target].getMethod("update", classOf[CounterState], classOf[ValueIncreased])
+
+  private val zeroArityInvoker =
+    MethodInvoker(zeroArityMethod, Array.empty[ParameterExtractor[InvocationContext, AnyRef]])
+  private val oneArityInvoker =
+    MethodInvoker(oneArityMethod, Array.empty[ParameterExtractor[InvocationContext, AnyRef]])
+  private val twoArityInvoker = MethodInvoker(
+    twoArityMethod,
+    Array[ParameterExtractor[InvocationContext, AnyRef]](_ => state, _ => event))
+
+  @Benchmark
+  def reflectionZeroArity(): AnyRef = zeroArityMethod.invoke(target)
+
+  @Benchmark
+  def invokerZeroArity(): AnyRef = zeroArityInvoker.invoke(target)
+
+  @Benchmark
+  def reflectionOneArity(): AnyRef = oneArityMethod.invoke(target, event)
+
+  @Benchmark
+  def invokerOneArity(): AnyRef = oneArityInvoker.invokeDirectly(target, event)
+
+  @Benchmark
+  def reflectionTwoArity(): AnyRef = twoArityMethod.invoke(target, state, event)
+
+  @Benchmark
+  def invokerTwoArity(): AnyRef = twoArityInvoker.invoke(target, null: InvocationContext)
+}
+
+object MethodInvokerBenchmark {
+  final class Target {
+    private var current = new CounterState("bench-1", 0)
+
+    def get(): CounterState = current
+
+    def applyEvent(event: ValueIncreased): CounterState = {
+      current = current.increase(event.value())
+      current
+    }
+
+    def update(state: CounterState, event: ValueIncreased): CounterState =
+      state.increase(event.value())
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import kalix.javasdk.impl.http.PathTemplateParser
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Matching a path against a path template and capturing its variables, with the compiled path matcher compared to the
+ * regex of the template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+class PathMatchingBenchmark {
+
+  private val template = PathTemplateParser.parse("/akka/v1.0/entity/{entityType}/{id}/increase/{value}")
+  private val path = "/akka/v1.0/entity/counter/8a4c0c2e-1d3f-4b1a-9f0e-3c2b1a0d9e8f/increase/10"
+  private val captures = new Array[Int](template.matcher.variableCount * 2)
+
+  @Benchmark
+  def regex(blackhole: Blackhole): Unit = {
+    val matcher = template.regex.pattern.matcher(path)
+    if (matcher.matches()) {
+      var group = 1
+      while (group <= matcher.groupCount()) {
+        blackhole.consume(matcher.group(group))
+        group += 1
+      }
+    }
+  }
+
+  @Benchmark
+  def pathMatcher(blackhole: Blackhole): Unit = {
+    if (template.matcher.matchPath(path, captures)) {
+      var variable = 0
+      while (variable < template.matcher.variableCount) {
+        blackhole.consume(path.substring(captures(variable * 2), captures(variable * 2 + 1)))
+        variable += 1
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.jdk.CollectionConverters._
+
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.JsonSupport
+import kalix.javasdk.benchmarks.json.AggregateState
+import kalix.javasdk.impl.CompressingMessageCodec
+import kalix.javasdk.impl.MessageCodec
+import kalix.javasdk.impl.PayloadCompression
+import org.openjdk.jmh.annotations._
+
+/**
+ * Encoding and decoding of a JSON state with `entries` entries as stored, without compression (`algorithm=none`) and
+ * compressed with each of the algorithms of the `compression` settings of the entities. The sizes of the stored
+ * payloads are listed in the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+class PayloadCompressionBenchmark {
+
+  @Param(Array("none", "lz4", "zstd"))
+  var algorithm: String = _
+
+  @Param(Array("100", "10000"))
+  var entries: Int = _
+
+  private object JsonCodec extends MessageCodec {
+    override def decodeMessage(any: ScalaPbAny): Any =
+      JsonSupport.decodeJson(classOf[AggregateState], ScalaPbAny.toJavaProto(any))
+    override def encodeScala(value: Any): ScalaPbAny = ScalaPbAny.fromJavaProto(encodeJava(value))
+    override def encodeJava(value: Any): JavaPbAny = JsonSupport.encodeJson(value)
+    override def typeUrlFor(clz: Class[_]): String = JsonSupport.KALIX_JSON + clz.getName
+  }
+
+  private var codec: MessageCodec = _
+  private var state: AggregateState = _
+  private var encoded: ScalaPbAny = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    codec =
+      if (algorithm == "none") JsonCodec
+      else new CompressingMessageCodec(JsonCodec, PayloadCompression(algorithm), threshold = 1)
+    state = new AggregateState(
+      "bench-1",
+      (1 to entries).map(n => new AggregateState.Entry("entry-" + n, n.toLong)).asJava)
+    encoded = codec.encodeScala(state)
+  }
+
+  @Benchmark
+  def encode(): ScalaPbAny =
+    codec.encodeScala(state)
+
+  @Benchmark
+  def decode(): Any =
+    codec.decodeMessage(encoded)
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import com.google.protobuf.ByteString
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.ByteStringEncoding
+import org.openjdk.jmh.annotations._
+
+/**
+ * Encoding and decoding of the Kalix primitive wrappers, which every JSON payload goes through. Run with `-prof gc` to
+ * see the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+class PrimitiveEncodingBenchmark {
+
+  @Param(Array("64", "1024"))
+  var payloadSize: Int = _
+
+  private val anySupport = new AnySupport(Array.empty, getClass.getClassLoader)
+
+  private var payload: ByteString = _
+  private var encodedPayload: ByteString = _
+  private var text: String = _
+  private var encodedText: ScalaPbAny = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    text = "{\"value\":\"" + ("x" * math.max(0, payloadSize - 12)) + "\"}"
+    payload = ByteString.copyFromUtf8(text)
+    encodedPayload = ByteStringEncoding.encodePrimitiveBytes(payload)
+    encodedText = anySupport.encodeScala(text)
+  }
+
+  @Benchmark
+  def encodeBytes(): ByteString =
+    ByteStringEncoding.encodePrimitiveBytes(payload)
+
+  @Benchmark
+  def decodeBytes(): ByteString =
+    ByteStringEncoding.decodePrimitiveBytes(encodedPayload)
+
+  @Benchmark
+  def encodeString(): ScalaPbAny =
+    anySupport.encodeScala(text)
+
+  @Benchmark
+  def decodeString(): Any =
+    anySupport.decodePossiblyPrimitive(encodedText)
+
+  @Benchmark
+  def encodeLong(): ScalaPbAny =
+    anySupport.encodeScala(java.lang.Long.valueOf(payloadSize.toLong))
+}
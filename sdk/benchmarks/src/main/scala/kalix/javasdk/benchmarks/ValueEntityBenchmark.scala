@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import com.example.valueentity.shoppingcart.ShoppingCartApi
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.benchmarks.json.CounterState
+import kalix.javasdk.benchmarks.json.CounterValueEntity
+import kalix.javasdk.benchmarks.json.Increase
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.ValueEntityFactory
+import kalix.javasdk.impl.valueentity.ResolvedValueEntityFactory
+import kalix.javasdk.impl.valueentity.ValueEntitiesImpl
+import kalix.javasdk.impl.valueentity.ValueEntityService
+import kalix.javasdk.valueentity.CartEntity
+import kalix.javasdk.valueentity.CartEntityProvider
+import kalix.javasdk.valueentity.ReflectiveValueEntityProvider
+import kalix.protocol.entity.Command
+import kalix.protocol.value_entity._
+import org.openjdk.jmh.annotations._
+
+/**
+ * Round trip of a single command through `ValueEntitiesImpl.handle`, including decoding the command, invoking the
+ * entity, encoding the new state and the reply.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class ValueEntityBenchmark {
+  import BenchmarkSupport._
+
+  @Param(Array("protobuf", "json"))
+  var codec: String = _
+
+  private implicit var system: ActorSystem = _
+  private var harness: StreamHarness[ValueEntityStreamIn, ValueEntityStreamOut] = _
+  private var updateCommand: Option[ScalaPbAny] = _
+  private var updateName: String = _
+  private var readCommand: Option[ScalaPbAny] = _
+  private var readName: String = _
+  private var commandId = 0L
+
+  private val entityId = "bench-1"
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    system = createSystem("ValueEntityBenchmark")
+
+    val service =
+      if (isJson(codec)) {
+        val messageCodec = new JsonMessageCodec
+        val provider =
+          ReflectiveValueEntityProvider.of[CounterState, CounterValueEntity](
+            classOf[CounterValueEntity],
+            messageCodec,
+            _ => new CounterValueEntity)
+        val desc = provider.serviceDescriptor()
+        updateName = "Increase"
+        updateCommand = Some(jsonCommand(messageCodec, desc, updateName, entityId, Some(new Increase(1))))
+        readName = "Get"
+        readCommand = Some(jsonCommand(messageCodec, desc, readName, entityId, None))
+        val factory: ValueEntityFactory = provider.newRouter(_)
+        new ValueEntityService(
+          factory,
+          desc,
+          provider.additionalDescriptors(),
+          messageCodec,
+          provider.entityType(),
+          Some(provider.options()))
+      } else {
+        val provider = CartEntityProvider.of(new CartEntity(_))
+        val anySupport = new AnySupport(provider.additionalDescriptors(), getClass.getClassLoader)
+        updateName = "AddItem"
+        updateCommand = Some(
+          ScalaPbAny.fromJavaProto(
+            JavaPbAny.pack(
+              ShoppingCartApi.AddLineItem
+                .newBuilder()
+                .setCartId(entityId)
+                .setProductId("p1")
+                .setName("product")
+                .setQuantity(1)
+                .build())))
+        readName = "GetCart"
+        readCommand = Some(
+          ScalaPbAny.fromJavaProto(
+            JavaPbAny.pack(ShoppingCartApi.GetShoppingCart.newBuilder().setCartId(entityId).build())))
+        val factory: ValueEntityFactory = provider.newRouter(_)
+        new ValueEntityService(
+          new ResolvedValueEntityFactory(
+            factory,
+            anySupport.resolveServiceDescriptor(provider.serviceDescriptor())),
+          provider.serviceDescriptor(),
+          provider.additionalDescriptors(),
+          anySupport,
+          provider.entityType(),
+          Some(provider.options()))
+      }
+
+    val valueEntities =
+      new ValueEntitiesImpl(system, Map(service.descriptor.getFullName -> service), runnerConfiguration())
+    harness = new StreamHarness(valueEntities.handle)
+    harness.offer(
+      ValueEntityStreamIn(
+        ValueEntityStreamIn.Message.Init(
+          ValueEntityInit(service.descriptor.getFullName, entityId, Some(ValueEntityInitState())))))
+    // make sure there is a state to read
+    update()
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit = {
+    harness.complete()
+    shutdown(system)
+  }
+
+  private def command(name: String, payload: Option[ScalaPbAny]): ValueEntityStreamIn = {
+    commandId += 1
+    ValueEntityStreamIn(ValueEntityStreamIn.Message.Command(Command(entityId, commandId, name, payload)))
+  }
+
+  @Benchmark
+  def update(): ValueEntityStreamOut =
+    harness.send(command(updateName, updateCommand))
+
+  @Benchmark
+  def read(): ValueEntityStreamOut =
+    harness.send(command(readName, readCommand))
+}
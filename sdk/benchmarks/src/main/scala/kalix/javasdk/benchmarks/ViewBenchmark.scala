@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.benchmarks
+
+import java.util.Optional
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.Source
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.benchmarks.json.CounterEvent
+import kalix.javasdk.benchmarks.json.CounterState
+import kalix.javasdk.benchmarks.json.CounterView
+import kalix.javasdk.benchmarks.protobuf.CartView
+import kalix.javasdk.benchmarks.protobuf.CartViewRouter
+import kalix.javasdk.impl.AbstractContext
+import kalix.javasdk.impl.AnySupport
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.ViewFactory
+import kalix.javasdk.impl.view.ViewService
+import kalix.javasdk.impl.view.ViewsImpl
+import kalix.javasdk.shoppingcart.ShoppingCart
+import kalix.javasdk.shoppingcart.ShoppingCartViewModel
+import kalix.javasdk.view.ReflectiveViewProvider
+import kalix.protocol.{ view => pv }
+import org.openjdk.jmh.annotations._
+
+/**
+ * A view update through `ViewsImpl.handle`: decoding the event and the previous row, invoking the update handler and
+ * encoding the new row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput, Mode.SampleTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+class ViewBenchmark {
+  import BenchmarkSupport._
+
+  @Param(Array("protobuf", "json"))
+  var codec: String = _
+
+  private implicit var system: ActorSystem = _
+  private var views: ViewsImpl = _
+  private var receiveEvent: pv.ViewStreamIn = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    system = createSystem("ViewBenchmark")
+
+    val (service, commandName, event, state) =
+      if (isJson(codec)) {
+        val messageCodec = new JsonMessageCodec
+        val provider =
+          ReflectiveViewProvider.of[CounterState, CounterView](classOf[CounterView], messageCodec, _ => new CounterView)
+        val desc = provider.serviceDescriptor()
+        val updateMethod = desc.findMethodByName("OnIncreased")
+        require(updateMethod != null, s"No update method found in ${desc.getFullName}")
+        val service = new ViewService(
+          Optional.of[ViewFactory](provider.newRouter(_)),
+          desc,
+          provider.additionalDescriptors(),
+          messageCodec,
+          provider.viewId(),
+          Some(provider.options()))
+        (
+          service,
+          updateMethod.getName,
+          messageCodec.encodeScala(new CounterEvent.ValueIncreased(1)),
+          messageCodec.encodeScala(new CounterState("bench-1", 1)))
+      } else {
+        val desc = ShoppingCartViewModel.getDescriptor.findServiceByName("ShoppingCartViewService")
+        val anySupport = new AnySupport(Array(ShoppingCartViewModel.getDescriptor), getClass.getClassLoader)
+        val service = new ViewService(
+          Optional.of[ViewFactory](_ => new CartViewRouter(new CartView)),
+          desc,
+          Array(),
+          anySupport,
+          "carts",
+          None)
+        val added = ShoppingCart.ItemAdded
+          .newBuilder()
+          .setItem(ShoppingCart.LineItem.newBuilder().setProductId("p1").setName("product").setQuantity(1))
+          .build()
+        val cart = ShoppingCartViewModel.CartViewState.newBuilder().setUserId("bench-1").setNumberOfItems(1).build()
+        (
+          service,
+          "ProcessAdded",
+          ScalaPbAny.fromJavaProto(JavaPbAny.pack(added)),
+          ScalaPbAny.fromJavaProto(JavaPbAny.pack(cart)))
+      }
+
+    views = new ViewsImpl(system, Map(service.descriptor.getFullName -> service), new AbstractContext(system) {})
+    receiveEvent = pv.ViewStreamIn(
+      pv.ViewStreamIn.Message.Receive(
+        pv.ReceiveEvent(
+          serviceName = service.descriptor.getFullName,
+          commandName = commandName,
+          payload = Some(event),
+          bySubjectLookupResult = Some(pv.Row(value = Some(state))))))
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit =
+    shutdown(system)
+
+  @Benchmark
+  def update(): pv.ViewStreamOut =
+    Await.result(views.handle(Source.single(receiveEvent)).runWith(Sink.head), Timeout)
+}
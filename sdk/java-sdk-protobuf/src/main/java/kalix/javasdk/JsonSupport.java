@@ -22,13 +22,11 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
@@ -36,12 +34,11 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
-import com.google.protobuf.UnsafeByteOperations;
-import kalix.javasdk.annotations.Migration;
 import kalix.javasdk.impl.ByteStringEncoding;
+import kalix.javasdk.impl.JsonTypeRegistry;
+import kalix.javasdk.impl.PrimitiveBytesOutputStream;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Optional;
 
@@ -119,12 +116,12 @@ public final class JsonSupport {
    */
   public static <T> Any encodeJson(T value, String jsonType) {
     try {
-      ByteString bytes =
-          UnsafeByteOperations.unsafeWrap(
-              objectMapper.writerFor(value.getClass()).writeValueAsBytes(value));
-      ByteString encodedBytes = ByteStringEncoding.encodePrimitiveBytes(bytes);
+      // Jackson writes straight into the buffer of the primitive bytes wrapper, no intermediate copies
+      PrimitiveBytesOutputStream out = new PrimitiveBytesOutputStream();
+      JsonTypeRegistry.lookup(value.getClass()).writer().writeValue(out, value);
+      ByteString encodedBytes = out.toPrimitiveBytes();
       return Any.newBuilder().setTypeUrl(KALIX_JSON + jsonType).setValue(encodedBytes).build();
-    } catch (JsonProcessingException ex) {
+    } catch (IOException ex) {
       throw new IllegalArgumentException(
           "Could not encode [" + value.getClass().getName() + "] as JSON", ex);
     }
@@ -141,64 +138,7 @@ public final class JsonSupport {
    * @throws IllegalArgumentException if the given value cannot be decoded to a T
    */
   public static <T> T decodeJson(Class<T> valueClass, Any any) {
-    if (!any.getTypeUrl().startsWith(KALIX_JSON)) {
-      throw new IllegalArgumentException(
-          "Protobuf bytes with type url ["
-              + any.getTypeUrl()
-              + "] cannot be decoded as JSON, must start with ["
-              + KALIX_JSON
-              + "]");
-    } else {
-      try {
-        ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(any.getValue());
-        if (valueClass.getAnnotation(Migration.class) != null) {
-          JsonMigration migration = valueClass.getAnnotation(Migration.class)
-              .value()
-              .getConstructor()
-              .newInstance();
-          int fromVersion = parseVersion(any.getTypeUrl());
-          int currentVersion = migration.currentVersion();
-          int supportedForwardVersion = migration.supportedForwardVersion();
-          if (fromVersion < currentVersion) {
-            return migrate(valueClass, decodedBytes, fromVersion, migration);
-          } else if (fromVersion == currentVersion) {
-            return objectMapper.readValue(decodedBytes.toByteArray(), valueClass);
-          } else if (fromVersion <= supportedForwardVersion) {
-            return migrate(valueClass, decodedBytes, fromVersion, migration);
-          } else {
-            throw new IllegalStateException("Migration version " + supportedForwardVersion + " is " +
-                "behind version " + fromVersion + " of deserialized type [" + valueClass.getName() + "]");
-          }
-        } else {
-          return objectMapper.readValue(decodedBytes.toByteArray(), valueClass);
-        }
-      } catch (IOException | NoSuchMethodException | InstantiationException | IllegalAccessException |
-               InvocationTargetException e) {
-        throw new IllegalArgumentException(
-            "JSON with type url ["
-                + any.getTypeUrl()
-                + "] could not be decoded into a ["
-                + valueClass.getName()
-                + "]",
-            e);
-      }
-    }
-  }
-
-  private static <T> T migrate(Class<T> valueClass, ByteString decodedBytes, int fromVersion, JsonMigration jsonMigration) throws IOException {
-    JsonNode jsonNode = objectMapper.readTree(decodedBytes.toByteArray());
-    JsonNode newJsonNode = jsonMigration.transform(fromVersion, jsonNode);
-    return objectMapper.treeToValue(newJsonNode, valueClass);
-  }
-
-  private static int parseVersion(String typeUrl) {
-    int versionSeparatorIndex = typeUrl.lastIndexOf("#");
-    if (versionSeparatorIndex > 0) {
-      String maybeVersion = typeUrl.substring(versionSeparatorIndex + 1);
-      return Integer.parseInt(maybeVersion);
-    } else {
-      return 0;
-    }
+    return JsonTypeRegistry.lookup(valueClass).decode(any.getTypeUrl(), any.getValue());
   }
 
   public static <T, C extends Collection<T>> C decodeJsonCollection(Class<T> valueClass, Class<C> collectionType, Any any) {
@@ -213,7 +153,7 @@ public final class JsonSupport {
       try {
         ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(any.getValue());
         var typeRef = objectMapper.getTypeFactory().constructCollectionType(collectionType, valueClass);
-        return objectMapper.readValue(decodedBytes.toByteArray(), typeRef);
+        return objectMapper.readValue(decodedBytes.newInput(), typeRef);
       } catch (IOException e) {
         throw new IllegalArgumentException(
           "JSON with type url ["
@@ -115,6 +115,10 @@ public abstract class EventSourcedEntity<S, E> {
    * <p>Note that modifying the state directly will not update it in storage. To save the state, one
    * must call {{@code effects().updateState()}}.
    *
+   * <p>The returned state must be treated as immutable. The same instance may be returned for
+   * subsequent commands, so changes made to it in place would be seen by those commands even though
+   * they were never stored. Return a new instance from the event handlers instead.
+   *
    * <p>This method can only be called when handling a command or an event. Calling it outside a
    * method (eg: in the constructor) will raise a IllegalStateException exception.
    *
@@ -21,6 +21,7 @@ import kalix.javasdk.PassivationStrategy;
 import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntityOptionsImpl;
 
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 
 /** Root entity options for all event sourcing entities. */
@@ -39,6 +40,24 @@ public interface EventSourcedEntityOptions extends EntityOptions {
    */
   EventSourcedEntityOptions withSnapshotEvery(int numberOfEvents);
 
+  /** The policy set with {@link #withSnapshotPolicy(SnapshotPolicy)}, if any. */
+  default Optional<SnapshotPolicy> snapshotPolicy() {
+    return Optional.empty();
+  }
+
+  /**
+   * Decide when to snapshot with the given policy, for example based on the size of the events or
+   * the time it takes to replay them, instead of a fixed number of events. Takes precedence over
+   * {@link #withSnapshotEvery(int)}.
+   *
+   * @throws UnsupportedOperationException if these options do not support snapshot policies, only
+   *     the case for custom implementations of this interface
+   */
+  default EventSourcedEntityOptions withSnapshotPolicy(SnapshotPolicy policy) {
+    throw new UnsupportedOperationException(
+        "Snapshot policies are not supported by [" + getClass().getName() + "]");
+  }
+
   /**
    * @deprecated passivation strategy is ignored
    */
@@ -56,6 +75,6 @@ public interface EventSourcedEntityOptions extends EntityOptions {
    */
   static EventSourcedEntityOptions defaults() {
     return new EventSourcedEntityOptionsImpl(
-        0, PassivationStrategy.defaultTimeout(), Collections.emptySet());
+        0, PassivationStrategy.defaultTimeout(), Collections.emptySet(), Optional.empty());
   }
 }
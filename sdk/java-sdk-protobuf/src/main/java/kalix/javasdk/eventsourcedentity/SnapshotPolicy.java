@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.eventsourcedentity;
+
+import kalix.javasdk.impl.eventsourcedentity.AnyOfSnapshotPolicy;
+import kalix.javasdk.impl.eventsourcedentity.EveryEventBytesSnapshotPolicy;
+import kalix.javasdk.impl.eventsourcedentity.EveryEventsSnapshotPolicy;
+import kalix.javasdk.impl.eventsourcedentity.ReplayTimeBudgetSnapshotPolicy;
+import kalix.javasdk.impl.eventsourcedentity.StateGrowthSnapshotPolicy;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Decides when a snapshot of the state of an event sourced entity is stored, consulted after each
+ * command that persisted events. Snapshots bound the number of events to replay when the entity is
+ * recovered, but each one is an additional write of the full state.
+ *
+ * <p>The counters in {@link Stats} are tracked per entity instance, since it was started or since
+ * the last snapshot it stored.
+ */
+@FunctionalInterface
+public interface SnapshotPolicy {
+
+  /** The counters a policy decides on, since the last snapshot of the entity instance. */
+  interface Stats {
+    /** Number of events since the last snapshot, including the replayed ones. */
+    long eventsSinceSnapshot();
+
+    /** Accumulated size of the serialized events since the last snapshot, in bytes. */
+    long eventBytesSinceSnapshot();
+
+    /**
+     * Estimated time it takes to replay the events since the last snapshot, from the time measured
+     * when replaying them and the command handling time for events persisted by this instance.
+     */
+    Duration estimatedReplayTime();
+
+    /** Size of the serialized last snapshot in bytes, 0 if the entity has no snapshot yet. */
+    long lastSnapshotBytes();
+  }
+
+  /**
+   * @return true if the current state should be stored as a snapshot together with the events of
+   *     the command
+   */
+  boolean shouldSnapshot(Stats stats);
+
+  /**
+   * Snapshot once this many events were persisted since the last snapshot.
+   *
+   * @param numberOfEvents a positive number of events
+   */
+  static SnapshotPolicy everyEvents(int numberOfEvents) {
+    return new EveryEventsSnapshotPolicy(numberOfEvents);
+  }
+
+  /**
+   * Snapshot once the events persisted since the last snapshot add up to this many bytes
+   * serialized, a better fit than a number of events when event sizes vary a lot.
+   *
+   * @param bytes a positive number of bytes
+   */
+  static SnapshotPolicy everyEventBytes(long bytes) {
+    return new EveryEventBytesSnapshotPolicy(bytes);
+  }
+
+  /**
+   * Snapshot once replaying the events since the last snapshot is estimated to take longer than the
+   * given budget, bounding the recovery time of the entity.
+   *
+   * @param budget a positive duration
+   */
+  static SnapshotPolicy replayTimeBudget(Duration budget) {
+    return new ReplayTimeBudgetSnapshotPolicy(budget);
+  }
+
+  /**
+   * Snapshot once the events since the last snapshot add up to more than {@code factor} times the
+   * size of that snapshot. Entities with large states are snapshotted rarely and small ones with
+   * many changes more often. Does not trigger before the entity has a first snapshot, so combine it
+   * with another policy using {@link #anyOf(SnapshotPolicy...)}.
+   *
+   * @param factor a positive factor of the last snapshot size
+   */
+  static SnapshotPolicy stateGrowth(double factor) {
+    return new StateGrowthSnapshotPolicy(factor);
+  }
+
+  /** Snapshot when any of the given policies says so. */
+  static SnapshotPolicy anyOf(SnapshotPolicy... policies) {
+    return new AnyOfSnapshotPolicy(Arrays.asList(policies));
+  }
+}
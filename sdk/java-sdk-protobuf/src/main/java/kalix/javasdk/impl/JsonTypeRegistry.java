@@ -0,0 +1,233 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl;
+
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+import com.google.protobuf.ByteString;
+import kalix.javasdk.JsonMigration;
+import kalix.javasdk.JsonSupport;
+import kalix.javasdk.annotations.Migration;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * INTERNAL API
+ *
+ * <p>Class keyed registry of everything needed to encode and decode a JSON type: a Jackson reader
+ * and writer prepared for the class and, if the class is annotated with {@link Migration}, the
+ * migration instance and its versions. Entries are created once, either up front when a component
+ * registers its types or on first use, so that encoding and decoding does not involve any
+ * reflection.
+ *
+ * <p>The readers and writers are created from {@link JsonSupport#getObjectMapper()}, and take the
+ * configuration the object mapper has at that moment. When the object mapper is reconfigured later,
+ * by registering modules or changing features, the entries are created again on their next lookup.
+ * Jackson itself still keeps the deserializers it already created for a class, so any configuration
+ * of the object mapper should be done before starting Kalix.
+ *
+ * <p>Entries are kept in a {@link ClassValue}, so that they do not keep the class loaders of the
+ * classes reachable once the classes themselves are unloaded.
+ */
+public final class JsonTypeRegistry {
+
+  public static final class JsonType<T> {
+
+    private final Class<T> valueClass;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final JsonMigration migration;
+    private final int currentVersion;
+    private final int supportedForwardVersion;
+    // the parts of the object mapper configuration the reader and writer were created with, Jackson
+    // replaces them when the object mapper is reconfigured
+    private final SerializationConfig serializationConfig;
+    private final DeserializationConfig deserializationConfig;
+    private final SerializerFactory serializerFactory;
+    private final DeserializationContext deserializationContext;
+
+    private JsonType(Class<T> valueClass) {
+      ObjectMapper objectMapper = JsonSupport.getObjectMapper();
+      this.serializationConfig = objectMapper.getSerializationConfig();
+      this.deserializationConfig = objectMapper.getDeserializationConfig();
+      this.serializerFactory = objectMapper.getSerializerFactory();
+      this.deserializationContext = objectMapper.getDeserializationContext();
+      this.valueClass = valueClass;
+      this.reader = objectMapper.readerFor(valueClass);
+      this.writer = objectMapper.writerFor(valueClass);
+      this.migration = createMigration(valueClass);
+      this.currentVersion = migration == null ? 0 : migration.currentVersion();
+      this.supportedForwardVersion = migration == null ? 0 : migration.supportedForwardVersion();
+    }
+
+    private boolean createdWith(ObjectMapper objectMapper) {
+      return serializationConfig == objectMapper.getSerializationConfig()
+          && deserializationConfig == objectMapper.getDeserializationConfig()
+          && serializerFactory == objectMapper.getSerializerFactory()
+          && deserializationContext == objectMapper.getDeserializationContext();
+    }
+
+    public Class<T> valueClass() {
+      return valueClass;
+    }
+
+    public ObjectReader reader() {
+      return reader;
+    }
+
+    public ObjectWriter writer() {
+      return writer;
+    }
+
+    public boolean hasMigration() {
+      return migration != null;
+    }
+
+    /** @return the migration of the type, or null if the type is not annotated with {@link Migration} */
+    public JsonMigration migration() {
+      return migration;
+    }
+
+    public int currentVersion() {
+      return currentVersion;
+    }
+
+    public int supportedForwardVersion() {
+      return supportedForwardVersion;
+    }
+
+    public List<String> supportedClassNames() {
+      return migration == null ? List.of() : migration.supportedClassNames();
+    }
+
+    /**
+     * Decode the JSON, wrapped as Kalix primitive bytes, of a value with the given type url,
+     * migrating it if it was written with another version of the type.
+     *
+     * @throws IllegalArgumentException if the type url is not a JSON type url or the value
+     *     cannot be decoded to a T
+     */
+    public T decode(String typeUrl, ByteString encodedBytes) {
+      if (!typeUrl.startsWith(JsonSupport.KALIX_JSON)) {
+        throw new IllegalArgumentException(
+            "Protobuf bytes with type url ["
+                + typeUrl
+                + "] cannot be decoded as JSON, must start with ["
+                + JsonSupport.KALIX_JSON
+                + "]");
+      } else {
+        try {
+          ByteString decodedBytes = ByteStringEncoding.decodePrimitiveBytes(encodedBytes);
+          if (hasMigration()) {
+            int fromVersion = parseVersion(typeUrl);
+            if (fromVersion < currentVersion) {
+              return migrate(decodedBytes, fromVersion);
+            } else if (fromVersion == currentVersion) {
+              return reader.readValue(decodedBytes.newInput());
+            } else if (fromVersion <= supportedForwardVersion) {
+              return migrate(decodedBytes, fromVersion);
+            } else {
+              throw new IllegalStateException("Migration version " + supportedForwardVersion + " is " +
+                  "behind version " + fromVersion + " of deserialized type [" + valueClass.getName() + "]");
+            }
+          } else {
+            // decodedBytes is a slice of the encoded bytes, parse it in place rather than copying it to an array
+            return reader.readValue(decodedBytes.newInput());
+          }
+        } catch (IOException e) {
+          throw new IllegalArgumentException(
+              "JSON with type url ["
+                  + typeUrl
+                  + "] could not be decoded into a ["
+                  + valueClass.getName()
+                  + "]",
+              e);
+        }
+      }
+    }
+
+    private T migrate(ByteString decodedBytes, int fromVersion) throws IOException {
+      JsonNode jsonNode = JsonSupport.getObjectMapper().readTree(decodedBytes.newInput());
+      JsonNode newJsonNode = migration.transform(fromVersion, jsonNode);
+      return reader.readValue(newJsonNode);
+    }
+  }
+
+  private static final ClassValue<JsonType<?>> types =
+      new ClassValue<>() {
+        @Override
+        protected JsonType<?> computeValue(Class<?> valueClass) {
+          return new JsonType<>(valueClass);
+        }
+      };
+
+  private JsonTypeRegistry() {
+  }
+
+  /**
+   * Get the entry for the given class, creating it if this is the first time the class is seen or
+   * if {@link JsonSupport#getObjectMapper()} was reconfigured since the entry was created.
+   *
+   * @throws IllegalArgumentException if the class has a {@link Migration} that cannot be
+   *     instantiated
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> JsonType<T> lookup(Class<T> valueClass) {
+    JsonType<?> type = types.get(valueClass);
+    if (!type.createdWith(JsonSupport.getObjectMapper())) {
+      types.remove(valueClass);
+      type = types.get(valueClass);
+    }
+    return (JsonType<T>) type;
+  }
+
+  private static int parseVersion(String typeUrl) {
+    int versionSeparatorIndex = typeUrl.lastIndexOf("#");
+    if (versionSeparatorIndex > 0) {
+      String maybeVersion = typeUrl.substring(versionSeparatorIndex + 1);
+      return Integer.parseInt(maybeVersion);
+    } else {
+      return 0;
+    }
+  }
+
+  private static JsonMigration createMigration(Class<?> valueClass) {
+    Migration annotation = valueClass.getAnnotation(Migration.class);
+    if (annotation == null) {
+      return null;
+    } else {
+      try {
+        return annotation.value().getConstructor().newInstance();
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalArgumentException(
+            "Could not create migration ["
+                + annotation.value().getName()
+                + "] for ["
+                + valueClass.getName()
+                + "]",
+            e);
+      }
+    }
+  }
+}
@@ -101,6 +101,11 @@ public abstract class ValueEntity<S> {
    * <p>Note that modifying the state directly will not update it in storage. To save the state, one
    * must call {{@code effects().updateState()}}.
    *
+   * <p>The returned state must be treated as immutable. The same instance may be returned for
+   * subsequent commands, so changes made to it in place would be seen by those commands even though
+   * they were never stored. Pass a new instance to {@code effects().updateState()}
+   * instead.
+   *
    * <p>This method can only be called when handling a command. Calling it outside a method (eg: in
    * the constructor) will raise a IllegalStateException exception.
    *
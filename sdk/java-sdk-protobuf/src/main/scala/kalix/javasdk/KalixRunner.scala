@@ -42,6 +42,7 @@ import kalix.devtools.impl.HostAndPort
 import kalix.javasdk.impl.AbstractContext
 import kalix.javasdk.impl.DiscoveryImpl
 import kalix.javasdk.impl.Service
+import kalix.javasdk.impl.PayloadCompressionSettings
 import kalix.javasdk.impl.action.ActionService
 import kalix.javasdk.impl.action.ActionsImpl
 import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntitiesImpl
@@ -73,7 +74,14 @@ object KalixRunner {
       userFunctionPort: Int,
       snapshotEvery: Int,
       cleanupDeletedEventSourcedEntityAfter: Duration,
-      cleanupDeletedValueEntityAfter: Duration) {
+      cleanupDeletedValueEntityAfter: Duration,
+      reuseEncodedEventSourcedEntityReplies: Boolean = false,
+      reuseEncodedValueEntityReplies: Boolean = false,
+      replayDecodeParallelism: Int = 1,
+      deferSnapshotEncoding: Boolean = false,
+      maxDeferredSnapshotCommands: Int = 10,
+      valueEntityCompression: PayloadCompressionSettings = PayloadCompressionSettings.Disabled,
+      eventSourcedEntityCompression: PayloadCompressionSettings = PayloadCompressionSettings.Disabled) {
     validate()
     def this(config: Config) = {
       this(
@@ -81,12 +89,21 @@ object KalixRunner {
         userFunctionPort = config.getInt("user-function-port"),
         snapshotEvery = config.getInt("event-sourced-entity.snapshot-every"),
         cleanupDeletedEventSourcedEntityAfter = config.getDuration("event-sourced-entity.cleanup-deleted-after"),
-        cleanupDeletedValueEntityAfter = config.getDuration("value-entity.cleanup-deleted-after"))
+        cleanupDeletedValueEntityAfter = config.getDuration("value-entity.cleanup-deleted-after"),
+        reuseEncodedEventSourcedEntityReplies = config.getBoolean("event-sourced-entity.reuse-encoded-replies"),
+        reuseEncodedValueEntityReplies = config.getBoolean("value-entity.reuse-encoded-replies"),
+        replayDecodeParallelism = config.getInt("event-sourced-entity.replay-decode-parallelism"),
+        deferSnapshotEncoding = config.getBoolean("event-sourced-entity.deferred-snapshots.enabled"),
+        maxDeferredSnapshotCommands = config.getInt("event-sourced-entity.deferred-snapshots.max-deferred-commands"),
+        valueEntityCompression = PayloadCompressionSettings(config.getConfig("value-entity.compression")),
+        eventSourcedEntityCompression =
+          PayloadCompressionSettings(config.getConfig("event-sourced-entity.compression")))
     }
 
     private def validate(): Unit = {
       require(userFunctionInterface.nonEmpty, s"user-function-interface must not be empty")
       require(userFunctionPort > 0, s"user-function-port must be greater than 0")
+      require(replayDecodeParallelism > 0, s"event-sourced-entity.replay-decode-parallelism must be greater than 0")
     }
   }
 
@@ -18,6 +18,7 @@ package kalix.javasdk.impl
 
 import java.io.ByteArrayOutputStream
 import java.util.Locale
+import scala.annotation.tailrec
 import scala.collection.concurrent.TrieMap
 import scala.jdk.CollectionConverters._
 import scala.reflect.ClassTag
@@ -56,6 +57,7 @@ object AnySupport {
     val fullName = KalixPrimitive + name
     final val clazz = implicitly[ClassTag[T]].runtimeClass
     def write(stream: CodedOutputStream, t: T): Unit
+    def computeSize(t: T): Int
     def read(stream: CodedInputStream): T
     def fieldType: WireFormat.FieldType
     def defaultValue: T
@@ -66,6 +68,7 @@ object AnySupport {
     override def fieldType = WireFormat.FieldType.STRING
     override def defaultValue = ""
     override def write(stream: CodedOutputStream, t: String) = stream.writeString(KalixPrimitiveFieldNumber, t)
+    override def computeSize(t: String) = CodedOutputStream.computeStringSize(KalixPrimitiveFieldNumber, t)
     override def read(stream: CodedInputStream) = stream.readString()
   }
 
@@ -74,6 +77,7 @@ object AnySupport {
     override def defaultValue = ByteString.EMPTY
     override def write(stream: CodedOutputStream, t: ByteString) =
       stream.writeBytes(KalixPrimitiveFieldNumber, t)
+    override def computeSize(t: ByteString) = CodedOutputStream.computeBytesSize(KalixPrimitiveFieldNumber, t)
     override def read(stream: CodedInputStream) = stream.readBytes()
   }
 
@@ -85,6 +89,7 @@ object AnySupport {
       override def defaultValue = 0
       override def write(stream: CodedOutputStream, t: Integer) =
         stream.writeInt32(KalixPrimitiveFieldNumber, t)
+      override def computeSize(t: Integer) = CodedOutputStream.computeInt32Size(KalixPrimitiveFieldNumber, t)
       override def read(stream: CodedInputStream) = stream.readInt32()
     },
     new Primitive[java.lang.Long] {
@@ -92,6 +97,7 @@ object AnySupport {
       override def defaultValue = 0L
       override def write(stream: CodedOutputStream, t: java.lang.Long) =
         stream.writeInt64(KalixPrimitiveFieldNumber, t)
+      override def computeSize(t: java.lang.Long) = CodedOutputStream.computeInt64Size(KalixPrimitiveFieldNumber, t)
       override def read(stream: CodedInputStream) = stream.readInt64()
     },
     new Primitive[java.lang.Float] {
@@ -99,6 +105,7 @@ object AnySupport {
       override def defaultValue = 0f
       override def write(stream: CodedOutputStream, t: java.lang.Float) =
         stream.writeFloat(KalixPrimitiveFieldNumber, t)
+      override def computeSize(t: java.lang.Float) = CodedOutputStream.computeFloatSize(KalixPrimitiveFieldNumber, t)
       override def read(stream: CodedInputStream) = stream.readFloat()
     },
     new Primitive[java.lang.Double] {
@@ -106,6 +113,7 @@ object AnySupport {
       override def defaultValue = 0d
       override def write(stream: CodedOutputStream, t: java.lang.Double) =
         stream.writeDouble(KalixPrimitiveFieldNumber, t)
+      override def computeSize(t: java.lang.Double) = CodedOutputStream.computeDoubleSize(KalixPrimitiveFieldNumber, t)
       override def read(stream: CodedInputStream) = stream.readDouble()
     },
     new Primitive[java.lang.Boolean] {
@@ -113,6 +121,7 @@ object AnySupport {
       override def defaultValue = false
       override def write(stream: CodedOutputStream, t: java.lang.Boolean) =
         stream.writeBool(KalixPrimitiveFieldNumber, t)
+      override def computeSize(t: java.lang.Boolean) = CodedOutputStream.computeBoolSize(KalixPrimitiveFieldNumber, t)
       override def read(stream: CodedInputStream) = stream.readBool()
     })
 
@@ -137,28 +146,34 @@ object AnySupport {
   private[kalix] def decodePrimitiveBytes(bytes: ByteString): ByteString =
     bytesToPrimitive(BytesPrimitive, bytes)
 
+  // sized up front and written straight into a single array, no intermediate buffers or copies
   private def primitiveToBytes[T](primitive: Primitive[T], value: T): ByteString =
     if (value != primitive.defaultValue) {
-      val baos = new ByteArrayOutputStream()
-      val stream = CodedOutputStream.newInstance(baos)
+      val bytes = new Array[Byte](primitive.computeSize(value))
+      val stream = CodedOutputStream.newInstance(bytes)
       primitive.write(stream, value)
-      stream.flush()
-      UnsafeByteOperations.unsafeWrap(baos.toByteArray)
+      stream.checkNoSpaceLeft()
+      UnsafeByteOperations.unsafeWrap(bytes)
     } else ByteString.EMPTY
 
-  private def bytesToPrimitive[T](primitive: Primitive[T], bytes: ByteString) = {
-    val stream = bytes.newCodedInput()
-    if (LazyList
-        .continually(stream.readTag())
-        .takeWhile(_ != 0)
-        .exists { tag =>
-          if (primitive.tag != tag) {
-            stream.skipField(tag)
-            false
-          } else true
-        }) {
-      primitive.read(stream)
-    } else primitive.defaultValue
+  private def bytesToPrimitive[T](primitive: Primitive[T], bytes: ByteString): T =
+    if (bytes.isEmpty) primitive.defaultValue
+    else {
+      val stream = bytes.newCodedInput()
+      // bytes fields are returned as slices of the (immutable) input rather than copies
+      stream.enableAliasing(true)
+      readPrimitive(primitive, stream)
+    }
+
+  @tailrec
+  private def readPrimitive[T](primitive: Primitive[T], stream: CodedInputStream): T = {
+    val tag = stream.readTag()
+    if (tag == 0) primitive.defaultValue
+    else if (tag == primitive.tag) primitive.read(stream)
+    else {
+      stream.skipField(tag)
+      readPrimitive(primitive, stream)
+    }
   }
 
   /**
@@ -491,6 +506,52 @@ private[kalix] object ByteStringEncoding {
 
 }
 
+/**
+ * INTERNAL API
+ *
+ * Output stream that produces the same bytes as `ByteStringEncoding.encodePrimitiveBytes` of everything written to
+ * it, without copying: room for the field tag and length is reserved in front of the content and filled in once the
+ * length is known.
+ */
+private[kalix] final class PrimitiveBytesOutputStream(initialSize: Int)
+    extends ByteArrayOutputStream(initialSize + PrimitiveBytesOutputStream.MaxHeaderSize) {
+  import PrimitiveBytesOutputStream._
+
+  def this() = this(256)
+
+  count = MaxHeaderSize
+
+  override def reset(): Unit = count = MaxHeaderSize
+
+  override def size(): Int = count - MaxHeaderSize
+
+  override def toByteArray: Array[Byte] = java.util.Arrays.copyOfRange(buf, MaxHeaderSize, count)
+
+  override def writeTo(out: java.io.OutputStream): Unit = out.write(buf, MaxHeaderSize, size())
+
+  override def toString: String = new String(buf, MaxHeaderSize, size(), java.nio.charset.StandardCharsets.UTF_8)
+
+  /** The written bytes as a Kalix bytes primitive, sharing the underlying buffer */
+  def toPrimitiveBytes: ByteString = {
+    val length = size()
+    if (length == 0) ByteString.EMPTY
+    else {
+      val headerSize = CodedOutputStream.computeTagSize(1) + CodedOutputStream.computeUInt32SizeNoTag(length)
+      val offset = MaxHeaderSize - headerSize
+      val header = CodedOutputStream.newInstance(buf, offset, headerSize)
+      header.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED)
+      header.writeUInt32NoTag(length)
+      header.checkNoSpaceLeft()
+      UnsafeByteOperations.unsafeWrap(buf, offset, count - offset)
+    }
+  }
+}
+
+private[kalix] object PrimitiveBytesOutputStream {
+  // one byte tag for field number 1 and at most five bytes of varint length
+  private final val MaxHeaderSize = 6
+}
+
 trait MessageCodec {
   def decodeMessage(any: ScalaPbAny): Any
   def encodeScala(value: Any): ScalaPbAny
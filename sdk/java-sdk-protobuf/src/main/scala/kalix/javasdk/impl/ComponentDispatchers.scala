@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl
+
+import java.lang.reflect.InvocationTargetException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import scala.concurrent.ExecutionContext
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.InternalApi
+import akka.stream.ActorAttributes
+import akka.stream.Attributes
+import org.slf4j.LoggerFactory
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kalix] object ComponentDispatchers extends ExtensionId[ComponentDispatchers] with ExtensionIdProvider {
+  override def get(system: ActorSystem): ComponentDispatchers = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): ComponentDispatchers = super.get(system)
+
+  override def createExtension(system: ExtendedActorSystem): ComponentDispatchers =
+    new ComponentDispatchers(system)
+  override def lookup: ExtensionId[_ <: Extension] = this
+
+  val VirtualThreads = "virtual-threads"
+
+  private val log = LoggerFactory.getLogger(classOf[ComponentDispatchers])
+
+  /**
+   * An executor starting one virtual thread per task, or None when not running on JDK 21 or later or when creating it
+   * failed, in which case the reason is logged. Looked up reflectively since the SDK is compiled for Java 11.
+   */
+  private[impl] def newVirtualThreadExecutor(): Option[ExecutorService] =
+    try {
+      Some(
+        classOf[Executors]
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null)
+          .asInstanceOf[ExecutorService])
+    } catch {
+      case _: NoSuchMethodException =>
+        log.warn(
+          "Virtual threads configured for user code, but they require JDK 21 or later (running on [{}]), " +
+          "using the default dispatcher instead.",
+          System.getProperty("java.version"))
+        None
+      case e @ (_: ReflectiveOperationException | _: UnsupportedOperationException) =>
+        val cause = e match {
+          case ite: InvocationTargetException if ite.getCause != null => ite.getCause
+          case other                                                  => other
+        }
+        log.warn(
+          "Virtual threads configured for user code, but they could not be created (running on [{}]), " +
+          "using the default dispatcher instead.",
+          System.getProperty("java.version"),
+          cause)
+        None
+    }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Where the user code of each component type runs, configured with `kalix.<component-type>.dispatcher` so that
+ * blocking calls in one component type do not stall the others.
+ */
+@InternalApi
+private[kalix] final class ComponentDispatchers(system: ExtendedActorSystem) extends Extension {
+  import ComponentDispatchers._
+
+  // shared by all component types configured with virtual threads
+  private lazy val virtualThreads: Option[ExecutionContext] =
+    newVirtualThreadExecutor().map { executor =>
+      system.registerOnTermination(executor.shutdown())
+      ExecutionContext.fromExecutorService(executor)
+    }
+
+  /** Where action command handlers run, None to run them on the thread that received the command */
+  val actions: Option[ExecutionContext] = executionContext("action")
+
+  /** Where the asynchronous steps of workflows are run */
+  val workflowSteps: ExecutionContext = executionContext("workflow").getOrElse(system.dispatcher)
+
+  val valueEntityAttributes: Attributes = streamAttributes("value-entity")
+  val eventSourcedEntityAttributes: Attributes = streamAttributes("event-sourced-entity")
+  val viewAttributes: Attributes = streamAttributes("view")
+
+  /** Where work split off from the event sourced entity streams runs, such as decoding events ahead during replay */
+  val eventSourcedEntityExecutionContext: ExecutionContext =
+    configuredDispatcher("event-sourced-entity") match {
+      case ""         => system.dispatcher
+      case dispatcher => system.dispatchers.lookup(dispatcher)
+    }
+
+  private def configuredDispatcher(componentType: String): String = {
+    val path = s"kalix.$componentType.dispatcher"
+    val dispatcher = system.settings.config.getString(path)
+    if (dispatcher.nonEmpty && dispatcher != VirtualThreads && !system.dispatchers.hasDispatcher(dispatcher))
+      throw new IllegalArgumentException(s"No dispatcher configured at [$dispatcher], configured in [$path]")
+    dispatcher
+  }
+
+  private def executionContext(componentType: String): Option[ExecutionContext] =
+    configuredDispatcher(componentType) match {
+      case ""             => None
+      case VirtualThreads => virtualThreads
+      case dispatcher     => Some(system.dispatchers.lookup(dispatcher))
+    }
+
+  // entities and views run as streams, those can only be placed on an Akka dispatcher
+  private def streamAttributes(componentType: String): Attributes =
+    configuredDispatcher(componentType) match {
+      case "" => Attributes.none
+      case VirtualThreads =>
+        throw new IllegalArgumentException(
+          s"[kalix.$componentType.dispatcher = $VirtualThreads] is only supported for actions and workflows, " +
+          "configure the path of a dispatcher instead")
+      case dispatcher => ActorAttributes.dispatcher(dispatcher)
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package kalix.javasdk.impl
+
+import scala.jdk.CollectionConverters._
+import scala.util.control.NonFatal
+
+import akka.annotation.InternalApi
+import com.google.protobuf.ByteString
+import com.google.protobuf.CodedOutputStream
+import com.google.protobuf.UnsafeByteOperations
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.typesafe.config.Config
+import io.airlift.compress.Compressor
+import io.airlift.compress.Decompressor
+import io.airlift.compress.lz4.Lz4Compressor
+import io.airlift.compress.lz4.Lz4Decompressor
+import io.airlift.compress.zstd.ZstdCompressor
+import io.airlift.compress.zstd.ZstdDecompressor
+
+/**
+ * INTERNAL API
+ *
+ * Compresses the payloads encoded by `delegate` that are at least `threshold` bytes, and at most the size a compressed
+ * payload is allowed to decompress to. A compressed payload keeps its
+ * original type url behind a `compressed.kalix.io/<algorithm>/` prefix, so that decoding does not depend on the
+ * current settings. Payloads without that prefix are decoded by the delegate as is, which allows enabling compression
+ * for entities with existing state, events and snapshots.
+ *
+ * Only to be used for what the entity itself reads back, the proxy and other consumers of the payloads, such as views
+ * and subscriptions, see the compressed bytes.
+ */
+@InternalApi
+private[kalix] final class CompressingMessageCodec(
+    delegate: MessageCodec,
+    compression: PayloadCompression,
+    threshold: Int)
+    extends MessageCodec {
+  import PayloadCompression.TypeUrlPrefix
+
+  private val compressedTypeUrlPrefix = TypeUrlPrefix + compression.name + "/"
+
+  override def decodeMessage(any: ScalaPbAny): Any =
+    if (any.typeUrl.startsWith(TypeUrlPrefix)) {
+      val algorithmEnd = any.typeUrl.indexOf('/', TypeUrlPrefix.length)
+      if (algorithmEnd < 0) throw new IllegalArgumentException(s"Malformed compressed type url [${any.typeUrl}]")
+      val decompressor = PayloadCompression(any.typeUrl.substring(TypeUrlPrefix.length, algorithmEnd))
+      delegate.decodeMessage(ScalaPbAny(any.typeUrl.substring(algorithmEnd + 1), decompressor.decompress(any.value)))
+    } else delegate.decodeMessage(any)
+
+  override def encodeScala(value: Any): ScalaPbAny = {
+    val encoded = delegate.encodeScala(value)
+    compressed(encoded.typeUrl, encoded.value) match {
+      case null    => encoded
+      case payload => ScalaPbAny(compressedTypeUrlPrefix + encoded.typeUrl, payload)
+    }
+  }
+
+  override def encodeJava(value: Any): JavaPbAny =
+    compress(delegate.encodeJava(value))
+
+  /** Compresses a payload already encoded by the delegate, if it is large enough. */
+  def compress(encoded: JavaPbAny): JavaPbAny =
+    compressed(encoded.getTypeUrl, encoded.getValue) match {
+      case null => encoded
+      case payload =>
+        JavaPbAny.newBuilder().setTypeUrl(compressedTypeUrlPrefix + encoded.getTypeUrl).setValue(payload).build()
+    }
+
+  override def typeUrlFor(clz: Class[_]): String = delegate.typeUrlFor(clz)
+
+  // null when not compressed, to not allocate for the payloads below the threshold
+  private def compressed(typeUrl: String, bytes: ByteString): ByteString =
+    if (bytes.size() < threshold || bytes.size() > PayloadCompression.MaxUncompressedSize ||
+      typeUrl.startsWith(TypeUrlPrefix)) null
+    else {
+      val result = compression.compress(bytes)
+      // incompressible payloads are kept as they are
+      if (result.size() < bytes.size()) result else null
+    }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kalix] object CompressingMessageCodec {
+
+  /**
+   * @return
+   *   the codec to encode and decode the state, events and snapshots of the given entity with
+   */
+  def apply(delegate: MessageCodec, settings: PayloadCompressionSettings, serviceName: String): MessageCodec =
+    if (settings.appliesTo(serviceName))
+      new CompressingMessageCodec(delegate, PayloadCompression(settings.algorithm), settings.threshold)
+    else delegate
+}
+
+/**
+ * INTERNAL API
+ *
+ * @param serviceNames
+ *   the entities to compress the payloads of, must be listed explicitly since any other consumer of their payloads,
+ *   such as views and subscriptions, can not read them once compressed
+ */
+@InternalApi
+final case class PayloadCompressionSettings(
+    enabled: Boolean,
+    algorithm: String,
+    threshold: Int,
+    serviceNames: Set[String]) {
+  require(threshold > 0, "compression threshold must be greater than 0")
+  require(
+    !enabled || PayloadCompression.supported(algorithm),
+    s"Unknown compression algorithm [$algorithm], supported are [${PayloadCompression.Supported.mkString(", ")}]")
+  require(
+    !enabled || serviceNames.nonEmpty,
+    "compression is enabled but no services are listed, the services to compress the payloads of must be listed")
+
+  def appliesTo(serviceName: String): Boolean =
+    enabled && serviceNames(serviceName)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+object PayloadCompressionSettings {
+  val Disabled: PayloadCompressionSettings = PayloadCompressionSettings(enabled = false, "lz4", 16 * 1024, Set.empty)
+
+  def apply(config: Config): PayloadCompressionSettings =
+    PayloadCompressionSettings(
+      enabled = config.getBoolean("enabled"),
+      algorithm = config.getString("algorithm"),
+      threshold = config.getBytes("threshold").toInt,
+      serviceNames = config.getStringList("services").asScala.toSet)
+}
+
+/**
+ * INTERNAL API
+ *
+ * A compressed payload is the varint encoded length of the uncompressed payload followed by the compressed block.
+ * Compressors and the buffers for the uncompressed input and the compressed output are kept per thread, only the
+ * resulting payloads are allocated.
+ */
+@InternalApi
+private[kalix] sealed abstract class PayloadCompression(val name: String) {
+  import PayloadCompression._
+
+  protected def newCompressor(): Compressor
+  protected def newDecompressor(): Decompressor
+
+  private val compressors = ThreadLocal.withInitial[Compressor](() => newCompressor())
+  private val decompressors = ThreadLocal.withInitial[Decompressor](() => newDecompressor())
+
+  def compress(bytes: ByteString): ByteString = {
+    val length = bytes.size()
+    val input = inputBuffers.get().acquire(length)
+    bytes.copyTo(input, 0)
+
+    val compressor = compressors.get()
+    val headerSize = CodedOutputStream.computeUInt32SizeNoTag(length)
+    val maxLength = headerSize + compressor.maxCompressedLength(length)
+    val output = outputBuffers.get().acquire(maxLength)
+    val header = CodedOutputStream.newInstance(output, 0, headerSize)
+    header.writeUInt32NoTag(length)
+    header.checkNoSpaceLeft()
+    val compressedLength = compressor.compress(input, 0, length, output, headerSize, maxLength - headerSize)
+    ByteString.copyFrom(output, 0, headerSize + compressedLength)
+  }
+
+  def decompress(bytes: ByteString): ByteString = {
+    val (length, headerSize) =
+      try {
+        val header = bytes.newCodedInput()
+        (header.readUInt32(), header.getTotalBytesRead)
+      } catch {
+        case NonFatal(e) => throw new IllegalArgumentException(s"Corrupt $name payload, unreadable length", e)
+      }
+    // checked before allocating for it, a corrupt length could be negative or huge
+    if (length < 0 || length > MaxUncompressedSize)
+      throw new IllegalArgumentException(
+        s"Corrupt $name payload, length [$length] is not between 0 and [$MaxUncompressedSize] bytes")
+    val compressedLength = bytes.size() - headerSize
+    val input = inputBuffers.get().acquire(compressedLength)
+    bytes.substring(headerSize).copyTo(input, 0)
+
+    val output = new Array[Byte](length)
+    val decompressedLength =
+      try {
+        decompressors.get().decompress(input, 0, compressedLength, output, 0, length)
+      } catch {
+        case NonFatal(e) => throw new IllegalArgumentException(s"Corrupt $name payload", e)
+      }
+    if (decompressedLength != length)
+      throw new IllegalArgumentException(
+        s"Corrupt $name payload, decompressed to [$decompressedLength] bytes, expected [$length]")
+    // the array is not shared
+    UnsafeByteOperations.unsafeWrap(output)
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kalix] object PayloadCompression {
+  final val TypeUrlPrefix = "compressed.kalix.io/"
+
+  // what the runtime sends to the SDK at most, larger payloads are not compressed
+  final val MaxUncompressedSize = 12 * 1024 * 1024
+
+  // larger buffers are used once rather than held on to by every thread
+  private final val MaxPooledBufferSize = 1024 * 1024
+
+  private final class BufferPool {
+    private var buffer = new Array[Byte](8 * 1024)
+
+    def acquire(size: Int): Array[Byte] =
+      if (size <= buffer.length) buffer
+      else if (size > MaxPooledBufferSize) new Array[Byte](size)
+      else {
+        buffer = new Array[Byte](Integer.highestOneBit(size - 1) << 1)
+        buffer
+      }
+  }
+
+  private val inputBuffers = ThreadLocal.withInitial[BufferPool](() => new BufferPool)
+  private val outputBuffers = ThreadLocal.withInitial[BufferPool](() => new BufferPool)
+
+  case object Lz4 extends PayloadCompression("lz4") {
+    override protected def newCompressor(): Compressor = new Lz4Compressor
+    override protected def newDecompressor(): Decompressor = new Lz4Decompressor
+  }
+
+  case object Zstd extends PayloadCompression("zstd") {
+    override protected def newCompressor(): Compressor = new ZstdCompressor
+    override protected def newDecompressor(): Decompressor = new ZstdDecompressor
+  }
+
+  val Supported: Seq[String] = Seq(Lz4.name, Zstd.name)
+
+  def supported(name: String): Boolean = Supported.contains(name)
+
+  def apply(name: String): PayloadCompression =
+    name match {
+      case Lz4.name  => Lz4
+      case Zstd.name => Zstd
+      case other =>
+        throw new IllegalArgumentException(s"Unknown compression algorithm [$other], supported are [lz4, zstd]")
+    }
+}
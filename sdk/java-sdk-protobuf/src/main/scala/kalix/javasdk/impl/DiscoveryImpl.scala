@@ -35,6 +35,7 @@ import com.google.protobuf.DescriptorProtos.FileDescriptorProto
 import com.google.protobuf.empty.Empty
 import kalix.javasdk.BuildInfo
 import kalix.javasdk.EntityOptions
+import kalix.javasdk.impl.telemetry.Telemetry
 import kalix.javasdk.replicatedentity.ReplicatedEntityOptions
 import kalix.javasdk.replicatedentity.WriteConsistency
 import kalix.protocol.action.Actions
@@ -121,6 +122,9 @@ class DiscoveryImpl(
       val proxyTerminatedPromise = if (in.devMode) Promise.successful[Done](Done) else Promise[Done]()
       proxyTerminatedRef.getAndSet(proxyTerminatedPromise).trySuccess(Done)
 
+      // the service name reported with the metrics is only known now
+      Telemetry(system).serviceDiscovered()
+
       log.debug(s"Supported sidecar entity types: {}", in.supportedEntityTypes.mkString("[", ",", "]"))
 
       val unsupportedServices = services.values.filterNot { service =>
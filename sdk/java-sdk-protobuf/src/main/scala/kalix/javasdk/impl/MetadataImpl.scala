@@ -32,50 +32,61 @@ import java.nio.ByteBuffer
 import java.time.ZonedDateTime
 import java.time.format.DateTimeFormatter
 import java.util
+import java.util.Locale
 import java.util.Objects
 import java.util.Optional
+import scala.collection.mutable
 import scala.compat.java8.OptionConverters._
 import scala.jdk.CollectionConverters._
 
 private[kalix] class MetadataImpl(val entries: Seq[MetadataEntry]) extends Metadata with CloudEvent {
 
-  override def has(key: String): Boolean = entries.exists(_.key.equalsIgnoreCase(key))
+  // Small metadata is cheaper to scan than to index, larger metadata is indexed by lower case key the first time
+  // it is looked up. Keys are compared ignoring case either way.
+  private val indexed = entries.lengthCompare(MetadataImpl.IndexThreshold) > 0
+
+  private lazy val index: Map[String, Seq[MetadataEntry]] =
+    entries.groupBy(_.key.toLowerCase(Locale.ROOT))
+
+  private def entriesFor(key: String): Iterator[MetadataEntry] =
+    if (indexed) index.getOrElse(key.toLowerCase(Locale.ROOT), Nil).iterator
+    else entries.iterator.filter(_.key.equalsIgnoreCase(key))
+
+  override def has(key: String): Boolean =
+    if (indexed) index.contains(key.toLowerCase(Locale.ROOT))
+    else entries.exists(_.key.equalsIgnoreCase(key))
 
   override def get(key: String): Optional[String] =
     getScala(key).asJava
 
   private[kalix] def getScala(key: String): Option[String] =
-    entries.collectFirst {
-      case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-        value
+    entriesFor(key).collectFirst { case MetadataEntry(_, MetadataEntry.Value.StringValue(value), _) =>
+      value
     }
 
   override def getAll(key: String): util.List[String] =
     getAllScala(key).asJava
 
   private[kalix] def getAllScala(key: String): Seq[String] =
-    entries.collect {
-      case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-        value
-    }
+    entriesFor(key).collect { case MetadataEntry(_, MetadataEntry.Value.StringValue(value), _) =>
+      value
+    }.toSeq
 
   override def getBinary(key: String): Optional[ByteBuffer] =
     getBinaryScala(key).asJava
 
   private[kalix] def getBinaryScala(key: String): Option[ByteBuffer] =
-    entries.collectFirst {
-      case MetadataEntry(k, MetadataEntry.Value.BytesValue(value), _) if key.equalsIgnoreCase(k) =>
-        value.asReadOnlyByteBuffer()
+    entriesFor(key).collectFirst { case MetadataEntry(_, MetadataEntry.Value.BytesValue(value), _) =>
+      value.asReadOnlyByteBuffer()
     }
 
   override def getBinaryAll(key: String): util.List[ByteBuffer] =
     getBinaryAllScala(key).asJava
 
   private[kalix] def getBinaryAllScala(key: String): Seq[ByteBuffer] =
-    entries.collect {
-      case MetadataEntry(k, MetadataEntry.Value.BytesValue(value), _) if key.equalsIgnoreCase(k) =>
-        value.asReadOnlyByteBuffer()
-    }
+    entriesFor(key).collect { case MetadataEntry(_, MetadataEntry.Value.BytesValue(value), _) =>
+      value.asReadOnlyByteBuffer()
+    }.toSeq
 
   override def getAllKeys: util.List[String] = getAllKeysScala.asJava
   private[kalix] def getAllKeysScala: Seq[String] = entries.map(_.key)
@@ -121,9 +132,10 @@ private[kalix] class MetadataImpl(val entries: Seq[MetadataEntry]) extends Metad
         override def isBinary: Boolean = entry.value.isBytesValue
       }).asJava
 
-  private def removeKey(key: String) = entries.filterNot(_.key.equalsIgnoreCase(key))
+  private def removeKey(key: String) =
+    if (has(key)) entries.filterNot(_.key.equalsIgnoreCase(key)) else entries
 
-  def isCloudEvent: Boolean = MetadataImpl.CeRequired.forall(h => has(h))
+  lazy val isCloudEvent: Boolean = MetadataImpl.CeRequired.forall(h => has(h))
 
   override def asCloudEvent(): MetadataImpl =
     if (!isCloudEvent) {
@@ -131,20 +143,15 @@ private[kalix] class MetadataImpl(val entries: Seq[MetadataEntry]) extends Metad
     } else this
 
   override def asCloudEvent(id: String, source: URI, `type`: String): MetadataImpl =
-    new MetadataImpl(
-      entries.filterNot(e => MetadataImpl.CeRequired(e.key)) ++
-      Seq(
-        MetadataEntry(MetadataImpl.CeSpecversion, MetadataEntry.Value.StringValue(MetadataImpl.CeSpecversionValue)),
-        MetadataEntry(MetadataImpl.CeId, MetadataEntry.Value.StringValue(id)),
-        MetadataEntry(MetadataImpl.CeSource, MetadataEntry.Value.StringValue(source.toString)),
-        MetadataEntry(MetadataImpl.CeType, MetadataEntry.Value.StringValue(`type`))))
+    new MetadataImpl.Builder(entries.filterNot(e => MetadataImpl.CeRequired(e.key)))
+      .add(MetadataImpl.CeSpecversion, MetadataImpl.CeSpecversionValue)
+      .add(MetadataImpl.CeId, id)
+      .add(MetadataImpl.CeSource, source.toString)
+      .add(MetadataImpl.CeType, `type`)
+      .build()
 
   private def getRequiredCloudEventField(key: String) =
-    entries
-      .collectFirst {
-        case MetadataEntry(k, MetadataEntry.Value.StringValue(value), _) if key.equalsIgnoreCase(k) =>
-          value
-      }
+    getScala(key)
       .getOrElse {
         throw new IllegalStateException(s"Metadata is not a CloudEvent because it does not have required field $key")
       }
@@ -204,8 +211,8 @@ private[kalix] class MetadataImpl(val entries: Seq[MetadataEntry]) extends Metad
   }
 
   override lazy val principals: Principals = new Principals {
-    private def src: Option[String] = getScala(MetadataImpl.PrincipalsSource)
-    private def svc: Option[String] = getScala(MetadataImpl.PrincipalsService)
+    private val src: Option[String] = getScala(MetadataImpl.PrincipalsSource)
+    private val svc: Option[String] = getScala(MetadataImpl.PrincipalsService)
     override def isInternet: Boolean = src.contains("internet")
     override def isSelf: Boolean = src.contains("self")
     override def isBackoffice: Boolean = src.contains("backoffice")
@@ -234,7 +241,8 @@ private[kalix] class MetadataImpl(val entries: Seq[MetadataEntry]) extends Metad
 
   private[kalix] def getJwtClaim(name: String): Option[String] = {
     val prefixedName = JwtClaimPrefix + name
-    entries.collectFirst {
+    // claim names are case sensitive
+    entriesFor(prefixedName).collectFirst {
       case MetadataEntry(key, MetadataEntry.Value.StringValue(value), _) if key == prefixedName => value
     }
   }
@@ -255,11 +263,32 @@ object MetadataImpl {
 
   val Empty = new MetadataImpl(Vector.empty)
 
+  /** Metadata with more entries than this is indexed by key on first lookup */
+  private final val IndexThreshold = 8
+
   val JwtClaimPrefix = "_kalix-jwt-claim-"
 
   val PrincipalsSource = "_kalix-src"
   val PrincipalsService = "_kalix-src-svc"
 
+  /**
+   * Mutable builder, for adding several entries without copying all entries for each one like the `Metadata` methods
+   * do. Not thread safe, and must not be used after `build()`.
+   */
+  private[kalix] final class Builder(initialEntries: Seq[MetadataEntry]) {
+    private val entries = mutable.ArrayBuffer.from(initialEntries)
+
+    def add(key: String, value: String): Builder = {
+      Objects.requireNonNull(key, "Key must not be null")
+      Objects.requireNonNull(value, "Value must not be null")
+      entries += MetadataEntry(key, MetadataEntry.Value.StringValue(value))
+      this
+    }
+
+    def build(): MetadataImpl =
+      if (entries.isEmpty) Empty else new MetadataImpl(entries.toVector)
+  }
+
   def toProtocol(metadata: kalix.javasdk.Metadata): Option[component.Metadata] =
     metadata match {
       case impl: MetadataImpl if impl.entries.nonEmpty =>
@@ -92,6 +92,12 @@ class ProxyInfoHolder(system: ExtendedActorSystem) extends Extension {
       case IdentificationInfo(_, _, header, name, _) if header.nonEmpty && name.nonEmpty => (header, name)
     }
 
+  /** The name this service is deployed with, as announced by the proxy at discovery */
+  def selfDeploymentName: Option[String] =
+    identificationInfo.collect {
+      case IdentificationInfo(_, _, _, name, _) if name.nonEmpty => name
+    }
+
   /**
    * Change port disregarding what is announced in ProxyInfo This is required for the testkit because the port to use is
    * defined by testcontainers
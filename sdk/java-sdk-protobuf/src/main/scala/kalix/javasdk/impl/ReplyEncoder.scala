@@ -0,0 +1,73 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl
+
+import com.google.protobuf.{ Any => JavaPbAny }
+
+/**
+ * INTERNAL API
+ *
+ * Encodes the replies of one entity instance. When enabled, the encoding of the previous reply is reused if a command
+ * replies with the very same object again and the state did not change in between. That is typically the case for
+ * read commands replying with the current state, which stays the same instance until the state changes.
+ */
+private[kalix] sealed trait ReplyEncoder {
+  def encode(message: Any): JavaPbAny
+
+  /**
+   * Must be called whenever the state of the entity changed, as the state object may have been changed in place.
+   */
+  def stateChanged(): Unit
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object ReplyEncoder {
+
+  def apply(messageCodec: MessageCodec, reuseEncodedReplies: Boolean): ReplyEncoder =
+    if (reuseEncodedReplies) new ReusingReplyEncoder(messageCodec)
+    else new PlainReplyEncoder(messageCodec)
+
+  private final class PlainReplyEncoder(messageCodec: MessageCodec) extends ReplyEncoder {
+    override def encode(message: Any): JavaPbAny = messageCodec.encodeJava(message)
+    override def stateChanged(): Unit = ()
+  }
+
+  // only used from the stream of its entity instance, one command at a time
+  private final class ReusingReplyEncoder(messageCodec: MessageCodec) extends ReplyEncoder {
+    private var lastMessage: AnyRef = _
+    private var lastEncoded: JavaPbAny = _
+
+    override def encode(message: Any): JavaPbAny = {
+      val ref = message.asInstanceOf[AnyRef]
+      if ((lastEncoded ne null) && (lastMessage eq ref)) {
+        lastEncoded
+      } else {
+        val encoded = messageCodec.encodeJava(message)
+        lastMessage = ref
+        lastEncoded = encoded
+        encoded
+      }
+    }
+
+    override def stateChanged(): Unit = {
+      lastMessage = null
+      lastEncoded = null
+    }
+  }
+}
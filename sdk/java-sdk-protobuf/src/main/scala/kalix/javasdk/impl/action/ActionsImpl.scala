@@ -30,6 +30,7 @@ import kalix.javasdk.impl.ErrorHandling.BadRequestException
 import kalix.javasdk.impl._
 import kalix.javasdk.impl.effect.EffectSupport.asProtocol
 import kalix.javasdk.impl.telemetry.ActionCategory
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.impl.telemetry.Instrumentation
 import kalix.javasdk.impl.telemetry.Telemetry
 import kalix.protocol.action.ActionCommand
@@ -125,6 +126,10 @@ private[javasdk] final class ActionsImpl(
   val telemetries: Map[String, Instrumentation] = services.values.map { s =>
     (s.serviceName, telemetry.traceInstrumentation(s.serviceName, ActionCategory))
   }.toMap
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.serviceName, telemetry.componentMetrics(s.serviceName, ActionCategory))
+  }.toMap
+  private val handlerExecutionContext = ComponentDispatchers(system).actions
 
   private object creationContext extends AbstractContext(system) with ActionCreationContext {
     override def getGrpcClient[T](clientClass: Class[T], service: String): T =
@@ -139,8 +144,10 @@ private[javasdk] final class ActionsImpl(
     import ActionEffectImpl._
     effect match {
       case ReplyEffect(message, metadata, sideEffects) =>
+        val encodeStart = System.nanoTime()
         val response =
           component.Reply(Some(messageCodec.encodeScala(message)), metadata.flatMap(MetadataImpl.toProtocol))
+        metrics(service.serviceName).recordEncode(encodeStart)
         Future.successful(
           ActionResponse(ActionResponse.Response.Reply(response), toProtocol(messageCodec, sideEffects)))
       case ForwardEffect(forward: GrpcDeferredCall[_, _], sideEffects) =>
@@ -191,6 +198,13 @@ private[javasdk] final class ActionsImpl(
   private def toProtocol(messageCodec: MessageCodec, sideEffects: Seq[SideEffect]): Seq[component.SideEffect] =
     sideEffects.map(asProtocol(messageCodec, _))
 
+  // run the command handler on the dispatcher configured with kalix.action.dispatcher, if any
+  private def runHandler(handle: => Future[ActionResponse]): Future[ActionResponse] =
+    handlerExecutionContext match {
+      case Some(ec) => Future(handle)(ec).flatten
+      case None     => handle
+    }
+
   /**
    * Handle a unary command. The input command will contain the service name, command name, request metadata and the
    * command payload. The reply may contain a direct reply, a forward or a failure, and it may contain many side
@@ -199,12 +213,17 @@ private[javasdk] final class ActionsImpl(
   override def handleUnary(in: ActionCommand): Future[ActionResponse] =
     services.get(in.serviceName) match {
       case Some(service) =>
-        val span = telemetries(service.serviceName).buildSpan(service, in)
-        val fut =
+        val metadata = new MetadataImpl(in.metadata.map(_.entries.toVector).getOrElse(Nil))
+        val componentMetrics = metrics(service.serviceName)
+        componentMetrics.recordMetadataEntries(metadata.entries.size)
+        val span = telemetries(service.serviceName).buildSpan(service, in, metadata)
+        val handlerStart = System.nanoTime()
+        val fut = runHandler {
           try {
-            val context = createContext(in, service.messageCodec)
+            val context = createContext(metadata, service.messageCodec)
             val decodedPayload = service.messageCodec.decodeMessage(
               in.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
+            componentMetrics.recordDecode(handlerStart)
             val effect = service.factory
               .create(creationContext)
               .handleUnary(in.name, MessageEnvelope.of(decodedPayload, context.metadata()), context)
@@ -214,8 +233,11 @@ private[javasdk] final class ActionsImpl(
               // command handler threw an "unexpected" error
               Future.successful(handleUnexpectedException(service, in, ex))
           }
+        }
         fut.andThen { case _ =>
           span.foreach(_.end())
+          // includes completing any async effect
+          componentMetrics.recordCommand(in.name, handlerStart)
         }
       case None =>
         Future.successful(
@@ -243,23 +265,25 @@ private[javasdk] final class ActionsImpl(
         case (Seq(call), messages) =>
           services.get(call.serviceName) match {
             case Some(service) =>
-              try {
-                val effect = service.factory
-                  .create(creationContext)
-                  .handleStreamedIn(
-                    call.name,
-                    messages.map { message =>
-                      val metadata = new MetadataImpl(message.metadata.map(_.entries.toVector).getOrElse(Nil))
-                      val decodedPayload = service.messageCodec.decodeMessage(
-                        message.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
-                      MessageEnvelope.of(decodedPayload, metadata)
-                    }.asJava,
-                    createContext(call, service.messageCodec))
-                effectToResponse(service, call, effect, service.messageCodec)
-              } catch {
-                case NonFatal(ex) =>
-                  // command handler threw an "unexpected" error
-                  Future.successful(handleUnexpectedException(service, call, ex))
+              runHandler {
+                try {
+                  val effect = service.factory
+                    .create(creationContext)
+                    .handleStreamedIn(
+                      call.name,
+                      messages.map { message =>
+                        val metadata = new MetadataImpl(message.metadata.map(_.entries.toVector).getOrElse(Nil))
+                        val decodedPayload = service.messageCodec.decodeMessage(
+                          message.payload.getOrElse(throw new IllegalArgumentException("No command payload")))
+                        MessageEnvelope.of(decodedPayload, metadata)
+                      }.asJava,
+                      createContext(call, service.messageCodec))
+                  effectToResponse(service, call, effect, service.messageCodec)
+                } catch {
+                  case NonFatal(ex) =>
+                    // command handler threw an "unexpected" error
+                    Future.successful(handleUnexpectedException(service, call, ex))
+                }
               }
             case None =>
               Future.successful(
@@ -354,10 +378,11 @@ private[javasdk] final class ActionsImpl(
           }
       }
 
-  private def createContext(in: ActionCommand, messageCodec: MessageCodec): ActionContext = {
-    val metadata = new MetadataImpl(in.metadata.map(_.entries.toVector).getOrElse(Nil))
+  private def createContext(in: ActionCommand, messageCodec: MessageCodec): ActionContext =
+    createContext(new MetadataImpl(in.metadata.map(_.entries.toVector).getOrElse(Nil)), messageCodec)
+
+  private def createContext(metadata: MetadataImpl, messageCodec: MessageCodec): ActionContext =
     new ActionContextImpl(metadata, messageCodec, system)
-  }
 
 }
 
@@ -22,6 +22,7 @@ import akka.stream.scaladsl.Flow
 import akka.stream.scaladsl.Source
 import com.google.protobuf.Descriptors
 import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
 import io.grpc.Status
 import kalix.javasdk.KalixRunner.Configuration
 import kalix.javasdk.Metadata
@@ -33,6 +34,7 @@ import kalix.javasdk.impl.effect.ErrorReplyImpl
 import kalix.javasdk.impl.effect.MessageReplyImpl
 import kalix.javasdk.impl.effect.SecondaryEffectImpl
 import kalix.javasdk.impl.eventsourcedentity.EventSourcedEntityRouter.CommandResult
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.impl.telemetry.EventSourcedEntityCategory
 import kalix.javasdk.impl.telemetry.Instrumentation
 import kalix.javasdk.impl.telemetry.Telemetry
@@ -48,6 +50,8 @@ import kalix.protocol.event_sourced_entity.EventSourcedStreamOut.Message.{ Snaps
 import kalix.protocol.event_sourced_entity._
 import org.slf4j.LoggerFactory
 
+import scala.concurrent.Future
+import scala.jdk.OptionConverters._
 import scala.util.control.NonFatal
 
 final class EventSourcedEntityService(
@@ -78,6 +82,9 @@ final class EventSourcedEntityService(
 
   override final val componentType = EventSourcedEntities.name
 
+  // takes precedence over snapshotEvery when defined
+  val snapshotPolicy: Option[SnapshotPolicy] = entityOptions.flatMap(_.snapshotPolicy().toScala)
+
   def withSnapshotEvery(snapshotEvery: Int): EventSourcedEntityService =
     if (snapshotEvery != this.snapshotEvery)
       new EventSourcedEntityService(
@@ -94,16 +101,24 @@ final class EventSourcedEntityService(
   override def componentOptions: Option[ComponentOptions] = entityOptions
 }
 
+private object EventSourcedEntitiesImpl {
+
+  /** An event payload decoded ahead of being applied, and the time the decoding took */
+  final case class DecodedEvent(payload: AnyRef, decodeNanos: Long)
+}
+
 final class EventSourcedEntitiesImpl(
     system: ActorSystem,
     _services: Map[String, EventSourcedEntityService],
     configuration: Configuration)
     extends EventSourcedEntities {
+  import EventSourcedEntitiesImpl.DecodedEvent
   import kalix.javasdk.impl.EntityExceptions._
 
   private val log = LoggerFactory.getLogger(this.getClass)
+  private val dispatcherAttributes = ComponentDispatchers(system).eventSourcedEntityAttributes
   private final val services = _services.iterator.map { case (name, service) =>
-    if (service.snapshotEvery < 0)
+    if (service.snapshotEvery < 0 && service.snapshotPolicy.isEmpty)
       log.warn("Snapshotting disabled for entity [{}], this is not recommended.", service.serviceName)
     // FIXME overlay configuration provided by _system
     (name, if (service.snapshotEvery == 0) service.withSnapshotEvery(configuration.snapshotEvery) else service)
@@ -112,10 +127,22 @@ final class EventSourcedEntitiesImpl(
   val instrumentations: Map[String, Instrumentation] = services.values.map { s =>
     (s.serviceName, telemetry.traceInstrumentation(s.serviceName, EventSourcedEntityCategory))
   }.toMap
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.serviceName, telemetry.componentMetrics(s.serviceName, EventSourcedEntityCategory))
+  }.toMap
+
+  // events and snapshots are compressed when enabled, commands and replies never are
+  private val persistenceCodecs: Map[String, MessageCodec] = services.values.map { s =>
+    (s.serviceName, CompressingMessageCodec(s.messageCodec, configuration.eventSourcedEntityCompression, s.serviceName))
+  }.toMap
 
   private val pbCleanupDeletedEventSourcedEntityAfter =
     Some(com.google.protobuf.duration.Duration(configuration.cleanupDeletedEventSourcedEntityAfter))
 
+  private val replayDecodeParallelism = configuration.replayDecodeParallelism
+  // for the work split off from the entity streams, decoding replayed events and encoding deferred snapshots
+  private val offloadExecutionContext = ComponentDispatchers(system).eventSourcedEntityExecutionContext
+
   /**
    * The stream. One stream will be established per active entity. Once established, the first message sent will be
    * Init, which contains the entity ID, and, if the entity has previously persisted a snapshot, it will contain that
@@ -157,40 +184,57 @@ final class EventSourcedEntitiesImpl(
       .create(new EventSourcedEntityContextImpl(init.entityId))
       .asInstanceOf[EventSourcedEntityRouter[Any, Any, EventSourcedEntity[Any, Any]]]
     val thisEntityId = init.entityId
+    val componentMetrics = metrics(service.serviceName)
+    val replyEncoder = ReplyEncoder(service.messageCodec, configuration.reuseEncodedEventSourcedEntityReplies)
+    val persistenceCodec = persistenceCodecs(service.serviceName)
+    val snapshotTracker = service.snapshotPolicy.map(new SnapshotTracker(_))
+    val snapshotEncoder = new SnapshotEncoder(
+      persistenceCodec,
+      componentMetrics,
+      if (configuration.deferSnapshotEncoding) Some(offloadExecutionContext) else None,
+      configuration.maxDeferredSnapshotCommands)
+    // with a snapshot policy the snapshots are decided here, once the events are serialized
+    val routerSnapshotEvery = if (snapshotTracker.isDefined) 0 else service.snapshotEvery
 
     val startingSequenceNumber = (for {
       snapshot <- init.snapshot
       any <- snapshot.snapshot
     } yield {
       val snapshotSequence = snapshot.snapshotSequence
-      router._internalHandleSnapshot(service.messageCodec.decodeMessage(any))
+      router._internalHandleSnapshot(persistenceCodec.decodeMessage(any))
+      snapshotTracker.foreach(_.snapshotLoaded(any.value.size()))
       snapshotSequence
     }).getOrElse(0L)
     Flow[EventSourcedStreamIn]
-      .map(_.message)
+      .via(decodeReplayedEvents(persistenceCodec))
       .scan[(Long, Option[EventSourcedStreamOut.Message])]((startingSequenceNumber, None)) {
-        case (_, InEvent(event)) =>
+        case (_, (InEvent(event), decoded)) =>
           // Note that these only come on replay
+          val DecodedEvent(ev, decodeNanos) = decoded.getOrElse(decodeEvent(persistenceCodec, event))
+          val applyStart = System.nanoTime()
           val context = new EventContextImpl(thisEntityId, event.sequence)
-          val ev =
-            service.messageCodec
-              .decodeMessage(event.payload.get)
-              .asInstanceOf[AnyRef] // FIXME empty?
           router._internalHandleEvent(ev, context)
+          replyEncoder.stateChanged()
+          val replayNanos = decodeNanos + System.nanoTime() - applyStart
+          snapshotTracker.foreach(_.eventReplayed(event.payload.fold(0L)(_.value.size().toLong), replayNanos))
           (event.sequence, None)
-        case ((sequence, _), InCommand(command)) =>
+        case ((sequence, _), (InCommand(command), _)) =>
           if (thisEntityId != command.entityId)
             throw ProtocolException(command, "Receiving entity is not the intended recipient of command")
 
-          val span = instrumentations(service.serviceName).buildSpan(service, command)
+          val metadata = new MetadataImpl(command.metadata.map(_.entries.toVector).getOrElse(Nil))
+          componentMetrics.recordMetadataEntries(metadata.entries.size)
+          val span = instrumentations(service.serviceName).buildSpan(service, command, metadata)
           try {
+            val decodeStart = System.nanoTime()
             val cmd =
               service.messageCodec.decodeMessage(
                 command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
-            val metadata = new MetadataImpl(command.metadata.map(_.entries.toVector).getOrElse(Nil))
+            componentMetrics.recordDecode(decodeStart)
             val context =
               new CommandContextImpl(thisEntityId, sequence, command.name, command.id, metadata)
 
+            val handlerStart = System.nanoTime()
             val CommandResult(
               events: Vector[Any],
               secondaryEffect: SecondaryEffectImpl,
@@ -202,7 +246,7 @@ final class EventSourcedEntitiesImpl(
                   command.name,
                   cmd,
                   context,
-                  service.snapshotEvery,
+                  routerSnapshotEvery,
                   seqNr => new EventContextImpl(thisEntityId, seqNr))
               } catch {
                 case BadRequestException(msg) =>
@@ -214,26 +258,49 @@ final class EventSourcedEntitiesImpl(
                   throw EntityException(command, s"Unexpected failure: $error", Some(error))
               } finally {
                 context.deactivate() // Very important!
+                componentMetrics.recordCommand(command.name, handlerStart)
               }
 
+            val encodeStart = System.nanoTime()
+            if (events.nonEmpty || deleteEntity) replyEncoder.stateChanged()
+            // kept to reuse for the snapshot when replying with the end state
+            val encodedReply: Option[(Any, JavaPbAny)] = secondaryEffect match {
+              case MessageReplyImpl(message, _, _) => Some(message -> replyEncoder.encode(message))
+              case _                               => None
+            }
             val serializedSecondaryEffect = secondaryEffect match {
-              case MessageReplyImpl(message, metadata, sideEffects) =>
-                MessageReplyImpl(service.messageCodec.encodeJava(message), metadata, sideEffects)
+              case MessageReplyImpl(_, metadata, sideEffects) =>
+                MessageReplyImpl(encodedReply.get._2, metadata, sideEffects)
               case other => other
             }
 
             val clientAction = serializedSecondaryEffect.replyToClientAction(service.messageCodec, command.id)
 
-            serializedSecondaryEffect match {
+            val result = serializedSecondaryEffect match {
               case _: ErrorReplyImpl[_] => // error
                 (
                   endSequenceNumber,
                   Some(OutReply(EventSourcedReply(commandId = command.id, clientAction = clientAction))))
               case _ => // non-error
                 val serializedEvents =
-                  events.map(event => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(event)))
+                  events.map(event => ScalaPbAny.fromJavaProto(persistenceCodec.encodeJava(event)))
+                val snapshotDue = snapshotTracker match {
+                  case Some(tracker) =>
+                    serializedEvents.nonEmpty &&
+                    tracker.eventsPersisted(serializedEvents.map(_.value.size().toLong), encodeStart - handlerStart)
+                  case None => snapshot.isDefined
+                }
                 val serializedSnapshot =
-                  snapshot.map(state => ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(state)))
+                  snapshotEncoder.snapshot(
+                    snapshotDue,
+                    router._stateOrEmpty(),
+                    persisted = events.nonEmpty || deleteEntity,
+                    encodedReply)
+                componentMetrics.recordEvents(command.name, serializedEvents.size)
+                serializedSnapshot.foreach { s =>
+                  componentMetrics.recordSnapshotSize(s.value.size())
+                  snapshotTracker.foreach(_.snapshotted(s.value.size()))
+                }
                 val delete = if (deleteEntity) pbCleanupDeletedEventSourcedEntityAfter else None
                 (
                   endSequenceNumber,
@@ -247,14 +314,16 @@ final class EventSourcedEntitiesImpl(
                         serializedSnapshot,
                         delete))))
             }
+            componentMetrics.recordEncode(encodeStart)
+            result
           } finally { span.foreach(_.end()) }
-        case ((sequence, _), InSnapshotRequest(request)) =>
+        case ((sequence, _), (InSnapshotRequest(request), _)) =>
           val reply =
-            EventSourcedSnapshotReply(request.requestId, Some(service.messageCodec.encodeScala(router._stateOrEmpty())))
+            EventSourcedSnapshotReply(request.requestId, Some(persistenceCodec.encodeScala(router._stateOrEmpty())))
           (sequence, Some(OutSnapshotReply(reply)))
-        case (_, InInit(_)) =>
+        case (_, (InInit(_), _)) =>
           throw ProtocolException(init, "Entity already initiated")
-        case (_, InEmpty) =>
+        case (_, (InEmpty, _)) =>
           throw ProtocolException(init, "Received empty/unknown message")
       }
       .collect { case (_, Some(message)) =>
@@ -267,9 +336,37 @@ final class EventSourcedEntitiesImpl(
           EventSourcedStreamOut(OutFailure(Failure(description = s"Unexpected failure [$correlationId]")))
         }
       }
+      .addAttributes(dispatcherAttributes)
       .async
   }
 
+  // FIXME empty payload?
+  private def decodeEvent(messageCodec: MessageCodec, event: EventSourcedEvent): DecodedEvent = {
+    val start = System.nanoTime()
+    val decoded = messageCodec.decodeMessage(event.payload.get).asInstanceOf[AnyRef]
+    DecodedEvent(decoded, System.nanoTime() - start)
+  }
+
+  /**
+   * Decoding is the dominant cost of replaying events and independent per event, so with a replay decode parallelism
+   * above 1 the events are decoded ahead of being applied to the state, which still happens one event at a time in
+   * order. Otherwise events are decoded when applied.
+   */
+  private def decodeReplayedEvents(messageCodec: MessageCodec)
+      : Flow[EventSourcedStreamIn, (EventSourcedStreamIn.Message, Option[DecodedEvent]), NotUsed] =
+    if (replayDecodeParallelism <= 1)
+      Flow[EventSourcedStreamIn].map(in => (in.message, None))
+    else
+      Flow[EventSourcedStreamIn].mapAsync[(EventSourcedStreamIn.Message, Option[DecodedEvent])](
+        replayDecodeParallelism) { in =>
+        in.message match {
+          case message @ InEvent(event) =>
+            Future(message -> Some(decodeEvent(messageCodec, event)))(offloadExecutionContext)
+          case other =>
+            Future.successful(other -> None)
+        }
+      }
+
   private class CommandContextImpl(
       override val entityId: String,
       override val sequenceNumber: Long,
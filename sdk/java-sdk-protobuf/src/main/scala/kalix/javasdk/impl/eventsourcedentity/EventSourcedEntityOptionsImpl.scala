@@ -18,19 +18,25 @@ package kalix.javasdk.impl.eventsourcedentity
 
 import kalix.javasdk.PassivationStrategy
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityOptions
+import kalix.javasdk.eventsourcedentity.SnapshotPolicy
 
 import java.util
 import java.util.Collections
+import java.util.Optional
 
 private[impl] final case class EventSourcedEntityOptionsImpl(
     override val snapshotEvery: Int,
     override val passivationStrategy: PassivationStrategy,
-    override val forwardHeaders: java.util.Set[String])
+    override val forwardHeaders: java.util.Set[String],
+    override val snapshotPolicy: Optional[SnapshotPolicy])
     extends EventSourcedEntityOptions {
 
   override def withSnapshotEvery(numberOfEvents: Int): EventSourcedEntityOptions =
     copy(snapshotEvery = numberOfEvents)
 
+  override def withSnapshotPolicy(policy: SnapshotPolicy): EventSourcedEntityOptions =
+    copy(snapshotPolicy = Optional.of(policy))
+
   override def withPassivationStrategy(strategy: PassivationStrategy): EventSourcedEntityOptions =
     copy(passivationStrategy = strategy)
 
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.eventsourcedentity
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.Future
+import scala.util.Failure
+import scala.util.Success
+
+import akka.annotation.InternalApi
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.impl.CompressingMessageCodec
+import kalix.javasdk.impl.MessageCodec
+import kalix.javasdk.impl.telemetry.ComponentMetrics
+import org.slf4j.LoggerFactory
+
+/**
+ * INTERNAL API
+ *
+ * Encodes the snapshots of one entity instance, only used from the stream of that instance, one command at a time.
+ *
+ * A command replying with the end state itself already had it encoded for the reply, that encoding is reused, and
+ * compressed if the codec compresses snapshots.
+ *
+ * When deferring is enabled, a snapshot due after a command that persisted events is encoded in the background and
+ * the reply is sent without it. The snapshot is then attached to the first following reply of a command that did not
+ * persist any events, since a snapshot must have all events of its reply applied. If more events are persisted before
+ * that, it is stale and deferred again with the new state, at most `maxDeferredCommands` times in a row before it is
+ * encoded on the reply path again. Requires the state to never be changed in place. A failed background encoding is
+ * logged and dropped, the next snapshot due is then encoded on the reply path, failing that command if it fails again.
+ */
+@InternalApi
+private[kalix] final class SnapshotEncoder(
+    messageCodec: MessageCodec,
+    metrics: ComponentMetrics,
+    deferTo: Option[ExecutionContext],
+    maxDeferredCommands: Int) {
+
+  // replies are never compressed, a reused reply encoding has to be
+  private val compressReplyEncoding: JavaPbAny => JavaPbAny = messageCodec match {
+    case compressing: CompressingMessageCodec => compressing.compress
+    case _                                    => identity
+  }
+
+  private var pending: Future[ScalaPbAny] = _
+  private var deferredCommands = 0
+  private var encodeNextInline = false
+
+  /**
+   * @param snapshotDue
+   *   whether a snapshot of the end state of this command is due
+   * @param endState
+   *   the state after this command
+   * @param persisted
+   *   whether this command persisted events
+   * @param encodedReply
+   *   the reply of this command and its encoding
+   * @return
+   *   the snapshot to store with the reply of this command
+   */
+  def snapshot(
+      snapshotDue: Boolean,
+      endState: => Any,
+      persisted: Boolean,
+      encodedReply: Option[(Any, JavaPbAny)]): Option[ScalaPbAny] =
+    deferTo match {
+      case None =>
+        if (snapshotDue) Some(encode(endState, encodedReply)) else None
+
+      case Some(executionContext) =>
+        val stale = (pending ne null) && persisted
+        if (stale) pending = null
+
+        if (pending ne null) {
+          // nothing was persisted since it was due, attach it once encoded
+          pending.value match {
+            case Some(Success(encoded)) =>
+              pending = null
+              deferredCommands = 0
+              Some(encoded)
+            case Some(Failure(error)) =>
+              // not failing this command, that did not cause it
+              SnapshotEncoder.log.warn("Encoding a deferred snapshot failed, encoding the next one inline.", error)
+              pending = null
+              encodeNextInline = true
+              None
+            case None =>
+              None
+          }
+        } else if (snapshotDue || stale) {
+          if (!persisted || encodeNextInline || deferredCommands >= maxDeferredCommands) {
+            deferredCommands = 0
+            encodeNextInline = false
+            Some(encode(endState, encodedReply))
+          } else {
+            deferredCommands += 1
+            val state = endState
+            pending = Future(encode(state, None))(executionContext)
+            None
+          }
+        } else None
+    }
+
+  private def encode(state: Any, encodedReply: Option[(Any, JavaPbAny)]): ScalaPbAny = {
+    val start = System.nanoTime()
+    val encoded = encodedReply match {
+      case Some((reply, replyEncoding)) if isSameObject(reply, state) => compressReplyEncoding(replyEncoding)
+      case _                                                          => messageCodec.encodeJava(state)
+    }
+    metrics.recordSnapshotEncode(start)
+    ScalaPbAny.fromJavaProto(encoded)
+  }
+
+  private def isSameObject(a: Any, b: Any): Boolean =
+    a.asInstanceOf[AnyRef] eq b.asInstanceOf[AnyRef]
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kalix] object SnapshotEncoder {
+  private val log = LoggerFactory.getLogger(classOf[SnapshotEncoder])
+}
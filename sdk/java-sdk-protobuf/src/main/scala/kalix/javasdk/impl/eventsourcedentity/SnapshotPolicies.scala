@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.eventsourcedentity
+
+import java.time.Duration
+
+import scala.jdk.CollectionConverters._
+
+import akka.annotation.InternalApi
+import kalix.javasdk.eventsourcedentity.SnapshotPolicy
+
+/** INTERNAL API */
+@InternalApi
+private[kalix] final case class EveryEventsSnapshotPolicy(numberOfEvents: Int) extends SnapshotPolicy {
+  require(numberOfEvents > 0, s"Number of events must be positive, was [$numberOfEvents]")
+  override def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean =
+    stats.eventsSinceSnapshot >= numberOfEvents
+}
+
+/** INTERNAL API */
+@InternalApi
+private[kalix] final case class EveryEventBytesSnapshotPolicy(bytes: Long) extends SnapshotPolicy {
+  require(bytes > 0, s"Number of bytes must be positive, was [$bytes]")
+  override def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean =
+    stats.eventBytesSinceSnapshot >= bytes
+}
+
+/** INTERNAL API */
+@InternalApi
+private[kalix] final case class ReplayTimeBudgetSnapshotPolicy(budget: Duration) extends SnapshotPolicy {
+  require(!budget.isNegative && !budget.isZero, s"Replay time budget must be positive, was [$budget]")
+  override def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean =
+    stats.estimatedReplayTime.compareTo(budget) >= 0
+}
+
+/** INTERNAL API */
+@InternalApi
+private[kalix] final case class StateGrowthSnapshotPolicy(factor: Double) extends SnapshotPolicy {
+  require(factor > 0, s"State growth factor must be positive, was [$factor]")
+  override def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean =
+    stats.lastSnapshotBytes > 0 && stats.eventBytesSinceSnapshot >= factor * stats.lastSnapshotBytes
+}
+
+/** INTERNAL API */
+@InternalApi
+private[kalix] final case class AnyOfSnapshotPolicy(policies: java.util.List[SnapshotPolicy]) extends SnapshotPolicy {
+  private val all = policies.asScala.toVector
+  require(all.nonEmpty, "At least one snapshot policy must be given")
+  override def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean =
+    all.exists(_.shouldSnapshot(stats))
+}
+
+/**
+ * INTERNAL API
+ *
+ * The counters of one entity instance that its snapshot policy decides on.
+ */
+@InternalApi
+private[kalix] final class SnapshotTracker(policy: SnapshotPolicy) extends SnapshotPolicy.Stats {
+  private var events = 0L
+  private var eventBytes = 0L
+  private var replayNanos = 0L
+  private var snapshotBytes = 0L
+
+  override def eventsSinceSnapshot(): Long = events
+  override def eventBytesSinceSnapshot(): Long = eventBytes
+  override def estimatedReplayTime(): Duration = Duration.ofNanos(replayNanos)
+  override def lastSnapshotBytes(): Long = snapshotBytes
+
+  /** The entity was started from a snapshot of this size */
+  def snapshotLoaded(bytes: Long): Unit =
+    snapshotBytes = bytes
+
+  /** An event was replayed, decoding and applying it took `nanos` */
+  def eventReplayed(bytes: Long, nanos: Long): Unit = {
+    events += 1
+    eventBytes += bytes
+    replayNanos += nanos
+  }
+
+  /**
+   * A command persisted events of these sizes, handling the command took `handlerNanos`.
+   *
+   * @return
+   *   true if a snapshot should be stored along with the events
+   */
+  def eventsPersisted(bytes: Iterable[Long], handlerNanos: Long): Boolean = {
+    bytes.foreach { size =>
+      events += 1
+      eventBytes += size
+    }
+    replayNanos += handlerNanos
+    policy.shouldSnapshot(this)
+  }
+
+  /** A snapshot of this size was stored, counting starts over */
+  def snapshotted(bytes: Long): Unit = {
+    events = 0
+    eventBytes = 0
+    replayNanos = 0
+    snapshotBytes = bytes
+  }
+}
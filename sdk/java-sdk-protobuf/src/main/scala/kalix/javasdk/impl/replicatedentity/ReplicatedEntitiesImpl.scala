@@ -20,6 +20,9 @@ import akka.NotUsed
 import akka.actor.ActorSystem
 import akka.stream.scaladsl.{ Flow, Source }
 import kalix.javasdk.impl._
+import kalix.javasdk.impl.telemetry.ComponentMetrics
+import kalix.javasdk.impl.telemetry.ReplicatedEntityCategory
+import kalix.javasdk.impl.telemetry.Telemetry
 import kalix.javasdk.impl.effect.{ EffectSupport, ErrorReplyImpl, MessageReplyImpl }
 import kalix.javasdk.impl.replicatedentity.ReplicatedEntityEffectImpl.DeleteEntity
 import kalix.javasdk.impl.replicatedentity.ReplicatedEntityRouter.CommandResult
@@ -72,6 +75,9 @@ final class ReplicatedEntitiesImpl(system: ActorSystem, services: Map[String, Re
   import EntityExceptions._
 
   private val log = LoggerFactory.getLogger(this.getClass)
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.serviceName, Telemetry(system).componentMetrics(s.serviceName, ReplicatedEntityCategory))
+  }.toMap
 
   /**
    * After invoking handle, the first message sent will always be a ReplicatedEntityInit message, containing the entity
@@ -110,7 +116,7 @@ final class ReplicatedEntitiesImpl(system: ActorSystem, services: Map[String, Re
       ReplicatedEntityDeltaTransformer.create(delta, service.anySupport)
     }
 
-    val runner = new EntityRunner(service, init.entityId, initialData, system)
+    val runner = new EntityRunner(service, init.entityId, initialData, system, metrics(service.serviceName))
 
     Flow[ReplicatedEntityStreamIn]
       .mapConcat { in =>
@@ -145,7 +151,8 @@ object ReplicatedEntitiesImpl {
       service: ReplicatedEntityService,
       entityId: String,
       initialData: Option[InternalReplicatedData],
-      system: ActorSystem) {
+      system: ActorSystem,
+      metrics: ComponentMetrics) {
 
     val router = {
       val context = new ReplicatedEntityCreationContext(entityId, system)
@@ -168,8 +175,11 @@ object ReplicatedEntitiesImpl {
 
       val context = new ReplicatedEntityCommandContext(entityId, command, system)
       val payload = command.payload.getOrElse(throw ProtocolException(command, "No command payload"))
+      val decodeStart = System.nanoTime()
       val cmd = service.anySupport.decodeMessage(payload)
+      metrics.recordDecode(decodeStart)
 
+      val handlerStart = System.nanoTime()
       val CommandResult(effect: ReplicatedEntityEffectImpl[_, _]) =
         try {
           router._internalHandleCommand(command.name, cmd, context)
@@ -178,8 +188,10 @@ object ReplicatedEntitiesImpl {
           case NonFatal(error)    => throw EntityException(command, s"Unexpected failure: $error", Some(error))
         } finally {
           context.deactivate()
+          metrics.recordCommand(command.name, handlerStart)
         }
 
+      val encodeStart = System.nanoTime()
       val serializedSecondaryEffect = effect.secondaryEffect match {
         case MessageReplyImpl(message, metadata, sideEffects) =>
           MessageReplyImpl(service.anySupport.encodeJava(message), metadata, sideEffects)
@@ -189,7 +201,7 @@ object ReplicatedEntitiesImpl {
       val clientAction =
         serializedSecondaryEffect.replyToClientAction(service.anySupport, command.id)
 
-      serializedSecondaryEffect match {
+      val out = serializedSecondaryEffect match {
         case error: ErrorReplyImpl[_] =>
           if (router._internalHasDelta)
             throw EntityException(command, s"Replicated entity was changed for a failed command, this is not allowed.")
@@ -218,6 +230,8 @@ object ReplicatedEntitiesImpl {
                 EffectSupport.sideEffectsFrom(service.anySupport, serializedSecondaryEffect),
                 stateAction)))
       }
+      metrics.recordEncode(encodeStart)
+      out
     }
   }
 
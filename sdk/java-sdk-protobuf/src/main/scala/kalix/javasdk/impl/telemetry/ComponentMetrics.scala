@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import java.util.concurrent.ConcurrentHashMap
+
+import com.typesafe.config.Config
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.common.Attributes
+import io.opentelemetry.api.metrics.DoubleHistogram
+import io.opentelemetry.api.metrics.LongCounter
+import io.opentelemetry.api.metrics.LongHistogram
+import io.opentelemetry.api.metrics.Meter
+
+/**
+ * INTERNAL API
+ */
+private[kalix] final case class MetricsSettings(enabled: Boolean, prometheusHost: String, prometheusPort: Int)
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object MetricsSettings {
+  def apply(config: Config): MetricsSettings =
+    MetricsSettings(
+      enabled = config.getBoolean("enabled"),
+      prometheusHost = config.getString("prometheus.host"),
+      prometheusPort = config.getInt("prometheus.port"))
+}
+
+/**
+ * INTERNAL API
+ *
+ * Records the throughput and latency of one component. Durations are passed as the `System.nanoTime()` the measured
+ * work started at, so that the clock is only read a second time when metrics are enabled.
+ */
+private[kalix] trait ComponentMetrics {
+
+  def recordCommand(commandName: String, startNanos: Long): Unit
+
+  def recordDecode(startNanos: Long): Unit
+
+  def recordMetadataEntries(count: Int): Unit
+
+  def recordEncode(startNanos: Long): Unit
+
+  def recordEvents(commandName: String, count: Int): Unit
+
+  def recordSnapshotSize(bytes: Int): Unit
+
+  def recordSnapshotEncode(startNanos: Long): Unit
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object NoOpComponentMetrics extends ComponentMetrics {
+  override def recordCommand(commandName: String, startNanos: Long): Unit = ()
+  override def recordDecode(startNanos: Long): Unit = ()
+  override def recordMetadataEntries(count: Int): Unit = ()
+  override def recordEncode(startNanos: Long): Unit = ()
+  override def recordEvents(commandName: String, count: Int): Unit = ()
+  override def recordSnapshotSize(bytes: Int): Unit = ()
+  override def recordSnapshotEncode(startNanos: Long): Unit = ()
+}
+
+/**
+ * INTERNAL API
+ *
+ * The instruments are shared by all components, which are told apart by the attributes recorded with each value.
+ */
+private[kalix] final class MetricsInstruments(meter: Meter) {
+  import MetricsInstruments._
+
+  val commands: LongCounter =
+    meter.counterBuilder(CommandsCounter).setDescription("Number of commands handled").setUnit("{commands}").build()
+
+  val commandDuration: DoubleHistogram =
+    meter
+      .histogramBuilder(CommandDurationHistogram)
+      .setDescription("Time spent in the user command handler")
+      .setUnit("s")
+      .build()
+
+  val decodeDuration: DoubleHistogram =
+    meter
+      .histogramBuilder(DecodeDurationHistogram)
+      .setDescription("Time spent deserializing command payloads")
+      .setUnit("s")
+      .build()
+
+  val metadataEntries: LongHistogram =
+    meter
+      .histogramBuilder(MetadataEntriesHistogram)
+      .setDescription("Number of metadata entries of the commands handled")
+      .setUnit("{entries}")
+      .ofLongs()
+      .build()
+
+  val encodeDuration: DoubleHistogram =
+    meter
+      .histogramBuilder(EncodeDurationHistogram)
+      .setDescription("Time spent serializing replies, state and events")
+      .setUnit("s")
+      .build()
+
+  val events: LongCounter =
+    meter.counterBuilder(EventsCounter).setDescription("Number of events emitted").setUnit("{events}").build()
+
+  val snapshotSize: LongHistogram =
+    meter
+      .histogramBuilder(SnapshotSizeHistogram)
+      .setDescription("Serialized size of the snapshots and states persisted")
+      .setUnit("By")
+      .ofLongs()
+      .build()
+
+  val snapshotEncodeDuration: DoubleHistogram =
+    meter
+      .histogramBuilder(SnapshotEncodeDurationHistogram)
+      .setDescription("Time spent serializing snapshots, on or off the reply path")
+      .setUnit("s")
+      .build()
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object MetricsInstruments {
+  val CommandsCounter = "kalix.component.commands"
+  val CommandDurationHistogram = "kalix.component.command.duration"
+  val DecodeDurationHistogram = "kalix.component.decode.duration"
+  val MetadataEntriesHistogram = "kalix.component.command.metadata.entries"
+  val EncodeDurationHistogram = "kalix.component.encode.duration"
+  val EventsCounter = "kalix.component.events"
+  val SnapshotSizeHistogram = "kalix.component.snapshot.size"
+  val SnapshotEncodeDurationHistogram = "kalix.component.snapshot.encode.duration"
+
+  val ComponentAttribute: AttributeKey[String] = AttributeKey.stringKey("component")
+  val ComponentTypeAttribute: AttributeKey[String] = AttributeKey.stringKey("component.type")
+  val CommandAttribute: AttributeKey[String] = AttributeKey.stringKey("command")
+}
+
+/**
+ * INTERNAL API
+ *
+ * The shared instruments are only created when first recording to them, since the components are created before the
+ * service name reported with the metrics is known.
+ */
+private[kalix] final class OpenTelemetryComponentMetrics(
+    sharedInstruments: => MetricsInstruments,
+    componentName: String,
+    componentCategory: ComponentCategory)
+    extends ComponentMetrics {
+  import MetricsInstruments._
+
+  private lazy val instruments = sharedInstruments
+
+  private val componentAttributes =
+    Attributes.of(ComponentAttribute, componentName, ComponentTypeAttribute, componentCategory.name)
+
+  // the set of command names is small and fixed, so the attributes are only built once per command name
+  private val commandAttributes = new ConcurrentHashMap[String, Attributes]()
+
+  private def attributesFor(commandName: String): Attributes = {
+    val attributes = commandAttributes.get(commandName)
+    if (attributes ne null) attributes
+    else
+      commandAttributes.computeIfAbsent(
+        commandName,
+        name => componentAttributes.toBuilder.put(CommandAttribute, name).build())
+  }
+
+  private def secondsSince(startNanos: Long): Double =
+    (System.nanoTime() - startNanos) / 1e9
+
+  override def recordCommand(commandName: String, startNanos: Long): Unit = {
+    val attributes = attributesFor(commandName)
+    instruments.commands.add(1, attributes)
+    instruments.commandDuration.record(secondsSince(startNanos), attributes)
+  }
+
+  override def recordDecode(startNanos: Long): Unit =
+    instruments.decodeDuration.record(secondsSince(startNanos), componentAttributes)
+
+  override def recordMetadataEntries(count: Int): Unit =
+    instruments.metadataEntries.record(count, componentAttributes)
+
+  override def recordEncode(startNanos: Long): Unit =
+    instruments.encodeDuration.record(secondsSince(startNanos), componentAttributes)
+
+  override def recordEvents(commandName: String, count: Int): Unit =
+    if (count > 0) instruments.events.add(count, attributesFor(commandName))
+
+  override def recordSnapshotSize(bytes: Int): Unit =
+    instruments.snapshotSize.record(bytes, componentAttributes)
+
+  override def recordSnapshotEncode(startNanos: Long): Unit =
+    instruments.snapshotEncodeDuration.record(secondsSince(startNanos), componentAttributes)
+}
@@ -20,6 +20,7 @@ import akka.actor.ActorSystem
 import akka.actor.ExtendedActorSystem
 import akka.actor.Extension
 import akka.actor.ExtensionId
+import com.typesafe.config.Config
 import io.opentelemetry.api.OpenTelemetry
 import io.opentelemetry.api.common.Attributes
 import io.opentelemetry.api.trace.Span
@@ -29,25 +30,67 @@ import io.opentelemetry.context.propagation.ContextPropagators
 import io.opentelemetry.context.propagation.TextMapGetter
 import io.opentelemetry.context.{ Context => OtelContext }
 import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter
+import io.opentelemetry.exporter.prometheus.PrometheusHttpServer
 import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
 import io.opentelemetry.sdk.resources.Resource
 import io.opentelemetry.sdk.trace.SdkTracerProvider
-import io.opentelemetry.sdk.trace.`export`.SimpleSpanProcessor
+import io.opentelemetry.sdk.trace.`export`.BatchSpanProcessor
+import io.opentelemetry.sdk.trace.`export`.SpanExporter
+import io.opentelemetry.sdk.trace.samplers.Sampler
 import io.opentelemetry.semconv.resource.attributes.ResourceAttributes
 import kalix.javasdk.Metadata
 import kalix.javasdk.impl.MetadataImpl
+import kalix.javasdk.impl.ProxyInfoHolder
 import kalix.javasdk.impl.Service
 import kalix.protocol.action.ActionCommand
 import kalix.protocol.entity.Command
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.time.Duration
+
 import scala.jdk.OptionConverters._
 
 object Telemetry extends ExtensionId[Telemetry] {
 
   override def createExtension(system: ExtendedActorSystem): Telemetry =
     new Telemetry(system)
+
+  // what the OpenTelemetry SDK reports itself when no service name is set
+  private val UnknownServiceName = "unknown_service:java"
+
+  private def resource(serviceName: String): Resource =
+    Resource.getDefault.merge(Resource.create(Attributes.of(ResourceAttributes.SERVICE_NAME, serviceName)))
+
+  /**
+   * INTERNAL API
+   */
+  private[kalix] def createOpenTelemetrySdk(
+      settings: TracingSettings,
+      serviceName: String,
+      spanExporter: SpanExporter): OpenTelemetrySdk = {
+    val resource = Telemetry.resource(serviceName)
+    val sdkTracerProvider =
+      SdkTracerProvider
+        .builder()
+        .addSpanProcessor(
+          BatchSpanProcessor
+            .builder(spanExporter)
+            .setMaxQueueSize(settings.maxQueueSize)
+            .setMaxExportBatchSize(settings.maxExportBatchSize)
+            .setScheduleDelay(settings.scheduleDelay)
+            .setExporterTimeout(settings.exportTimeout)
+            .build())
+        .setSampler(settings.sampler)
+        .setResource(resource)
+        .build()
+    OpenTelemetrySdk
+      .builder()
+      .setTracerProvider(sdkTracerProvider)
+      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+      .build()
+  }
 }
 
 sealed trait ComponentCategory {
@@ -63,35 +106,148 @@ final case object EventSourcedEntityCategory extends ComponentCategory {
 final case object ValueEntityCategory extends ComponentCategory {
   def name = "Value Entity"
 }
+final case object ViewCategory extends ComponentCategory {
+  def name = "View"
+}
+final case object WorkflowCategory extends ComponentCategory {
+  def name = "Workflow"
+}
+final case object ReplicatedEntityCategory extends ComponentCategory {
+  def name = "Replicated Entity"
+}
 
 final class Telemetry(system: ActorSystem) extends Extension {
 
   val logger = LoggerFactory.getLogger(classOf[Telemetry])
 
+  private lazy val tracingSettings = TracingSettings(system.settings.config.getConfig("kalix.telemetry.tracing"))
+
+  /**
+   * The configured `kalix.telemetry.service-name`, or else the name the service is deployed with, which is only known
+   * after discovery. The SDKs are therefore created on first use, when the first command is handled, or for the
+   * metrics at discovery.
+   */
+  private[telemetry] lazy val serviceName: String = {
+    val configured = system.settings.config.getString("kalix.telemetry.service-name")
+    if (configured.nonEmpty) configured
+    else
+      ProxyInfoHolder(system).selfDeploymentName.getOrElse {
+        logger.warn(
+          "No service name was announced by the proxy at discovery, reporting telemetry as [{}]. " +
+          "Set kalix.telemetry.service-name to report it with the name of the service.",
+          Telemetry.UnknownServiceName)
+        Telemetry.UnknownServiceName
+      }
+  }
+
+  // one SDK, and thereby one exporter and one batching queue, shared by all components of the actor system
+  private lazy val openTelemetry: OpenTelemetry = {
+    logger.info(
+      "Setting Open Telemetry collector endpoint to [{}] for service [{}].",
+      tracingSettings.collectorEndpoint,
+      serviceName)
+    val sdk = Telemetry.createOpenTelemetrySdk(
+      tracingSettings,
+      serviceName,
+      OtlpGrpcSpanExporter.builder().setEndpoint(tracingSettings.collectorEndpoint).build())
+    system.registerOnTermination(sdk.close())
+    sdk
+  }
+
+  private lazy val metricsSettings = MetricsSettings(system.settings.config.getConfig("kalix.telemetry.metrics"))
+
+  private lazy val metricsInstruments: MetricsInstruments = {
+    logger.info(
+      "Serving metrics in Prometheus format on [{}:{}].",
+      metricsSettings.prometheusHost,
+      metricsSettings.prometheusPort)
+    val meterProvider = SdkMeterProvider
+      .builder()
+      .registerMetricReader(
+        PrometheusHttpServer
+          .builder()
+          .setHost(metricsSettings.prometheusHost)
+          .setPort(metricsSettings.prometheusPort)
+          .build())
+      .setResource(Telemetry.resource(serviceName))
+      .build()
+    system.registerOnTermination(meterProvider.close())
+    new MetricsInstruments(meterProvider.get("java-sdk"))
+  }
+
+  /**
+   * Metrics are opt-in, through `kalix.telemetry.metrics.enabled`, and recorded by a no-op implementation otherwise.
+   */
+  def componentMetrics(componentName: String, componentCategory: ComponentCategory): ComponentMetrics =
+    if (metricsSettings.enabled) new OpenTelemetryComponentMetrics(metricsInstruments, componentName, componentCategory)
+    else NoOpComponentMetrics
+
+  /**
+   * INTERNAL API
+   *
+   * Starts serving the metrics once the name of the service is known.
+   */
+  private[kalix] def serviceDiscovered(): Unit =
+    if (metricsSettings.enabled) metricsInstruments
+
   def traceInstrumentation(componentName: String, componentCategory: ComponentCategory) = {
-    val collectorEndpoint = system.settings.config.getString(TraceInstrumentation.TRACING_ENDPOINT)
-    if (collectorEndpoint.isEmpty) {
+    if (tracingSettings.collectorEndpoint.isEmpty) {
       logger.debug("Instrumentation disabled. Set to NoOp.")
       NoOpInstrumentation
     } else {
-      logger.debug("Instrumentation enabled. Set collector endpoint to [{}].", collectorEndpoint)
-      new TraceInstrumentation(componentName, system, componentCategory)
+      logger.debug("Instrumentation enabled for [{}].", componentName)
+      new TraceInstrumentation(componentName, openTelemetry, componentCategory)
     }
   }
 
 }
 
+/**
+ * INTERNAL API
+ */
+private[kalix] final case class TracingSettings(
+    collectorEndpoint: String,
+    maxQueueSize: Int,
+    maxExportBatchSize: Int,
+    scheduleDelay: Duration,
+    exportTimeout: Duration,
+    samplingRatio: Double,
+    parentBased: Boolean) {
+
+  def sampler: Sampler = {
+    val root = Sampler.traceIdRatioBased(samplingRatio)
+    if (parentBased) Sampler.parentBased(root) else root
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object TracingSettings {
+  def apply(config: Config): TracingSettings =
+    TracingSettings(
+      collectorEndpoint = config.getString("collector-endpoint"),
+      maxQueueSize = config.getInt("batch.max-queue-size"),
+      maxExportBatchSize = config.getInt("batch.max-export-batch-size"),
+      scheduleDelay = config.getDuration("batch.schedule-delay"),
+      exportTimeout = config.getDuration("batch.export-timeout"),
+      samplingRatio = config.getDouble("sampling.ratio"),
+      parentBased = config.getBoolean("sampling.parent-based"))
+}
+
 trait Instrumentation {
 
-  def buildSpan(service: Service, command: Command): Option[Span]
+  /**
+   * Creates a span if the already decoded command metadata contains a trace parent.
+   */
+  def buildSpan(service: Service, command: Command, metadata: MetadataImpl): Option[Span]
 
-  def buildSpan(service: Service, command: ActionCommand): Option[Span]
+  def buildSpan(service: Service, command: ActionCommand, metadata: MetadataImpl): Option[Span]
 }
 
 private final object TraceInstrumentation {
 
   val TRACE_PARENT_KEY = "traceparent"
-  val TRACING_ENDPOINT = "kalix.telemetry.tracing.collector-endpoint"
 
   val logger: Logger = LoggerFactory.getLogger(getClass)
 
@@ -108,7 +264,7 @@ private final object TraceInstrumentation {
 
 private final class TraceInstrumentation(
     componentName: String,
-    system: ActorSystem,
+    sharedOpenTelemetry: => OpenTelemetry,
     componentCategory: ComponentCategory)
     extends Instrumentation {
 
@@ -116,55 +272,31 @@ private final class TraceInstrumentation(
 
   val tracePrefix = componentCategory.name
 
-  val collectorEndpoint = system.settings.config.getString("kalix.telemetry.tracing.collector-endpoint")
+  // created with the first span, the instrumentation is created before the service name is known
+  private lazy val openTelemetry = sharedOpenTelemetry
 
-  logger.info("Setting Open Telemetry collector endpoint to [{}] for service [{}].", collectorEndpoint, componentName)
-
-  private val openTelemetry: OpenTelemetry = {
-    val resource =
-      Resource.getDefault.merge(
-        Resource.create(Attributes.of(ResourceAttributes.SERVICE_NAME, tracePrefix + " : " + componentName)))
-    val sdkTracerProvider =
-      SdkTracerProvider
-        .builder()
-        .addSpanProcessor(
-          SimpleSpanProcessor.create(
-            OtlpGrpcSpanExporter
-              .builder()
-              .setEndpoint(collectorEndpoint)
-              .build()))
-        .setResource(resource)
-        .build()
-    val sdk = OpenTelemetrySdk
-      .builder()
-      .setTracerProvider(sdkTracerProvider)
-      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
-      .build()
-
-    system.registerOnTermination(sdk.close())
-
-    sdk
-  }
+  private lazy val tracer = openTelemetry.getTracer("java-sdk")
 
   /**
    * Creates a span if it finds a trace parent in the command's metadata
    * @param service
    * @param command
+   * @param metadata
+   *   the metadata of the command, already wrapped for the command context
    * @return
    */
-  override def buildSpan(service: Service, command: Command): Option[Span] = {
+  override def buildSpan(service: Service, command: Command, metadata: MetadataImpl): Option[Span] = {
     if (logger.isTraceEnabled) logger.trace("Building span for command [{}].", command)
-    val metadata = new MetadataImpl(command.metadata.map(_.entries).getOrElse(Nil))
-    if (metadata.get(TRACE_PARENT_KEY).isPresent) {
+    if (metadata.getScala(TRACE_PARENT_KEY).isDefined) {
       if (logger.isTraceEnabled) logger.trace("`traceparent` found")
 
       val context = openTelemetry.getPropagators.getTextMapPropagator
         .extract(OtelContext.current(), metadata, otelGetter.asInstanceOf[TextMapGetter[Object]])
-      val tracer = openTelemetry.getTracer("java-sdk")
       val span = tracer
         .spanBuilder(s"""${command.entityId}""")
         .setParent(context)
         .setSpanKind(SpanKind.SERVER)
+        .setAttribute(MetricsInstruments.ComponentAttribute, componentName)
         .startSpan()
       Some(
         span
@@ -177,20 +309,18 @@ private final class TraceInstrumentation(
     }
   }
 
-  override def buildSpan(service: Service, command: ActionCommand): Option[Span] = {
+  override def buildSpan(service: Service, command: ActionCommand, metadata: MetadataImpl): Option[Span] = {
     if (logger.isTraceEnabled) logger.trace("Building span for action command [{}].", command)
-
-    val metadata = new MetadataImpl(command.metadata.map(_.entries).getOrElse(Nil))
-    if (metadata.get(TRACE_PARENT_KEY).isPresent) {
+    if (metadata.getScala(TRACE_PARENT_KEY).isDefined) {
       if (logger.isTraceEnabled) logger.trace("`traceparent` found")
 
       val context = openTelemetry.getPropagators.getTextMapPropagator
         .extract(OtelContext.current(), metadata, otelGetter.asInstanceOf[TextMapGetter[Object]])
-      val tracer = openTelemetry.getTracer("java-sdk")
       val span = tracer
         .spanBuilder(s"""${command.name}""")
         .setParent(context)
         .setSpanKind(SpanKind.SERVER)
+        .setAttribute(MetricsInstruments.ComponentAttribute, componentName)
         .startSpan()
       Some(
         span
@@ -206,7 +336,7 @@ private final class TraceInstrumentation(
 
 private final object NoOpInstrumentation extends Instrumentation {
 
-  override def buildSpan(service: Service, command: Command): Option[Span] = None
+  override def buildSpan(service: Service, command: Command, metadata: MetadataImpl): Option[Span] = None
 
-  override def buildSpan(service: Service, command: ActionCommand): Option[Span] = None
+  override def buildSpan(service: Service, command: ActionCommand, metadata: MetadataImpl): Option[Span] = None
 }
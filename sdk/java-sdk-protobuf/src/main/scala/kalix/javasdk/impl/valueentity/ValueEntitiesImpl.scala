@@ -23,6 +23,7 @@ import akka.stream.scaladsl.Source
 import io.grpc.Status
 import kalix.javasdk.KalixRunner.Configuration
 import kalix.javasdk.impl.ErrorHandling.BadRequestException
+import kalix.javasdk.impl.telemetry.ComponentMetrics
 import kalix.javasdk.impl.telemetry.Instrumentation
 import kalix.javasdk.impl.telemetry.Telemetry
 import kalix.javasdk.impl.telemetry.ValueEntityCategory
@@ -92,11 +93,20 @@ final class ValueEntitiesImpl(
 
   private implicit val ec: ExecutionContext = system.dispatcher
   private final val log = LoggerFactory.getLogger(this.getClass)
+  private val dispatcherAttributes = ComponentDispatchers(system).valueEntityAttributes
 
   val telemetry = Telemetry(system)
   val instrumentations: Map[String, Instrumentation] = services.values.map { s =>
     (s.serviceName, telemetry.traceInstrumentation(s.serviceName, ValueEntityCategory))
   }.toMap
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.serviceName, telemetry.componentMetrics(s.serviceName, ValueEntityCategory))
+  }.toMap
+
+  // the state is compressed when enabled, commands and replies never are
+  private val stateCodecs: Map[String, MessageCodec] = services.values.map { s =>
+    (s.serviceName, CompressingMessageCodec(s.messageCodec, configuration.valueEntityCompression, s.serviceName))
+  }.toMap
 
   private val pbCleanupDeletedValueEntityAfter =
     Some(com.google.protobuf.duration.Duration(configuration.cleanupDeletedValueEntityAfter))
@@ -128,6 +138,7 @@ final class ValueEntitiesImpl(
           ValueEntityStreamOut(OutFailure(Failure(description = s"Unexpected error [$correlationId]")))
         }
       }
+      .addAttributes(dispatcherAttributes)
       .async
 
   private def runEntity(init: ValueEntityInit): Flow[ValueEntityStreamIn, ValueEntityStreamOut, NotUsed] = {
@@ -136,12 +147,15 @@ final class ValueEntitiesImpl(
     val router =
       service.factory.create(new ValueEntityContextImpl(init.entityId, system))
     val thisEntityId = init.entityId
+    val componentMetrics = metrics(service.serviceName)
+    val replyEncoder = ReplyEncoder(service.messageCodec, configuration.reuseEncodedValueEntityReplies)
+    val stateCodec = stateCodecs(service.serviceName)
 
     init.state match {
       case Some(ValueEntityInitState(stateOpt, _)) =>
         stateOpt match {
           case Some(state) =>
-            val decoded = service.messageCodec.decodeMessage(state)
+            val decoded = stateCodec.decodeMessage(state)
             router._internalSetInitState(decoded)
           case None => // no initial state
         }
@@ -162,15 +176,19 @@ final class ValueEntitiesImpl(
           val metadata = new MetadataImpl(command.metadata.map(_.entries.toVector).getOrElse(Nil))
 
           if (log.isTraceEnabled) log.trace("Metadata entries [{}].", metadata.entries)
+          componentMetrics.recordMetadataEntries(metadata.entries.size)
 
-          val span = instrumentations(service.serviceName).buildSpan(service, command)
+          val span = instrumentations(service.serviceName).buildSpan(service, command, metadata)
           try {
+            val decodeStart = System.nanoTime()
             val cmd =
               service.messageCodec.decodeMessage(
                 command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
+            componentMetrics.recordDecode(decodeStart)
             val context =
               new CommandContextImpl(thisEntityId, command.name, command.id, metadata, system)
 
+            val handlerStart = System.nanoTime()
             val CommandResult(effect: ValueEntityEffectImpl[_]) =
               try {
                 router._internalHandleCommand(command.name, cmd, context)
@@ -182,18 +200,24 @@ final class ValueEntitiesImpl(
                   throw EntityException(command, s"Unexpected failure: $error", Some(error))
               } finally {
                 context.deactivate() // Very important!
+                componentMetrics.recordCommand(command.name, handlerStart)
               }
 
+            val encodeStart = System.nanoTime()
+            effect.primaryEffect match {
+              case _: UpdateState[_] | DeleteEntity => replyEncoder.stateChanged()
+              case _                                =>
+            }
             val serializedSecondaryEffect = effect.secondaryEffect match {
               case MessageReplyImpl(message, metadata, sideEffects) =>
-                MessageReplyImpl(service.messageCodec.encodeJava(message), metadata, sideEffects)
+                MessageReplyImpl(replyEncoder.encode(message), metadata, sideEffects)
               case other => other
             }
 
             val clientAction =
               serializedSecondaryEffect.replyToClientAction(service.messageCodec, command.id)
 
-            serializedSecondaryEffect match {
+            val out = serializedSecondaryEffect match {
               case error: ErrorReplyImpl[_] =>
                 ValueEntityStreamOut(OutReply(ValueEntityReply(commandId = command.id, clientAction = clientAction)))
 
@@ -202,7 +226,8 @@ final class ValueEntitiesImpl(
                   case DeleteEntity =>
                     Some(ValueEntityAction(Delete(ValueEntityDelete(pbCleanupDeletedValueEntityAfter))))
                   case UpdateState(newState) =>
-                    val newStateScalaPbAny = service.messageCodec.encodeScala(newState)
+                    val newStateScalaPbAny = stateCodec.encodeScala(newState)
+                    componentMetrics.recordSnapshotSize(newStateScalaPbAny.value.size())
                     Some(ValueEntityAction(Update(ValueEntityUpdate(Some(newStateScalaPbAny)))))
                   case _ =>
                     None
@@ -216,6 +241,8 @@ final class ValueEntitiesImpl(
                       EffectSupport.sideEffectsFrom(service.messageCodec, serializedSecondaryEffect),
                       action)))
             }
+            componentMetrics.recordEncode(encodeStart)
+            out
           } finally {
             span.foreach(_.end())
           }
@@ -24,6 +24,9 @@ import akka.stream.scaladsl.Source
 import kalix.javasdk.impl.{ Service, ViewFactory }
 import kalix.javasdk.{ Context, Metadata }
 import kalix.javasdk.impl._
+import kalix.javasdk.impl.telemetry.ComponentMetrics
+import kalix.javasdk.impl.telemetry.Telemetry
+import kalix.javasdk.impl.telemetry.ViewCategory
 import kalix.javasdk.view.{ UpdateContext, View, ViewContext, ViewCreationContext, ViewOptions }
 import kalix.protocol.{ view => pv }
 import com.google.protobuf.Descriptors
@@ -70,6 +73,10 @@ final class ViewsImpl(system: ActorSystem, _services: Map[String, ViewService],
   import ViewsImpl.log
 
   private final val services = _services.iterator.toMap
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.serviceName, Telemetry(system).componentMetrics(s.serviceName, ViewCategory))
+  }.toMap
+  private val dispatcherAttributes = ComponentDispatchers(system).viewAttributes
 
   /**
    * Handle a full duplex streamed session. One stream will be established per incoming message to the view service.
@@ -97,16 +104,20 @@ final class ViewsImpl(system: ActorSystem, _services: Map[String, ViewService],
 
               // FIXME should we really create a new handler instance per incoming command ???
               val handler = service.factory.get.create(new ViewContextImpl(service.viewId))
+              val componentMetrics = metrics(service.serviceName)
 
+              val decodeStart = System.nanoTime()
               val state: Option[Any] =
                 receiveEvent.bySubjectLookupResult.flatMap(row =>
                   row.value.map(scalaPb => service.messageCodec.decodeMessage(scalaPb)))
 
               val commandName = receiveEvent.commandName
               val msg = service.messageCodec.decodeMessage(receiveEvent.payload.get)
+              componentMetrics.recordDecode(decodeStart)
               val metadata = new MetadataImpl(receiveEvent.metadata.map(_.entries.toVector).getOrElse(Nil))
               val context = new UpdateContextImpl(service.viewId, commandName, metadata)
 
+              val handlerStart = System.nanoTime()
               val effect =
                 try {
                   handler._internalHandleUpdate(state, msg, context)
@@ -114,13 +125,18 @@ final class ViewsImpl(system: ActorSystem, _services: Map[String, ViewService],
                   case e: ViewException => throw e
                   case NonFatal(error) =>
                     throw ViewException(context, s"View unexpected failure: ${error.getMessage}", Some(error))
+                } finally {
+                  componentMetrics.recordCommand(commandName, handlerStart)
                 }
 
               effect match {
                 case ViewUpdateEffectImpl.Update(newState) =>
                   if (newState == null)
                     throw ViewException(context, "updateState with null state is not allowed.", None)
+                  val encodeStart = System.nanoTime()
                   val serializedState = ScalaPbAny.fromJavaProto(service.messageCodec.encodeJava(newState))
+                  componentMetrics.recordEncode(encodeStart)
+                  componentMetrics.recordSnapshotSize(serializedState.value.size())
                   val upsert = pv.Upsert(Some(pv.Row(value = Some(serializedState))))
                   val out = pv.ViewStreamOut(pv.ViewStreamOut.Message.Upsert(upsert))
                   Source.single(out)
@@ -152,6 +168,7 @@ final class ViewsImpl(system: ActorSystem, _services: Map[String, ViewService],
             s"Kalix protocol failure: expected ReceiveEvent message, but got ${other.getClass.getName}"
           Source.failed(new RuntimeException(errMsg))
       }
+      .addAttributes(dispatcherAttributes)
       .async
 
   private final class UpdateContextImpl(
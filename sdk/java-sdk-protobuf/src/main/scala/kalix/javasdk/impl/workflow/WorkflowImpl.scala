@@ -79,6 +79,9 @@ import kalix.javasdk.workflow.WorkflowOptions
 import com.google.protobuf.Descriptors
 import kalix.javasdk.Metadata
 import kalix.javasdk.impl._
+import kalix.javasdk.impl.telemetry.ComponentMetrics
+import kalix.javasdk.impl.telemetry.Telemetry
+import kalix.javasdk.impl.telemetry.WorkflowCategory
 import scala.jdk.CollectionConverters._
 
 final class WorkflowService(
@@ -115,6 +118,10 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
 
   private implicit val ec: ExecutionContext = system.dispatcher
   private final val log = LoggerFactory.getLogger(this.getClass)
+  private val stepExecutionContext = ComponentDispatchers(system).workflowSteps
+  private val metrics: Map[String, ComponentMetrics] = services.values.map { s =>
+    (s.serviceName, Telemetry(system).componentMetrics(s.serviceName, WorkflowCategory))
+  }.toMap
 
   override def handle(in: Source[WorkflowStreamIn, NotUsed]): Source[WorkflowStreamOut, NotUsed] =
     in.prefixAndTail(1)
@@ -188,6 +195,7 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
     val router: WorkflowRouter[_, _] =
       service.factory.create(new WorkflowContextImpl(init.entityId, system))
     val workflowId = init.entityId
+    val componentMetrics = metrics(service.serviceName)
 
     val workflowConfig =
       WorkflowStreamOut(
@@ -283,10 +291,13 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
           val context = new CommandContextImpl(workflowId, command.name, command.id, metadata, system)
           val timerScheduler = new TimerSchedulerImpl(service.messageCodec, system)
 
+          val decodeStart = System.nanoTime()
           val cmd =
             service.messageCodec.decodeMessage(
               command.payload.getOrElse(throw ProtocolException(command, "No command payload")))
+          componentMetrics.recordDecode(decodeStart)
 
+          val handlerStart = System.nanoTime()
           val CommandResult(effect) =
             try {
               router._internalHandleCommand(command.name, cmd, context, timerScheduler)
@@ -298,9 +309,13 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
                 throw WorkflowException(command, s"Unexpected failure: $error", Some(error))
             } finally {
               context.deactivate() // Very important!
+              componentMetrics.recordCommand(command.name, handlerStart)
             }
 
-          Future.successful(toProtoEffect(effect, command.id))
+          val encodeStart = System.nanoTime()
+          val out = toProtoEffect(effect, command.id)
+          componentMetrics.recordEncode(encodeStart)
+          Future.successful(out)
 
         case Step(executeStep) =>
           val timerScheduler = new TimerSchedulerImpl(service.messageCodec, system)
@@ -316,7 +331,7 @@ final class WorkflowImpl(system: ActorSystem, val services: Map[String, Workflow
                 executeStep.stepName,
                 service.messageCodec,
                 timerScheduler,
-                system.dispatcher)
+                stepExecutionContext)
             } catch {
               case e: WorkflowException => throw e
               case NonFatal(ex) =>
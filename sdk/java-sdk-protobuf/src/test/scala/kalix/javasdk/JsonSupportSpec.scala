@@ -22,9 +22,11 @@ import java.util.Optional
 import scala.beans.BeanProperty
 
 import akka.Done
+import com.fasterxml.jackson.databind.SerializationFeature
 import com.google.protobuf.Any
 import com.google.protobuf.UnsafeByteOperations
 import kalix.javasdk.impl.ByteStringEncoding
+import kalix.javasdk.impl.JsonTypeRegistry
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
 
@@ -45,6 +47,16 @@ class JsonSupportSpec extends AnyWordSpec with Matchers {
       JsonSupport.decodeJson(classOf[MyJsonable], any).field should ===("foo")
     }
 
+    "serialize large values the same way as wrapping the JSON bytes" in {
+      val large = new MyJsonable
+      large.field = "x" * 100000
+      val any = JsonSupport.encodeJson(large)
+      val expectedBytes = ByteStringEncoding.encodePrimitiveBytes(
+        UnsafeByteOperations.unsafeWrap(JsonSupport.getObjectMapper.writeValueAsBytes(large)))
+      any.getValue should ===(expectedBytes)
+      JsonSupport.decodeJson(classOf[MyJsonable], any).field should ===(large.field)
+    }
+
     "serialize and deserialize DummyClass" in {
       val dummyClass = new DummyClass("123", 321, Optional.of("test"))
       val any = JsonSupport.encodeJson(dummyClass)
@@ -108,6 +120,28 @@ class JsonSupportSpec extends AnyWordSpec with Matchers {
       decoded shouldBe new DummyClass("123", 321, Optional.of("value"))
     }
 
+    "prepare the reader, writer and migration of a class only once" in {
+      val jsonType = JsonTypeRegistry.lookup(classOf[DummyClass2])
+      JsonTypeRegistry.lookup(classOf[DummyClass2]) should be theSameInstanceAs jsonType
+      jsonType.hasMigration shouldBe true
+      jsonType.migration() shouldBe a[DummyClass2Migration]
+      jsonType.currentVersion shouldBe 1
+
+      JsonTypeRegistry.lookup(classOf[MyJsonable]).hasMigration shouldBe false
+    }
+
+    "prepare the reader and writer again when the object mapper is reconfigured" in {
+      val jsonType = JsonTypeRegistry.lookup(classOf[DummyClass])
+      jsonType.writer().isEnabled(SerializationFeature.INDENT_OUTPUT) shouldBe false
+      try {
+        JsonSupport.getObjectMapper.configure(SerializationFeature.INDENT_OUTPUT, true)
+        val reconfigured = JsonTypeRegistry.lookup(classOf[DummyClass])
+        reconfigured should not be theSameInstanceAs(jsonType)
+        reconfigured.writer().isEnabled(SerializationFeature.INDENT_OUTPUT) shouldBe true
+        JsonTypeRegistry.lookup(classOf[DummyClass]) should be theSameInstanceAs reconfigured
+      } finally JsonSupport.getObjectMapper.configure(SerializationFeature.INDENT_OUTPUT, false)
+    }
+
     "serialize and deserialize Akka Done class" in {
       val done = Done.getInstance()
       val any = JsonSupport.encodeJson(done)
@@ -99,6 +99,25 @@ class AnySupportSpec extends AnyWordSpec with Matchers with OptionValues {
     "support se/deserializing bytes" in testPrimitive("bytes", ByteString.copyFromUtf8("foo"), ByteString.EMPTY)
     "support se/deserializing booleans" in testPrimitive("bool", true, false)
 
+    "encode primitives like the corresponding protobuf wrapper types" in {
+      val bytes = ByteString.copyFromUtf8("some bytes")
+      AnySupport.encodePrimitiveBytes(bytes) should ===(com.google.protobuf.BytesValue.of(bytes).toByteString)
+      anySupport.encodeScala("åäö").value should ===(com.google.protobuf.StringValue.of("åäö").toByteString)
+      anySupport.encodeScala(Long.MaxValue).value should ===(
+        com.google.protobuf.Int64Value.of(Long.MaxValue).toByteString)
+    }
+
+    "skip unknown fields when decoding primitives" in {
+      val bytes = ByteString.copyFromUtf8("some bytes")
+      val out = ByteString.newOutput()
+      val stream = com.google.protobuf.CodedOutputStream.newInstance(out)
+      stream.writeString(2, "unknown")
+      stream.writeBytes(1, bytes)
+      stream.flush()
+      AnySupport.decodePrimitiveBytes(out.toByteString) should ===(bytes)
+      AnySupport.decodePrimitiveBytes(ByteString.EMPTY) should ===(ByteString.EMPTY)
+    }
+
     // note that the StringValue and BytesValue wrapper types are different for Java and Scala and needs to be adapted for Scala
     "deserialize json into StringValue" in {
       val jsonText = """{"such":"json"}"""
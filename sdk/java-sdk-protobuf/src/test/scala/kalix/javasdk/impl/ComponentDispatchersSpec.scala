@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl
+
+import scala.concurrent.Await
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.stream.ActorAttributes
+import akka.stream.Attributes
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ComponentDispatchersSpec extends AnyWordSpec with Matchers {
+
+  private def withSystem(config: String)(test: ActorSystem => Unit): Unit = {
+    val system = ActorSystem("ComponentDispatchersSpec", ConfigFactory.parseString(config))
+    try test(system)
+    finally Await.result(system.terminate(), 10.seconds)
+  }
+
+  private def threadName(ec: scala.concurrent.ExecutionContext): String =
+    Await.result(Future(Thread.currentThread().getName)(ec), 3.seconds)
+
+  private val blockingDispatcher =
+    """
+    blocking-dispatcher {
+      type = Dispatcher
+      executor = thread-pool-executor
+      thread-pool-executor.fixed-pool-size = 4
+    }
+    """
+
+  "ComponentDispatchers" should {
+    "run user code on the default dispatcher when nothing is configured" in withSystem("") { system =>
+      val dispatchers = ComponentDispatchers(system)
+      dispatchers.actions shouldBe None
+      dispatchers.workflowSteps shouldBe system.dispatcher
+      dispatchers.valueEntityAttributes shouldBe Attributes.none
+      dispatchers.eventSourcedEntityAttributes shouldBe Attributes.none
+      dispatchers.viewAttributes shouldBe Attributes.none
+    }
+
+    "use the configured dispatchers" in withSystem(blockingDispatcher + """
+      kalix.action.dispatcher = blocking-dispatcher
+      kalix.workflow.dispatcher = blocking-dispatcher
+      kalix.value-entity.dispatcher = blocking-dispatcher
+      """) { system =>
+      val dispatchers = ComponentDispatchers(system)
+      threadName(dispatchers.actions.get) should include("blocking-dispatcher")
+      threadName(dispatchers.workflowSteps) should include("blocking-dispatcher")
+      dispatchers.valueEntityAttributes shouldBe ActorAttributes.dispatcher("blocking-dispatcher")
+      dispatchers.eventSourcedEntityAttributes shouldBe Attributes.none
+    }
+
+    "use virtual threads for actions when available" in withSystem("""
+      kalix.action.dispatcher = virtual-threads
+      """) { system =>
+      val actions = ComponentDispatchers(system).actions
+      ComponentDispatchers.newVirtualThreadExecutor() match {
+        case Some(executor) =>
+          executor.shutdown()
+          val isVirtual = classOf[Thread].getMethod("isVirtual")
+          Await.result(Future(isVirtual.invoke(Thread.currentThread()))(actions.get), 3.seconds) shouldBe true
+        case None =>
+          // older JDK, falls back to the default dispatcher
+          actions shouldBe None
+      }
+    }
+
+    "reject virtual threads for entities" in withSystem("""
+      kalix.event-sourced-entity.dispatcher = virtual-threads
+      """) { system =>
+      intercept[IllegalArgumentException](ComponentDispatchers(system)).getMessage should include(
+        "only supported for actions and workflows")
+    }
+
+    "reject a dispatcher that is not configured" in withSystem("""
+      kalix.action.dispatcher = no-such-dispatcher
+      """) { system =>
+      intercept[IllegalArgumentException](ComponentDispatchers(system)).getMessage should include(
+        "no-such-dispatcher")
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package kalix.javasdk.impl
+
+import com.google.protobuf.ByteString
+import com.google.protobuf.CodedOutputStream
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import kalix.javasdk.impl.TestCodecs.CountingCodec
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class CompressingMessageCodecSpec extends AnyWordSpec with Matchers {
+
+  private val StringCodec = new CountingCodec
+
+  private val large = "kalix " * 10000
+  private val small = "kalix"
+
+  private def codec(algorithm: String) =
+    new CompressingMessageCodec(StringCodec, PayloadCompression(algorithm), threshold = 1024)
+
+  PayloadCompression.Supported.foreach { algorithm =>
+    s"A CompressingMessageCodec using $algorithm" should {
+      "compress payloads of at least the threshold size" in {
+        val encoded = codec(algorithm).encodeScala(large)
+        encoded.typeUrl shouldBe s"compressed.kalix.io/$algorithm/type.googleapis.com/google.protobuf.StringValue"
+        encoded.value.size() should be < StringCodec.encodeScala(large).value.size()
+        codec(algorithm).decodeMessage(encoded) shouldBe large
+      }
+
+      "encode the same for Java and Scala" in {
+        ScalaPbAny.fromJavaProto(codec(algorithm).encodeJava(large)) shouldBe codec(algorithm).encodeScala(large)
+      }
+
+      "not compress payloads below the threshold" in {
+        codec(algorithm).encodeScala(small) shouldBe StringCodec.encodeScala(small)
+      }
+
+      "keep incompressible payloads as they are" in {
+        val random = new Array[Byte](4096)
+        new java.util.Random(1).nextBytes(random)
+        val encoded = ScalaPbAny("type.googleapis.com/google.protobuf.BytesValue", ByteString.copyFrom(random))
+        codec(algorithm).compress(ScalaPbAny.toJavaProto(encoded)) shouldBe ScalaPbAny.toJavaProto(encoded)
+      }
+
+      "decode payloads that were stored uncompressed" in {
+        codec(algorithm).decodeMessage(StringCodec.encodeScala(large)) shouldBe large
+      }
+
+      "decode payloads compressed with another algorithm" in {
+        PayloadCompression.Supported.foreach { other =>
+          codec(algorithm).decodeMessage(codec(other).encodeScala(large)) shouldBe large
+        }
+      }
+
+      "reject a corrupt length before allocating for it" in {
+        val encoded = codec(algorithm).encodeScala(large)
+        Seq(-1, PayloadCompression.MaxUncompressedSize + 1).foreach { length =>
+          val header = ByteString.newOutput()
+          val out = CodedOutputStream.newInstance(header)
+          out.writeUInt32NoTag(length)
+          out.flush()
+          val corrupt = encoded.withValue(header.toByteString.concat(encoded.value.substring(3)))
+          intercept[IllegalArgumentException] {
+            codec(algorithm).decodeMessage(corrupt)
+          }.getMessage should include(s"length [$length]")
+        }
+      }
+
+      "reject a corrupt block" in {
+        val encoded = codec(algorithm).encodeScala(large)
+        val corrupt = encoded.withValue(encoded.value.substring(0, 3).concat(ByteString.copyFrom(new Array[Byte](64))))
+        intercept[IllegalArgumentException] {
+          codec(algorithm).decodeMessage(corrupt)
+        }.getMessage should startWith(s"Corrupt $algorithm payload")
+      }
+
+      "compress and decompress payloads larger than the pooled buffers" in {
+        val huge = "kalix " * 400000
+        codec(algorithm).decodeMessage(codec(algorithm).encodeScala(huge)) shouldBe huge
+      }
+    }
+  }
+
+  "PayloadCompressionSettings" should {
+    "only compress for the listed services" in {
+      val settings = PayloadCompressionSettings(enabled = true, "lz4", 1024, Set("com.example.Large"))
+      CompressingMessageCodec(StringCodec, settings, "com.example.Large") shouldBe a[CompressingMessageCodec]
+      CompressingMessageCodec(StringCodec, settings, "com.example.Other") shouldBe theSameInstanceAs(StringCodec)
+      CompressingMessageCodec(StringCodec, settings.copy(enabled = false), "com.example.Large") shouldBe
+      theSameInstanceAs(StringCodec)
+    }
+
+    "require the services to be listed when enabled" in {
+      intercept[IllegalArgumentException] {
+        PayloadCompressionSettings(enabled = true, "lz4", 1024, Set.empty)
+      }
+      PayloadCompressionSettings.Disabled.appliesTo("com.example.Large") shouldBe false
+    }
+
+    "reject unknown algorithms" in {
+      intercept[IllegalArgumentException] {
+        PayloadCompressionSettings(enabled = true, "snappy", 1024, Set("com.example.Large"))
+      }
+    }
+  }
+}
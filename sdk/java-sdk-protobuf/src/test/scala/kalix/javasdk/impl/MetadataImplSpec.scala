@@ -150,6 +150,46 @@ class MetadataImplSpec extends AnyWordSpec with Matchers with OptionValues {
     }
   }
 
+  "MetadataImpl lookups" should {
+    // below and above the size where entries are indexed instead of scanned
+    Seq(3, 30).foreach { extraEntries =>
+      s"ignore the case of keys with $extraEntries other entries" in {
+        val extra = (1 to extraEntries).map(n => s"key-$n" -> s"value-$n")
+        val meta = metadata(extra ++ Seq("Some-Key" -> "first", "some-key" -> "second", "other" -> "other"): _*)
+        meta.has("SOME-KEY") shouldBe true
+        meta.get("some-KEY").toScala.value shouldBe "first"
+        meta.getAll("SoMe-KeY").asScala shouldBe Seq("first", "second")
+        meta.has("missing") shouldBe false
+        meta.get("missing").toScala shouldBe None
+
+        val updated = meta.set("SOME-KEY", "third").remove("Other")
+        updated.getAll("some-key").asScala shouldBe Seq("third")
+        updated.has("other") shouldBe false
+        updated.getAllKeys.asScala should have size (extraEntries + 1)
+      }
+    }
+
+    "support building metadata with many entries" in {
+      val builder = new MetadataImpl.Builder(Nil)
+      (1 to 100).foreach(n => builder.add(s"key-$n", s"value-$n"))
+      val meta = builder.build()
+      meta.getAllKeys.asScala should have size 100
+      meta.get("KEY-1").toScala.value shouldBe "value-1"
+      meta.get("key-100").toScala.value shouldBe "value-100"
+
+      new MetadataImpl.Builder(Nil).build() shouldBe theSameInstanceAs(MetadataImpl.Empty)
+    }
+
+    "turn metadata into a CloudEvent" in {
+      val meta = metadata("ce-id" -> "old", "foo" -> "bar")
+        .asCloudEvent("id", java.net.URI.create("/source"), "type")
+      meta.id() shouldBe "id"
+      meta.`type`() shouldBe "type"
+      meta.asMetadata().getAll("ce-id").asScala shouldBe Seq("id")
+      meta.asMetadata().get("foo").toScala.value shouldBe "bar"
+    }
+  }
+
   private def metadata(entries: (String, String)*): Metadata = {
     new MetadataImpl(entries.map { case (key, value) =>
       MetadataEntry(key, MetadataEntry.Value.StringValue(value))
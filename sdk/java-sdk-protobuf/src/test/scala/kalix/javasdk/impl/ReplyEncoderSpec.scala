@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl
+
+import com.google.protobuf.StringValue
+import kalix.javasdk.impl.TestCodecs.CountingCodec
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ReplyEncoderSpec extends AnyWordSpec with Matchers {
+
+  private final class State(val value: String) {
+    override def toString: String = value
+  }
+
+  "A reusing ReplyEncoder" should {
+    "reuse the encoding of the same reply object" in {
+      val codec = new CountingCodec
+      val encoder = ReplyEncoder(codec, reuseEncodedReplies = true)
+      val state = new State("a")
+      val encoded = encoder.encode(state)
+      encoder.encode(state) should be theSameInstanceAs encoded
+      codec.encodeCount shouldBe 1
+    }
+
+    "encode a different reply object" in {
+      val codec = new CountingCodec
+      val encoder = ReplyEncoder(codec, reuseEncodedReplies = true)
+      encoder.encode(new State("a"))
+      encoder.encode(new State("a"))
+      codec.encodeCount shouldBe 2
+    }
+
+    "encode the same reply object again after the state changed" in {
+      val codec = new CountingCodec
+      val encoder = ReplyEncoder(codec, reuseEncodedReplies = true)
+      val state = new State("a")
+      encoder.encode(state)
+      encoder.stateChanged()
+      encoder.encode(state).unpack(classOf[StringValue]).getValue shouldBe "a"
+      codec.encodeCount shouldBe 2
+    }
+  }
+
+  "A plain ReplyEncoder" should {
+    "encode every reply" in {
+      val codec = new CountingCodec
+      val encoder = ReplyEncoder(codec, reuseEncodedReplies = false)
+      val state = new State("a")
+      encoder.encode(state)
+      encoder.encode(state)
+      codec.encodeCount shouldBe 2
+    }
+  }
+}
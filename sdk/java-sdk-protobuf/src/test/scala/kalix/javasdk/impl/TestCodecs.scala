@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package kalix.javasdk.impl
+
+import com.google.protobuf.StringValue
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+
+object TestCodecs {
+
+  /**
+   * Encodes any value as the `StringValue` of its `toString`, and decodes such payloads back to the string. Counts the
+   * encodings, and fails them with [[TestCodecs.EncodingFailed]] while `failEncoding` is set.
+   */
+  class CountingCodec extends MessageCodec {
+    @volatile var encodeCount = 0
+    @volatile var failEncoding = false
+
+    override def decodeMessage(any: ScalaPbAny): Any = StringValue.parseFrom(any.value).getValue
+    override def encodeScala(value: Any): ScalaPbAny = ScalaPbAny.fromJavaProto(encodeJava(value))
+    override def encodeJava(value: Any): JavaPbAny = {
+      if (failEncoding) throw EncodingFailed
+      encodeCount += 1
+      JavaPbAny.pack(StringValue.of(value.toString))
+    }
+    override def typeUrlFor(clz: Class[_]): String = "type.googleapis.com/google.protobuf.StringValue"
+  }
+
+  object EncodingFailed extends RuntimeException("Encoding failed in test") with scala.util.control.NoStackTrace
+}
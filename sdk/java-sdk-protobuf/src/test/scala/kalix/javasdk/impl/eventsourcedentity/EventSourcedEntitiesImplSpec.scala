@@ -188,6 +188,25 @@ class EventSourcedEntitiesImplSpec extends AnyWordSpec with Matchers with Before
       entity.passivate()
     }
 
+    "apply replayed events in order when decoding them ahead" in {
+      val parallelService = ShoppingCart.testService("kalix.event-sourced-entity.replay-decode-parallelism = 4")
+      val parallelProtocol = TestProtocol(parallelService.port)
+      try {
+        val entity = parallelProtocol.eventSourced.connect()
+        entity.send(init(ShoppingCart.Name, "cart"))
+        val items = (1 to 20).map(n => Item(f"item-$n%02d", s"name-$n", n)) // cart items are sorted by id
+        items.zipWithIndex.foreach { case (item, index) =>
+          entity.send(event(index + 1, itemAdded(item.id, item.name, item.quantity)))
+        }
+        entity.send(command(1, "cart", "GetCart", getShoppingCart("cart")))
+        entity.expect(reply(1, cart(items: _*)))
+        entity.passivate()
+      } finally {
+        parallelProtocol.terminate()
+        parallelService.terminate()
+      }
+    }
+
     "fail when command handler throws exception" in {
       service.expectLogError("Terminating entity [cart] due to unexpected failure for command [RemoveItem]") {
         val entity = protocol.eventSourced.connect()
@@ -207,11 +226,14 @@ object EventSourcedEntitiesImplSpec {
 
     val Name: String = ShoppingCartApi.getDescriptor.findServiceByName("ShoppingCartService").getFullName
 
-    def testService: TestEventSourcedService =
+    def testService: TestEventSourcedService = testService("")
+
+    def testService(extraConfig: String): TestEventSourcedService =
       TestEventSourced.service(
         CartEntityProvider
           .of(new CartEntity(_))
-          .withOptions(EventSourcedEntityOptions.defaults().withSnapshotEvery(2)))
+          .withOptions(EventSourcedEntityOptions.defaults().withSnapshotEvery(2)),
+        extraConfig)
 
     case class Item(id: String, name: String, quantity: Int)
 
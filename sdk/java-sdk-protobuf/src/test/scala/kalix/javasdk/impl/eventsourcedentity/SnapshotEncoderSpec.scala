@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.eventsourcedentity
+
+import scala.concurrent.ExecutionContext
+
+import com.google.protobuf.StringValue
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.impl.MessageCodec
+import kalix.javasdk.impl.TestCodecs.CountingCodec
+import kalix.javasdk.impl.telemetry.NoOpComponentMetrics
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class SnapshotEncoderSpec extends AnyWordSpec with Matchers {
+
+  private def encoded(state: String): Option[ScalaPbAny] =
+    Some(ScalaPbAny.fromJavaProto(JavaPbAny.pack(StringValue.of(state))))
+
+  // parasitic runs the deferred encoding right away, so that it is complete by the next command
+  private def deferringEncoder(codec: MessageCodec, maxDeferredCommands: Int = 10) =
+    new SnapshotEncoder(codec, NoOpComponentMetrics, Some(ExecutionContext.parasitic), maxDeferredCommands)
+
+  "A SnapshotEncoder" should {
+    "encode the end state when a snapshot is due" in {
+      val codec = new CountingCodec
+      val encoder = new SnapshotEncoder(codec, NoOpComponentMetrics, None, 10)
+      encoder.snapshot(snapshotDue = false, "s1", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = true, "s2", persisted = true, None) shouldBe encoded("s2")
+      codec.encodeCount shouldBe 1
+    }
+
+    "reuse the encoded reply when replying with the end state" in {
+      val codec = new CountingCodec
+      val encoder = new SnapshotEncoder(codec, NoOpComponentMetrics, None, 10)
+      val state = new String("s1")
+      val encodedReply = codec.encodeJava(state)
+      encoder.snapshot(snapshotDue = true, state, persisted = true, Some(state -> encodedReply)) shouldBe Some(
+        ScalaPbAny.fromJavaProto(encodedReply))
+      codec.encodeCount shouldBe 1
+    }
+
+    "attach a deferred snapshot to the next reply without events" in {
+      val encoder = deferringEncoder(new CountingCodec)
+      encoder.snapshot(snapshotDue = true, "s1", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s1", persisted = false, None) shouldBe encoded("s1")
+      encoder.snapshot(snapshotDue = false, "s1", persisted = false, None) shouldBe None
+    }
+
+    "defer a stale snapshot again with the newer state" in {
+      val encoder = deferringEncoder(new CountingCodec)
+      encoder.snapshot(snapshotDue = true, "s1", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s2", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s2", persisted = false, None) shouldBe encoded("s2")
+    }
+
+    "encode on the reply path when deferred too many times in a row" in {
+      val encoder = deferringEncoder(new CountingCodec, maxDeferredCommands = 2)
+      encoder.snapshot(snapshotDue = true, "s1", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s2", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s3", persisted = true, None) shouldBe encoded("s3")
+      encoder.snapshot(snapshotDue = false, "s3", persisted = false, None) shouldBe None
+    }
+
+    "drop a failed deferred snapshot and encode the next one inline" in {
+      val codec = new CountingCodec
+      val encoder = deferringEncoder(codec)
+      codec.failEncoding = true
+      encoder.snapshot(snapshotDue = true, "s1", persisted = true, None) shouldBe None
+      codec.failEncoding = false
+      // the command that happens to get the failure is not failed by it
+      encoder.snapshot(snapshotDue = false, "s1", persisted = false, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s1", persisted = false, None) shouldBe None
+      encoder.snapshot(snapshotDue = true, "s2", persisted = true, None) shouldBe encoded("s2")
+      // and deferring again after that
+      encoder.snapshot(snapshotDue = true, "s3", persisted = true, None) shouldBe None
+      encoder.snapshot(snapshotDue = false, "s3", persisted = false, None) shouldBe encoded("s3")
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.eventsourcedentity
+
+import java.time.Duration
+
+import kalix.javasdk.eventsourcedentity.SnapshotPolicy
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class SnapshotPolicySpec extends AnyWordSpec with Matchers {
+
+  private def persist(tracker: SnapshotTracker, eventSizes: Long*): Boolean =
+    tracker.eventsPersisted(eventSizes, handlerNanos = 0L)
+
+  "A SnapshotTracker" should {
+    "count the replayed and persisted events since the last snapshot" in {
+      val tracker = new SnapshotTracker(SnapshotPolicy.everyEvents(5))
+      tracker.snapshotLoaded(100)
+      tracker.eventReplayed(10, 1000)
+      tracker.eventReplayed(10, 1000)
+      persist(tracker, 20, 20) shouldBe false
+      tracker.eventsSinceSnapshot shouldBe 4
+      tracker.eventBytesSinceSnapshot shouldBe 60
+      tracker.estimatedReplayTime shouldBe Duration.ofNanos(2000)
+      tracker.lastSnapshotBytes shouldBe 100
+
+      persist(tracker, 20) shouldBe true
+      tracker.snapshotted(150)
+      tracker.eventsSinceSnapshot shouldBe 0
+      tracker.eventBytesSinceSnapshot shouldBe 0
+      tracker.estimatedReplayTime shouldBe Duration.ZERO
+      tracker.lastSnapshotBytes shouldBe 150
+    }
+
+    "snapshot on accumulated event bytes" in {
+      val tracker = new SnapshotTracker(SnapshotPolicy.everyEventBytes(1000))
+      persist(tracker, 400, 400) shouldBe false
+      persist(tracker, 300) shouldBe true
+    }
+
+    "snapshot on the replay time budget" in {
+      val tracker = new SnapshotTracker(SnapshotPolicy.replayTimeBudget(Duration.ofMillis(1)))
+      tracker.eventReplayed(10, Duration.ofMillis(1).toNanos / 2)
+      persist(tracker, 10) shouldBe false
+      tracker.eventsPersisted(Seq(10L), Duration.ofMillis(1).toNanos / 2) shouldBe true
+    }
+
+    "snapshot on state growth relative to the last snapshot" in {
+      val tracker = new SnapshotTracker(SnapshotPolicy.stateGrowth(0.5))
+      // no snapshot yet
+      persist(tracker, 1000) shouldBe false
+      tracker.snapshotted(1000)
+      persist(tracker, 400) shouldBe false
+      persist(tracker, 100) shouldBe true
+    }
+
+    "snapshot when any of the policies says so" in {
+      val tracker =
+        new SnapshotTracker(SnapshotPolicy.anyOf(SnapshotPolicy.stateGrowth(2), SnapshotPolicy.everyEvents(3)))
+      persist(tracker, 10, 10) shouldBe false
+      persist(tracker, 10) shouldBe true
+    }
+  }
+
+  "The built in snapshot policies" should {
+    "reject non positive limits" in {
+      an[IllegalArgumentException] should be thrownBy SnapshotPolicy.everyEvents(0)
+      an[IllegalArgumentException] should be thrownBy SnapshotPolicy.everyEventBytes(-1)
+      an[IllegalArgumentException] should be thrownBy SnapshotPolicy.replayTimeBudget(Duration.ZERO)
+      an[IllegalArgumentException] should be thrownBy SnapshotPolicy.stateGrowth(0)
+      an[IllegalArgumentException] should be thrownBy SnapshotPolicy.anyOf()
+    }
+  }
+}
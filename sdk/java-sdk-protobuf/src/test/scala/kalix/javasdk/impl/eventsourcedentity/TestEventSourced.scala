@@ -24,14 +24,14 @@ import com.typesafe.config.{ Config, ConfigFactory }
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityProvider
 
 object TestEventSourced {
-  def service(entityProvider: EventSourcedEntityProvider[_, _, _]): TestEventSourcedService =
-    new TestEventSourcedService(entityProvider)
+  def service(entityProvider: EventSourcedEntityProvider[_, _, _], extraConfig: String = ""): TestEventSourcedService =
+    new TestEventSourcedService(entityProvider, extraConfig)
 }
 
-class TestEventSourcedService(entityProvider: EventSourcedEntityProvider[_, _, _]) {
+class TestEventSourcedService(entityProvider: EventSourcedEntityProvider[_, _, _], extraConfig: String = "") {
   val port: Int = SocketUtil.temporaryLocalPort()
 
-  val config: Config = ConfigFactory.load(ConfigFactory.parseString(s"""
+  private val baseConfig: Config = ConfigFactory.parseString(s"""
     kalix {
       user-function-port = $port
       system.akka {
@@ -39,7 +39,9 @@ class TestEventSourcedService(entityProvider: EventSourcedEntityProvider[_, _, _
         coordinated-shutdown.exit-jvm = off
       }
     }
-  """))
+  """)
+
+  val config: Config = ConfigFactory.load(ConfigFactory.parseString(extraConfig).withFallback(baseConfig))
 
   val runner: KalixRunner = new Kalix()
     .register(entityProvider)
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.telemetry
+
+import java.util
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+import akka.actor.ActorSystem
+import com.example.shoppingcart.ShoppingCartApi
+import com.google.protobuf.Descriptors
+import com.typesafe.config.ConfigFactory
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.common.CompletableResultCode
+import io.opentelemetry.sdk.metrics.InstrumentType
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality
+import io.opentelemetry.sdk.metrics.data.LongPointData
+import io.opentelemetry.sdk.metrics.data.MetricData
+import io.opentelemetry.sdk.metrics.`export`.MetricExporter
+import io.opentelemetry.sdk.metrics.`export`.PeriodicMetricReader
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.opentelemetry.sdk.trace.`export`.SpanExporter
+import kalix.javasdk.impl.ComponentOptions
+import kalix.javasdk.impl.MetadataImpl
+import kalix.javasdk.impl.ResolvedServiceMethod
+import kalix.javasdk.impl.Service
+import kalix.protocol.component.{ Metadata => ProtocolMetadata }
+import kalix.protocol.component.MetadataEntry
+import kalix.protocol.entity.Command
+import org.scalatest.BeforeAndAfterEach
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+object TelemetrySpec {
+
+  /** Stands in for an OTLP collector, keeping whatever the SDK exports in memory */
+  final class CollectorStub {
+    val spans = new ConcurrentLinkedQueue[SpanData]()
+    val metrics = new ConcurrentLinkedQueue[MetricData]()
+    @volatile var spanExports = 0
+
+    val spanExporter: SpanExporter = new SpanExporter {
+      override def `export`(batch: util.Collection[SpanData]): CompletableResultCode = {
+        spanExports += 1
+        spans.addAll(batch)
+        CompletableResultCode.ofSuccess()
+      }
+      override def flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+      override def shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+    }
+
+    val metricExporter: MetricExporter = new MetricExporter {
+      override def `export`(batch: util.Collection[MetricData]): CompletableResultCode = {
+        metrics.addAll(batch)
+        CompletableResultCode.ofSuccess()
+      }
+      override def getAggregationTemporality(instrumentType: InstrumentType): AggregationTemporality =
+        AggregationTemporality.CUMULATIVE
+      override def flush(): CompletableResultCode = CompletableResultCode.ofSuccess()
+      override def shutdown(): CompletableResultCode = CompletableResultCode.ofSuccess()
+    }
+  }
+
+  val TraceId = "0af7651916cd43dd8448eb211c80319c"
+
+  def traceParent(sampled: Boolean): String =
+    s"00-$TraceId-b7ad6b7169203331-${if (sampled) "01" else "00"}"
+
+  object CartService extends Service {
+    override val descriptor: Descriptors.ServiceDescriptor =
+      ShoppingCartApi.getDescriptor.findServiceByName("ShoppingCartService")
+    override def additionalDescriptors: Array[Descriptors.FileDescriptor] = Array.empty
+    override def componentType: String = "kalix.component.entity.ValueEntities"
+    override def componentOptions: Option[ComponentOptions] = None
+    override def resolvedMethods: Option[Map[String, ResolvedServiceMethod[_, _]]] = None
+  }
+}
+
+class TelemetrySpec extends AnyWordSpec with Matchers with BeforeAndAfterEach {
+  import TelemetrySpec._
+
+  private val defaultSettings =
+    TracingSettings(ConfigFactory.load().getConfig("kalix.telemetry.tracing")).copy(collectorEndpoint = "stub")
+
+  private var collector: CollectorStub = _
+  private var sdk: OpenTelemetrySdk = _
+  private var meterProvider: SdkMeterProvider = _
+
+  private def startSdk(settings: TracingSettings): Unit = {
+    collector = new CollectorStub
+    sdk = Telemetry.createOpenTelemetrySdk(settings, "telemetry-spec", collector.spanExporter)
+  }
+
+  private def startMeterProvider(): MetricsInstruments = {
+    collector = new CollectorStub
+    meterProvider = SdkMeterProvider
+      .builder()
+      .registerMetricReader(PeriodicMetricReader.builder(collector.metricExporter).build())
+      .build()
+    new MetricsInstruments(meterProvider.get("java-sdk"))
+  }
+
+  override def afterEach(): Unit = {
+    if (sdk ne null) sdk.close()
+    if (meterProvider ne null) meterProvider.close()
+    sdk = null
+    meterProvider = null
+  }
+
+  private def command(entityId: String, entries: MetadataEntry*): (Command, MetadataImpl) = {
+    val command = Command(entityId = entityId, name = "AddItem", metadata = Some(ProtocolMetadata(entries)))
+    (command, new MetadataImpl(entries))
+  }
+
+  private def traceParentEntry(sampled: Boolean) =
+    MetadataEntry(TraceInstrumentation.TRACE_PARENT_KEY, MetadataEntry.Value.StringValue(traceParent(sampled)))
+
+  private def flush(): Unit =
+    sdk.getSdkTracerProvider.forceFlush().join(5, TimeUnit.SECONDS)
+
+  private def flushMetrics(): Unit =
+    meterProvider.forceFlush().join(5, TimeUnit.SECONDS)
+
+  private def serviceNameWith(config: String): String = {
+    val system = ActorSystem("TelemetrySpec", ConfigFactory.parseString(config).withFallback(ConfigFactory.load()))
+    try Telemetry(system).serviceName
+    finally Await.result(system.terminate(), 10.seconds)
+  }
+
+  "The telemetry" should {
+    "report with the configured service name" in {
+      serviceNameWith("kalix.telemetry.service-name = cart-service") shouldBe "cart-service"
+    }
+
+    "not report with the name of the actor system when no service name is known" in {
+      serviceNameWith("") shouldBe "unknown_service:java"
+    }
+  }
+
+  "The tracing settings" should {
+    "be read from the reference configuration" in {
+      defaultSettings.maxQueueSize shouldBe 2048
+      defaultSettings.maxExportBatchSize shouldBe 512
+      defaultSettings.samplingRatio shouldBe 1.0
+      defaultSettings.parentBased shouldBe true
+    }
+  }
+
+  "The trace instrumentation" should {
+
+    "export the spans of all components in batches through one exporter" in {
+      startSdk(defaultSettings)
+      val cart = new TraceInstrumentation("cart", sdk, ValueEntityCategory)
+      val counter = new TraceInstrumentation("counter", sdk, ValueEntityCategory)
+
+      (1 to 10).foreach { n =>
+        val (cmd, metadata) = command(s"cart-$n", traceParentEntry(sampled = true))
+        cart.buildSpan(CartService, cmd, metadata).foreach(_.end())
+        val (cmd2, metadata2) = command(s"counter-$n", traceParentEntry(sampled = true))
+        counter.buildSpan(CartService, cmd2, metadata2).foreach(_.end())
+      }
+      // nothing exported on the threads ending the spans
+      collector.spans shouldBe empty
+      flush()
+
+      val spans = collector.spans.asScala.toSeq
+      spans should have size 20
+      collector.spanExports should be < 20
+      spans.map(_.getTraceId).distinct shouldBe Seq(TraceId)
+      // the same value as the component attribute of the metrics
+      val components = spans.map(_.getAttributes.get(MetricsInstruments.ComponentAttribute)).distinct
+      components should contain theSameElementsAs Seq("cart", "counter")
+    }
+
+    "not create spans for commands without a trace parent" in {
+      startSdk(defaultSettings)
+      val instrumentation = new TraceInstrumentation("cart", sdk, ValueEntityCategory)
+      val (cmd, metadata) = command("cart-1")
+      instrumentation.buildSpan(CartService, cmd, metadata) shouldBe None
+    }
+
+    "follow the sampling decision of the parent when parent based" in {
+      startSdk(defaultSettings.copy(samplingRatio = 0.0))
+      val instrumentation = new TraceInstrumentation("cart", sdk, ValueEntityCategory)
+      val (sampledCmd, sampledMetadata) = command("cart-1", traceParentEntry(sampled = true))
+      instrumentation.buildSpan(CartService, sampledCmd, sampledMetadata).foreach(_.end())
+      val (notSampledCmd, notSampledMetadata) = command("cart-2", traceParentEntry(sampled = false))
+      val notSampled = instrumentation.buildSpan(CartService, notSampledCmd, notSampledMetadata)
+      notSampled.map(_.isRecording) shouldBe Some(false)
+      notSampled.foreach(_.end())
+      flush()
+
+      collector.spans.asScala.map(_.getName).toSeq shouldBe Seq("cart-1")
+    }
+
+    "sample by ratio only when not parent based" in {
+      startSdk(defaultSettings.copy(samplingRatio = 0.0, parentBased = false))
+      val instrumentation = new TraceInstrumentation("cart", sdk, ValueEntityCategory)
+      val (cmd, metadata) = command("cart-1", traceParentEntry(sampled = true))
+      instrumentation.buildSpan(CartService, cmd, metadata).foreach(_.end())
+      flush()
+
+      collector.spans shouldBe empty
+    }
+  }
+
+  "The component metrics" should {
+
+    "be disabled by default" in {
+      MetricsSettings(ConfigFactory.load().getConfig("kalix.telemetry.metrics")).enabled shouldBe false
+    }
+
+    "record commands per component and command name" in {
+      val instruments = startMeterProvider()
+      val cart = new OpenTelemetryComponentMetrics(instruments, "cart", EventSourcedEntityCategory)
+      val counter = new OpenTelemetryComponentMetrics(instruments, "counter", ValueEntityCategory)
+
+      val start = System.nanoTime()
+      cart.recordDecode(start)
+      cart.recordCommand("AddItem", start)
+      cart.recordCommand("AddItem", start)
+      cart.recordCommand("RemoveItem", start)
+      cart.recordEvents("AddItem", 2)
+      cart.recordSnapshotSize(100)
+      cart.recordSnapshotEncode(start)
+      counter.recordCommand("Increase", start)
+      flushMetrics()
+
+      def points(name: String) =
+        collector.metrics.asScala.filter(_.getName == name).flatMap(_.getData.getPoints.asScala).toSeq
+
+      val commands = points(MetricsInstruments.CommandsCounter).map { point =>
+        val attributes = point.getAttributes
+        (
+          attributes.get(MetricsInstruments.ComponentAttribute),
+          attributes.get(MetricsInstruments.CommandAttribute),
+          point.asInstanceOf[LongPointData].getValue)
+      }
+      commands should contain theSameElementsAs Seq(
+        ("cart", "AddItem", 2L),
+        ("cart", "RemoveItem", 1L),
+        ("counter", "Increase", 1L))
+
+      points(MetricsInstruments.CommandDurationHistogram) should have size 3
+      points(MetricsInstruments.DecodeDurationHistogram) should have size 1
+      points(MetricsInstruments.EventsCounter) should have size 1
+      val snapshotSize = points(MetricsInstruments.SnapshotSizeHistogram).head
+      snapshotSize.getAttributes.get(MetricsInstruments.ComponentTypeAttribute) shouldBe "Event Sourced Entity"
+      points(MetricsInstruments.SnapshotEncodeDurationHistogram) should have size 1
+    }
+
+    "record the number of metadata entries of the commands" in {
+      val instruments = startMeterProvider()
+      val cart = new OpenTelemetryComponentMetrics(instruments, "cart", ValueEntityCategory)
+      cart.recordMetadataEntries(3)
+      flushMetrics()
+
+      val histogram =
+        collector.metrics.asScala.find(_.getName == MetricsInstruments.MetadataEntriesHistogram).get
+      val point = histogram.getHistogramData.getPoints.asScala.head
+      point.getCount shouldBe 1
+      point.getSum shouldBe 3.0
+      point.getAttributes.get(MetricsInstruments.ComponentAttribute) shouldBe "cart"
+    }
+  }
+}
@@ -22,11 +22,10 @@ import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
 import kalix.javasdk.testkit.impl.EventSourcedEntityEffectsRunner;
 import kalix.javasdk.testkit.impl.TestKitEventSourcedEntityContext;
 import kalix.javasdk.impl.JsonMessageCodec;
+import kalix.javasdk.impl.MethodInvoker;
 import kalix.javasdk.impl.eventsourcedentity.EventSourceEntityHandlers;
 import kalix.javasdk.impl.eventsourcedentity.EventSourcedHandlersExtractor;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -123,16 +122,15 @@ public class EventSourcedTestKit<S, E, ES extends EventSourcedEntity<S, E>>
 
   @Override
   protected final S handleEvent(S state, E event) {
+    MethodInvoker invoker;
     try {
-      Method method = eventHandlers.handlers().apply(messageCodec.removeVersion(messageCodec.typeUrlFor(event.getClass()))).method();
-      return (S) method.invoke(entity, event);
+      invoker = eventHandlers.handlers().apply(messageCodec.removeVersion(messageCodec.typeUrlFor(event.getClass())));
     } catch (NoSuchElementException e) {
       throw new RuntimeException(
           "Couldn't find a valid event handler for event type '"
               + event.getClass().getName()
               + "'");
-    } catch (IllegalAccessException | InvocationTargetException e) {
-      throw new RuntimeException(e);
     }
+    return (S) invoker.invokeDirectly(entity, event);
   }
 }
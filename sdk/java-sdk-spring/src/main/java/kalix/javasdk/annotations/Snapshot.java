@@ -0,0 +1,48 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Decide when an event sourced entity stores snapshots of its state, instead of every fixed number
+ * of events from configuration. A snapshot is stored when any of the given thresholds is reached,
+ * attributes left at 0 are not used.
+ *
+ * <p>See {@link kalix.javasdk.eventsourcedentity.SnapshotPolicy} for the details of each threshold.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Snapshot {
+
+  /** Snapshot once this many events were persisted since the last snapshot. */
+  int everyEvents() default 0;
+
+  /** Snapshot once the serialized events since the last snapshot add up to this many bytes. */
+  long everyEventBytes() default 0;
+
+  /** Snapshot once replaying the events since the last snapshot takes longer than this. */
+  long replayTimeBudgetMillis() default 0;
+
+  /** Snapshot once the events since the last snapshot are this many times its size. */
+  double stateGrowthFactor() default 0;
+}
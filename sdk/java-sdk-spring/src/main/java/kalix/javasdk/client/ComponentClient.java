@@ -78,6 +78,21 @@ public class ComponentClient {
     return new ValueEntityCallBuilder(kalixClient, List.of(valueEntityIds));
   }
 
+  /**
+   * Select ValueEntity as the target component of a batch of calls, each to its own entity id.
+   * <p>
+   * Example of use:
+   * <pre>{@code
+   * componentClient.forValueEntities()
+   *   .call(CounterEntity::increase)
+   *   .withParallelism(32)
+   *   .execute(List.of(Pair.create("counter-1", 1), Pair.create("counter-2", 5)));
+   * }</pre>
+   */
+  public ValueEntityBatchCallBuilder forValueEntities() {
+    return new ValueEntityBatchCallBuilder(kalixClient);
+  }
+
   /**
    * Select EventSourcedEntity as a call target component.
    * <p>
@@ -105,6 +120,13 @@ public class ComponentClient {
     return new EventSourcedEntityCallBuilder(kalixClient, List.of(eventSourcedEntityIds));
   }
 
+  /**
+   * Select EventSourcedEntity as the target component of a batch of calls, each to its own entity id.
+   */
+  public EventSourcedEntityBatchCallBuilder forEventSourcedEntities() {
+    return new EventSourcedEntityBatchCallBuilder(kalixClient);
+  }
+
   /**
    * Select Workflow as a call target component.
    * <p>
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.client;
+
+import akka.japi.function.Function;
+import akka.japi.function.Function2;
+import kalix.javasdk.valueentity.ValueEntity;
+import kalix.spring.KalixClient;
+
+public class ValueEntityBatchCallBuilder {
+
+  private final KalixClient kalixClient;
+
+  public ValueEntityBatchCallBuilder(KalixClient kalixClient) {
+    this.kalixClient = kalixClient;
+  }
+
+  /**
+   * Pass in a Value Entity method reference annotated as a REST endpoint, e.g. <code>UserEntity::getUser</code>,
+   * to call it for many entity ids.
+   */
+  public <T, R> NoParamsBatchComponentCall<R> call(Function<T, ValueEntity.Effect<R>> methodRef) {
+    return new NoParamsBatchComponentCall<>(kalixClient, methodRef);
+  }
+
+  /**
+   * Pass in a Value Entity method reference annotated as a REST endpoint, e.g. <code>UserEntity::create</code>,
+   * to call it for many pairs of entity id and parameter.
+   */
+  public <T, A1, R> BatchComponentCall<A1, R> call(Function2<T, A1, ValueEntity.Effect<R>> methodRef) {
+    return new BatchComponentCall<>(kalixClient, methodRef);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.common;
+
+import kalix.javasdk.annotations.Snapshot;
+import kalix.javasdk.eventsourcedentity.SnapshotPolicy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class SnapshotPolicyExtractor {
+
+  public static Optional<SnapshotPolicy> extractFrom(Class<?> clazz) {
+    Snapshot snapshot = clazz.getAnnotation(Snapshot.class);
+    if (snapshot == null) return Optional.empty();
+
+    List<SnapshotPolicy> policies = new ArrayList<>();
+    if (snapshot.everyEvents() > 0) policies.add(SnapshotPolicy.everyEvents(snapshot.everyEvents()));
+    if (snapshot.everyEventBytes() > 0)
+      policies.add(SnapshotPolicy.everyEventBytes(snapshot.everyEventBytes()));
+    if (snapshot.replayTimeBudgetMillis() > 0)
+      policies.add(
+          SnapshotPolicy.replayTimeBudget(Duration.ofMillis(snapshot.replayTimeBudgetMillis())));
+    if (snapshot.stateGrowthFactor() > 0)
+      policies.add(SnapshotPolicy.stateGrowth(snapshot.stateGrowthFactor()));
+
+    if (policies.isEmpty())
+      throw new IllegalArgumentException(
+          "@Snapshot on [" + clazz.getName() + "] must set at least one positive threshold");
+    else if (policies.size() == 1) return Optional.of(policies.get(0));
+    else return Optional.of(SnapshotPolicy.anyOf(policies.toArray(new SnapshotPolicy[0])));
+  }
+}
@@ -18,6 +18,7 @@ package kalix.javasdk.eventsourced;
 
 import com.google.protobuf.Descriptors;
 import kalix.javasdk.common.ForwardHeadersExtractor;
+import kalix.javasdk.common.SnapshotPolicyExtractor;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntity;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityContext;
 import kalix.javasdk.eventsourcedentity.EventSourcedEntityOptions;
@@ -78,7 +79,12 @@ public class ReflectiveEventSourcedEntityProvider<S, E, ES extends EventSourcedE
 
     this.entityType = typeId;
     this.factory = factory;
-    this.options = options.withForwardHeaders(ForwardHeadersExtractor.extractFrom(entityClass));
+    EventSourcedEntityOptions withHeaders =
+        options.withForwardHeaders(ForwardHeadersExtractor.extractFrom(entityClass));
+    this.options =
+        SnapshotPolicyExtractor.extractFrom(entityClass)
+            .map(withHeaders::withSnapshotPolicy)
+            .orElse(withHeaders);
     this.messageCodec = messageCodec;
     this.componentDescriptor = ComponentDescriptor.descriptorFor(entityClass, messageCodec);
     this.fileDescriptor = componentDescriptor.fileDescriptor();
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.client
+
+import java.lang.reflect.Method
+import java.util
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+import scala.concurrent.ExecutionContext
+import scala.jdk.CollectionConverters._
+import scala.jdk.FutureConverters._
+import scala.util.control.NonFatal
+
+import akka.NotUsed
+import akka.japi.Pair
+import akka.stream.javadsl
+import akka.stream.scaladsl.Source
+import com.google.protobuf.any.Any
+import kalix.javasdk.DeferredCall
+import kalix.javasdk.impl.client.MethodRefResolver
+import kalix.spring.KalixClient
+
+/**
+ * A call to a component method taking one parameter, executed for many entities, each with its own id and parameter.
+ *
+ * At most `parallelism` calls are in flight at the same time. Those are multiplexed over one connection to the Kalix
+ * Runtime when the component client uses the gRPC transport or h2c, see `kalix.cross-service` in the configuration.
+ */
+final class BatchComponentCall[A1, R] private (kalixClient: KalixClient, method: Method, parallelism: Int) {
+
+  def this(kalixClient: KalixClient, lambda: scala.Any) = {
+    this(kalixClient, MethodRefResolver.resolveMethodRef(lambda), BatchComponentCall.DefaultParallelism)
+  }
+
+  /**
+   * The maximum number of calls in flight at the same time, 16 by default.
+   */
+  def withParallelism(parallelism: Int): BatchComponentCall[A1, R] =
+    new BatchComponentCall(kalixClient, method, BatchComponentCall.validParallelism(parallelism))
+
+  /**
+   * Execute the call for each pair of entity id and parameter.
+   *
+   * @return
+   *   the results in the order of the given calls, or the first failure
+   */
+  def execute(calls: util.List[Pair[String, A1]]): CompletionStage[util.List[R]] =
+    BatchComponentCall.executeAll(calls.asScala.toVector, parallelism)(call => deferredCall(call).execute())
+
+  /**
+   * A source executing the call for each pair of entity id and parameter when run.
+   *
+   * @return
+   *   the entity ids with their results, in the order the calls complete
+   */
+  def source(calls: util.List[Pair[String, A1]]): javadsl.Source[Pair[String, R], NotUsed] =
+    BatchComponentCall.completionOrderSource(calls.asScala.toList, parallelism)(_.first, deferredCall)
+
+  private def deferredCall(call: Pair[String, A1]): DeferredCall[Any, R] =
+    ComponentCall.invoke(Seq(call.second), kalixClient, method, List(call.first))
+}
+
+/**
+ * A call to a component method without parameters, executed for many entities.
+ *
+ * At most `parallelism` calls are in flight at the same time. Those are multiplexed over one connection to the Kalix
+ * Runtime when the component client uses the gRPC transport or h2c, see `kalix.cross-service` in the configuration.
+ */
+final class NoParamsBatchComponentCall[R] private (kalixClient: KalixClient, method: Method, parallelism: Int) {
+
+  def this(kalixClient: KalixClient, lambda: scala.Any) = {
+    this(kalixClient, MethodRefResolver.resolveMethodRef(lambda), BatchComponentCall.DefaultParallelism)
+  }
+
+  /**
+   * The maximum number of calls in flight at the same time, 16 by default.
+   */
+  def withParallelism(parallelism: Int): NoParamsBatchComponentCall[R] =
+    new NoParamsBatchComponentCall(kalixClient, method, BatchComponentCall.validParallelism(parallelism))
+
+  /**
+   * Execute the call for each entity id.
+   *
+   * @return
+   *   the results in the order of the given ids, or the first failure
+   */
+  def execute(ids: util.List[String]): CompletionStage[util.List[R]] =
+    BatchComponentCall.executeAll(ids.asScala.toVector, parallelism)(id => deferredCall(id).execute())
+
+  /**
+   * A source executing the call for each entity id when run.
+   *
+   * @return
+   *   the entity ids with their results, in the order the calls complete
+   */
+  def source(ids: util.List[String]): javadsl.Source[Pair[String, R], NotUsed] =
+    BatchComponentCall.completionOrderSource(ids.asScala.toList, parallelism)(identity, deferredCall)
+
+  private def deferredCall(id: String): DeferredCall[Any, R] =
+    ComponentCall.noParams(kalixClient, method, util.List.of(id))
+}
+
+private[client] object BatchComponentCall {
+
+  val DefaultParallelism = 16
+
+  def validParallelism(parallelism: Int): Int =
+    if (parallelism < 1) throw new IllegalArgumentException(s"Parallelism must be at least 1, was [$parallelism]")
+    else parallelism
+
+  /**
+   * Starts up to `parallelism` calls and each completed call starts the next one, keeping the results in the order of
+   * the inputs. The first failure fails the batch and no further calls are started.
+   *
+   * Calls that complete right away are followed by the next call in a loop rather than from their completion callback,
+   * so that a batch of such calls does not grow the stack with its size.
+   */
+  def executeAll[I, R](inputs: Vector[I], parallelism: Int)(
+      call: I => CompletionStage[R]): CompletionStage[util.List[R]] = {
+    val result = new CompletableFuture[util.List[R]]()
+    val results = new AtomicReferenceArray[scala.Any](inputs.size)
+    val nextIndex = new AtomicInteger(0)
+    val remaining = new AtomicInteger(inputs.size)
+
+    // runs the calls of one of the parallel lanes, one after the other
+    def runLane(): Unit = {
+      var running = true
+      while (running) {
+        val index = nextIndex.getAndIncrement()
+        if (index >= inputs.size || result.isDone) running = false
+        else {
+          val stage =
+            try call(inputs(index))
+            catch {
+              case NonFatal(e) => CompletableFuture.failedFuture[R](e)
+            }
+          // whichever of the loop and the callback gets here second continues the lane
+          val handOver = new AtomicBoolean(false)
+          stage.whenComplete { (value, error) =>
+            if (error ne null) result.completeExceptionally(error)
+            else {
+              results.set(index, value)
+              if (remaining.decrementAndGet() == 0)
+                result.complete((0 until inputs.size).map(i => results.get(i).asInstanceOf[R]).asJava)
+            }
+            if (handOver.getAndSet(true)) runLane()
+          }
+          // when the call has not completed yet, its callback continues the lane
+          running = handOver.getAndSet(true)
+        }
+      }
+    }
+
+    if (inputs.isEmpty) result.complete(util.List.of())
+    else (0 until math.min(parallelism, inputs.size)).foreach(_ => runLane())
+    result
+  }
+
+  def completionOrderSource[I, R](inputs: List[I], parallelism: Int)(
+      id: I => String,
+      deferredCall: I => DeferredCall[Any, R]): javadsl.Source[Pair[String, R], NotUsed] =
+    Source(inputs)
+      .mapAsyncUnordered(parallelism) { input =>
+        deferredCall(input).execute().asScala.map(result => Pair(id(input), result))(ExecutionContext.parasitic)
+      }
+      .asJava
+}
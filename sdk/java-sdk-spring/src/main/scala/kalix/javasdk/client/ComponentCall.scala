@@ -19,6 +19,7 @@ package kalix.javasdk.client
 import java.lang.reflect.Method
 import java.lang.reflect.ParameterizedType
 import java.util
+import java.util.concurrent.ConcurrentHashMap
 
 import scala.jdk.CollectionConverters._
 
@@ -79,35 +80,23 @@ object ComponentCall {
       method: Method,
       ids: List[String]): DeferredCall[Any, R] = {
 
-    val declaringClass = method.getDeclaringClass
-
-    val returnType: Class[R] = getReturnType(declaringClass, method)
-
-    val restService: RestService = RestServiceIntrospector.inspectService(declaringClass)
-    val restMethod: SyntheticRequestServiceMethod =
-      restService.methods.find(_.javaMethod.getName == method.getName) match {
-        case Some(method) => method
-        case None => throw new IllegalStateException(s"Method [${method.getName}] is not annotated as a REST endpoint.")
-      }
-
-    val requestMethod: RequestMethod = restMethod.requestMethod
+    val plan = callPlanFor(method)
+    val returnType = plan.returnType.asInstanceOf[Class[R]]
 
-    val queryParams: Map[String, util.List[scala.Any]] = restMethod.params
-      .collect { case p: QueryParamParameter => p }
-      .map(p => (p.name, getQueryParam(params, p.param.getParameterIndex)))
-      .toMap
+    val queryParams: Map[String, util.List[scala.Any]] = plan.queryParams.map { case (name, index) =>
+      (name, getQueryParam(params, index))
+    }.toMap
 
-    val pathVariables: Map[String, ?] = restMethod.params
-      .collect { case p: PathParameter => p }
-      .map(p => (p.name, getPathParam(params, p.param.getParameterIndex, p.name)))
-      .toMap ++ idVariables(ids, method)
+    val pathVariables: Map[String, ?] = plan.pathParams.map { case (name, index) =>
+      (name, getPathParam(params, index, name))
+    }.toMap ++ idVariables(ids, method, plan.idNames)
 
-    val bodyIndex = restMethod.params.collect { case p: BodyParameter => p }.map(_.param.getParameterIndex).headOption
-    val body = bodyIndex.map(params(_))
+    val body = plan.bodyIndex.map(params(_))
 
     val kalixClientImpl = kalixClient.asInstanceOf[RestKalixClientImpl]
 
-    val pathTemplate = restMethod.parsedPath.path
+    val pathTemplate = plan.restMethod.parsedPath.path
+    val requestMethod: RequestMethod = plan.restMethod.requestMethod
 
     requestMethod match {
       case RequestMethod.GET =>
@@ -126,6 +115,55 @@ object ComponentCall {
     }
   }
 
+  /**
+   * Everything about calling a component method that does not depend on the call parameters.
+   *
+   * @param idNames
+   *   the names of the ids to pass in the path, None if the call does not take ids
+   */
+  private final case class CallPlan(
+      restMethod: SyntheticRequestServiceMethod,
+      returnType: Class[_],
+      queryParams: Seq[(String, Int)],
+      pathParams: Seq[(String, Int)],
+      bodyIndex: Option[Int],
+      idNames: Option[Seq[String]])
+
+  private final class ComponentCallPlans(componentClass: Class[_]) {
+    lazy val restService: RestService = RestServiceIntrospector.inspectService(componentClass)
+    val byMethod = new ConcurrentHashMap[Method, CallPlan]()
+  }
+
+  // the introspection of a component and its methods is done once, not for every call
+  private val callPlans = new ClassValue[ComponentCallPlans] {
+    override def computeValue(componentClass: Class[_]): ComponentCallPlans = new ComponentCallPlans(componentClass)
+  }
+
+  private def callPlanFor(method: Method): CallPlan = {
+    val componentPlans = callPlans.get(method.getDeclaringClass)
+    val plan = componentPlans.byMethod.get(method)
+    if (plan ne null) plan
+    else componentPlans.byMethod.computeIfAbsent(method, _ => createCallPlan(componentPlans.restService, method))
+  }
+
+  private def createCallPlan(restService: RestService, method: Method): CallPlan = {
+    val declaringClass = method.getDeclaringClass
+
+    val restMethod: SyntheticRequestServiceMethod =
+      restService.methods.find(_.javaMethod.getName == method.getName) match {
+        case Some(method) => method
+        case None => throw new IllegalStateException(s"Method [${method.getName}] is not annotated as a REST endpoint.")
+      }
+
+    CallPlan(
+      restMethod = restMethod,
+      returnType = getReturnType(declaringClass, method),
+      queryParams = restMethod.params.collect { case p: QueryParamParameter => (p.name, p.param.getParameterIndex) },
+      pathParams = restMethod.params.collect { case p: PathParameter => (p.name, p.param.getParameterIndex) },
+      bodyIndex = restMethod.params.collectFirst { case p: BodyParameter => p.param.getParameterIndex },
+      idNames = idNames(method))
+  }
+
   private def getReturnType[R](declaringClass: Class[_], method: Method): Class[R] = {
     if (classOf[Action].isAssignableFrom(declaringClass)
       || classOf[ValueEntity[_]].isAssignableFrom(declaringClass)
@@ -167,28 +205,34 @@ object ComponentCall {
     throw new IllegalStateException(s"HTTP $requestMethod not supported when calling $pathTemplate")
   }
 
-  private def idVariables(ids: List[String], method: Method): Map[String, String] = {
-
+  private def idNames(method: Method): Option[Seq[String]] = {
     val declaringClass = method.getDeclaringClass
     if (declaringClass.getAnnotation(classOf[EntityType]) == null &&
       declaringClass.getAnnotation(classOf[TypeId]) == null) {
       //not an entity or workflows
-      Map.empty
+      None
     } else if (IdExtractor.shouldGenerateId(method)) {
-      Map.empty
+      None
     } else {
-      val idNames = IdExtractor.extractIds(declaringClass, method)
-      if (ids.isEmpty) {
-        throw new IllegalStateException(s"Id is missing when calling [${method.getName}] method")
-      } else if (ids.size != idNames.size) {
-        throw new IllegalStateException(
-          s"Expecting ${idNames.size} instead of ${ids.size} when calling [${method.getName}] method. Provide values for [${idNames
-            .mkString(", ")}] ids.")
-      } else if (idNames.size == 1) { //single key
-        Map(idNames.head -> ids.head)
-      } else { //compound key
-        idNames.zip(ids).toMap
-      }
+      Some(IdExtractor.extractIds(declaringClass, method))
+    }
+  }
+
+  private def idVariables(ids: List[String], method: Method, idNames: Option[Seq[String]]): Map[String, String] = {
+    idNames match {
+      case None => Map.empty
+      case Some(idNames) =>
+        if (ids.isEmpty) {
+          throw new IllegalStateException(s"Id is missing when calling [${method.getName}] method")
+        } else if (ids.size != idNames.size) {
+          throw new IllegalStateException(
+            s"Expecting ${idNames.size} instead of ${ids.size} when calling [${method.getName}] method. Provide values for [${idNames
+              .mkString(", ")}] ids.")
+        } else if (idNames.size == 1) { //single key
+          Map(idNames.head -> ids.head)
+        } else { //compound key
+          idNames.zip(ids).toMap
+        }
     }
   }
 }
@@ -16,6 +16,9 @@
 
 package kalix.javasdk.impl
 
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
 import java.lang.reflect.Method
 
 import com.fasterxml.jackson.annotation.JsonSubTypes
@@ -32,28 +35,27 @@ case class CommandHandler(
   val logger = LoggerFactory.getLogger(classOf[CommandHandler])
 
   /**
-   * This method will look up for a registered method that receives a super type of the incoming payload. It's only
-   * called when a direct method is not found.
-   *
-   * The incoming typeUrl is for one of the existing sub types, but the method itself is defined to receive a super
-   * type. Therefore we look up the method parameter to find out if one of its sub types matches the incoming typeUrl.
+   * All type urls, without version, that a method can be invoked with. Besides the registered type urls, a method
+   * defined to receive a super type is also registered for each of its sub types, including their previous type names
+   * when they have a migration. Built once, so that dispatching a message is a single lookup.
    */
-  private def lookupMethodAcceptingSubType(inputTypeUrl: String): Option[MethodInvoker] = {
-    methodInvokers.values.find { javaMethod =>
-      val lastParam = javaMethod.method.getParameterTypes.last
-      if (lastParam.getAnnotation(classOf[JsonSubTypes]) != null) {
-        lastParam.getAnnotation(classOf[JsonSubTypes]).value().exists { subType =>
-          inputTypeUrl == messageCodec
-            .typeUrlFor(subType.value()) //TODO requires more changes to be used with JsonMigration
-        }
-      } else false
-    }
+  private val invokersByTypeUrl: Map[String, MethodInvoker] = {
+    val subTypeInvokers =
+      for {
+        invoker <- methodInvokers.values
+        lastParam <- invoker.method.getParameterTypes.lastOption.toList
+        subTypes = lastParam.getAnnotation(classOf[JsonSubTypes])
+        if subTypes != null
+        subType <- subTypes.value()
+        typeUrl <- messageCodec.typeUrlsFor(subType.value())
+      } yield messageCodec.removeVersion(typeUrl) -> invoker
+
+    // methods registered for a type url take precedence over methods accepting a super type
+    subTypeInvokers.toMap ++ methodInvokers
   }
 
   def lookupInvoker(inputTypeUrl: String): Option[MethodInvoker] =
-    methodInvokers
-      .get(messageCodec.removeVersion(inputTypeUrl))
-      .orElse(lookupMethodAcceptingSubType(inputTypeUrl))
+    invokersByTypeUrl.get(messageCodec.removeVersion(inputTypeUrl))
 
   def getInvoker(inputTypeUrl: String): MethodInvoker =
     lookupInvoker(inputTypeUrl).getOrElse {
@@ -67,19 +69,60 @@ object MethodInvoker {
   def apply(javaMethod: Method, parameterExtractor: ParameterExtractor[InvocationContext, AnyRef]): MethodInvoker =
     MethodInvoker(javaMethod, Array(parameterExtractor))
 
+  /**
+   * A method handle for the method adapted to take the instance and all parameters as objects and to return an object,
+   * so that it can always be called with the same, exact, types without boxing or varargs arrays.
+   */
+  private def methodHandleFor(method: Method): MethodHandle = {
+    val handle =
+      try {
+        MethodHandles.publicLookup().unreflect(method)
+      } catch {
+        case _: IllegalAccessException =>
+          // for example public methods of classes that are not public
+          method.setAccessible(true)
+          MethodHandles.lookup().unreflect(method)
+      }
+    handle.asType(MethodType.genericMethodType(method.getParameterCount + 1))
+  }
 }
 
 case class MethodInvoker(method: Method, parameterExtractors: Array[ParameterExtractor[InvocationContext, AnyRef]]) {
 
+  private val handle: MethodHandle = MethodInvoker.methodHandleFor(method)
+
+  // only used for methods with more than two parameters
+  private lazy val spreader: MethodHandle = handle.asSpreader(classOf[Array[AnyRef]], parameterExtractors.length)
+
   /**
    * To invoke methods with parameters an InvocationContext is necessary extract them from the message.
    */
   def invoke(componentInstance: AnyRef, invocationContext: InvocationContext): AnyRef =
-    method.invoke(componentInstance, parameterExtractors.map(e => e.extract(invocationContext)): _*)
+    parameterExtractors.length match {
+      case 0 =>
+        handle.invoke(componentInstance): AnyRef
+      case 1 =>
+        val param = parameterExtractors(0).extract(invocationContext)
+        handle.invoke(componentInstance, param): AnyRef
+      case 2 =>
+        val param0 = parameterExtractors(0).extract(invocationContext)
+        val param1 = parameterExtractors(1).extract(invocationContext)
+        handle.invoke(componentInstance, param0, param1): AnyRef
+      case _ =>
+        val params: Array[AnyRef] = parameterExtractors.map(e => e.extract(invocationContext))
+        spreader.invoke(componentInstance, params): AnyRef
+    }
 
   /**
    * To invoke methods with arity zero.
    */
   def invoke(componentInstance: AnyRef): AnyRef =
-    method.invoke(componentInstance)
+    handle.invoke(componentInstance): AnyRef
+
+  /**
+   * To invoke methods with arity one with an already extracted parameter, for example event handlers with an event
+   * from memory.
+   */
+  def invokeDirectly(componentInstance: AnyRef, parameter: AnyRef): AnyRef =
+    handle.invoke(componentInstance, parameter): AnyRef
 }
@@ -505,9 +505,13 @@ private[kalix] object ComponentDescriptor {
       indexedParams: Seq[(RestServiceIntrospector.RestMethodParameter, Int)]): Option[(Int, ExtractorCreator)] = {
     indexedParams.collectFirst { case (BodyParameter(param, _), idx) =>
       idx -> new ExtractorCreator {
-        override def apply(descriptor: Descriptors.Descriptor): ParameterExtractor[DynamicMessageContext, AnyRef] = {
-          // json_body field is always on position 1 in the synthetic request
-          new ParameterExtractors.BodyExtractor(descriptor.findFieldByNumber(1), param.getParameterType)
+        override def apply(descriptor: Descriptors.Descriptor): ParameterExtractor[InvocationContext, AnyRef] = {
+          if (indexedParams.size == 1)
+            // nothing else to extract, so the body is read without parsing the whole request
+            new ParameterExtractors.RequestBodyOnlyExtractor(param.getParameterType)
+          else
+            // json_body field is always on position 1 in the synthetic request
+            new ParameterExtractors.BodyExtractor(descriptor.findFieldByNumber(1), param.getParameterType)
         }
       }
     }
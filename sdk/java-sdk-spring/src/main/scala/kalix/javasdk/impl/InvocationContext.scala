@@ -24,6 +24,7 @@ import kalix.javasdk.Metadata
 import kalix.javasdk.impl.AnySupport.BytesPrimitive
 import kalix.javasdk.impl.reflection.DynamicMessageContext
 import kalix.javasdk.impl.reflection.MetadataContext
+import kalix.javasdk.impl.reflection.PayloadContext
 
 object InvocationContext {
 
@@ -33,24 +34,29 @@ object InvocationContext {
   def apply(
       anyMessage: ScalaPbAny,
       methodDescriptor: Descriptors.Descriptor,
-      metadata: Metadata = Metadata.EMPTY): InvocationContext = {
-
-    val dynamicMessage =
-      if (anyMessage.typeUrl.startsWith(JsonSupport.KALIX_JSON) ||
-        anyMessage.typeUrl == BytesPrimitive.fullName) {
-        DynamicMessage
-          .newBuilder(methodDescriptor)
-          .setField(typeUrlField, anyMessage.typeUrl)
-          .setField(valueField, anyMessage.value)
-          .build()
-
-      } else {
-        DynamicMessage.parseFrom(methodDescriptor, anyMessage.value)
-      }
-
-    new InvocationContext(dynamicMessage, metadata)
-  }
+      metadata: Metadata = Metadata.EMPTY): InvocationContext =
+    new InvocationContext(anyMessage, methodDescriptor, metadata)
+
+  private def toDynamicMessage(anyMessage: ScalaPbAny, methodDescriptor: Descriptors.Descriptor): DynamicMessage =
+    if (anyMessage.typeUrl.startsWith(JsonSupport.KALIX_JSON) ||
+      anyMessage.typeUrl == BytesPrimitive.fullName) {
+      DynamicMessage
+        .newBuilder(methodDescriptor)
+        .setField(typeUrlField, anyMessage.typeUrl)
+        .setField(valueField, anyMessage.value)
+        .build()
+
+    } else {
+      DynamicMessage.parseFrom(methodDescriptor, anyMessage.value)
+    }
 }
-class InvocationContext(val message: DynamicMessage, val metadata: Metadata)
+
+class InvocationContext(val payload: ScalaPbAny, methodDescriptor: Descriptors.Descriptor, val metadata: Metadata)
     extends DynamicMessageContext
-    with MetadataContext
+    with PayloadContext
+    with MetadataContext {
+
+  // only parsed when a parameter is extracted from it, a request body that is the only parameter is read from the
+  // payload instead
+  lazy val message: DynamicMessage = InvocationContext.toDynamicMessage(payload, methodDescriptor)
+}
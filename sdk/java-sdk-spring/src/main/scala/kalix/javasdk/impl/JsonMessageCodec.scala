@@ -28,7 +28,6 @@ import com.google.protobuf.BytesValue
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import com.google.protobuf.{ Any => JavaPbAny }
 import kalix.javasdk.JsonSupport
-import kalix.javasdk.annotations.Migration
 import kalix.javasdk.annotations.TypeName
 import kalix.javasdk.impl.AnySupport.BytesPrimitive
 
@@ -136,12 +135,12 @@ private[kalix] class JsonMessageCodec extends MessageCodec {
   }
 
   private def getVersionAndSupportedClassNames(clz: Class[_]): (Int, List[String]) = {
-    Option(clz.getAnnotation(classOf[Migration]))
-      .map(_.value())
-      .map(migrationClass => migrationClass.getConstructor().newInstance())
-      .map(migration =>
-        (migration.currentVersion(), migration.supportedClassNames().asScala.toList)) //TODO what about TypeName
-      .getOrElse((0, List.empty))
+    // also prepares the reader, writer and migration used when encoding and decoding the type
+    val jsonType = JsonTypeRegistry.lookup(clz)
+    if (jsonType.hasMigration)
+      (jsonType.currentVersion, jsonType.supportedClassNames.asScala.toList)
+    else
+      (0, List.empty)
   }
 
   def typeUrlFor(clz: Class[_]): String = {
@@ -165,7 +164,8 @@ private[kalix] class JsonMessageCodec extends MessageCodec {
   }
 
   private[kalix] def removeVersion(typeName: String) = {
-    typeName.split("#").head
+    val versionSeparator = typeName.indexOf('#')
+    if (versionSeparator < 0) typeName else typeName.substring(0, versionSeparator)
   }
 }
 
@@ -179,11 +179,12 @@ private[kalix] class StrictJsonMessageCodec(delegate: JsonMessageCodec) extends
   override def decodeMessage(value: ScalaPbAny): Any =
     if (value.typeUrl.startsWith(JsonSupport.KALIX_JSON)) {
       val any = ScalaPbAny.toJavaProto(value)
-      val typeName = delegate.removeVersion(value.typeUrl.replace(JsonSupport.KALIX_JSON, ""))
+      val typeName = delegate.removeVersion(value.typeUrl.substring(JsonSupport.KALIX_JSON.length))
       val typeClass = delegate.reversedTypeHints.get(typeName)
       if (typeClass == null) {
         throw new IllegalStateException(s"Cannot decode ${value.typeUrl} message type. Class mapping not found.")
       } else {
+        // reader and migration were prepared in the JsonTypeRegistry when the type hints were registered
         JsonSupport.decodeJson(typeClass, any)
       }
     } else {
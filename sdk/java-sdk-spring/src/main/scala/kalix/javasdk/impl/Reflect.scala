@@ -20,13 +20,52 @@ import java.lang.annotation.Annotation
 import java.lang.reflect.AnnotatedElement
 import java.lang.reflect.Method
 import java.lang.reflect.Modifier
+import java.lang.reflect.ParameterizedType
+import java.lang.reflect.Type
+import java.lang.reflect.TypeVariable
 
+import scala.annotation.tailrec
 import scala.reflect.ClassTag
 
 /**
  * Class extension to facilitate some reflection common usages.
  */
 object Reflect {
+
+  /**
+   * Resolves the class passed as the type argument at `index` of the generic `superclass` that `clazz` extends. The
+   * superclass does not have to be the direct superclass, and the type argument can be passed through type parameters
+   * of the classes in between.
+   */
+  def superclassTypeArgument(clazz: Class[_], superclass: Class[_], index: Int): Class[_] = {
+    def resolve(tpe: Type): Class[_] = tpe match {
+      case c: Class[_]          => c
+      case p: ParameterizedType => p.getRawType.asInstanceOf[Class[_]]
+      case other =>
+        throw new IllegalArgumentException(
+          s"Could not resolve type argument [$other] of [${superclass.getName}] for [${clazz.getName}]")
+    }
+
+    @tailrec
+    def loop(current: Class[_], bindings: Map[TypeVariable[_], Type]): Class[_] =
+      current.getGenericSuperclass match {
+        case parameterized: ParameterizedType =>
+          val rawType = parameterized.getRawType.asInstanceOf[Class[_]]
+          val arguments = parameterized.getActualTypeArguments.map {
+            case variable: TypeVariable[_] => bindings.getOrElse(variable, variable)
+            case other                     => other
+          }
+          if (rawType == superclass) resolve(arguments(index))
+          else loop(rawType, rawType.getTypeParameters.iterator.zip(arguments).toMap[TypeVariable[_], Type])
+        case rawType: Class[_] =>
+          loop(rawType, Map.empty)
+        case _ =>
+          throw new IllegalArgumentException(s"[${clazz.getName}] does not extend [${superclass.getName}]")
+      }
+
+    loop(clazz, Map.empty)
+  }
+
   object Syntax {
 
     implicit class ClassOps(clazz: Class[_]) {
@@ -18,13 +18,30 @@ package kalix.javasdk.impl.client
 
 import java.lang.invoke.SerializedLambda
 import java.lang.reflect.Method
+import java.util.concurrent.atomic.AtomicReference
 
 private[kalix] object MethodRefResolver {
 
+  // a lambda class is generated per call site, so it always refers to the same method
+  private val resolvedMethods = new ClassValue[AtomicReference[Method]] {
+    override def computeValue(lambdaType: Class[_]): AtomicReference[Method] = new AtomicReference[Method]()
+  }
+
   /**
    * Resolve the method ref for a lambda.
    */
   def resolveMethodRef(lambda: Any): Method = {
+    val resolved = resolvedMethods.get(lambda.getClass)
+    val method = resolved.get()
+    if (method ne null) method
+    else {
+      val method = resolveSerializedMethodRef(lambda)
+      resolved.set(method)
+      method
+    }
+  }
+
+  private def resolveSerializedMethodRef(lambda: Any): Method = {
     val lambdaType = lambda.getClass
 
     if (!classOf[java.io.Serializable].isInstance(lambda)) {
@@ -25,8 +25,7 @@ import kalix.javasdk.impl.CommandHandler
 import kalix.javasdk.impl.InvocationContext
 import kalix.javasdk.impl.JsonMessageCodec
 import kalix.javasdk.impl.MethodInvoker
-
-import java.lang.reflect.ParameterizedType
+import kalix.javasdk.impl.Reflect
 
 class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedEntity[S, E]](
     override protected val entity: ES,
@@ -34,6 +33,13 @@ class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedEntity[S, E]](
     eventHandlerMethods: Map[String, MethodInvoker],
     messageCodec: JsonMessageCodec)
     extends EventSourcedEntityRouter[S, E, ES](entity) {
+  import ReflectiveEventSourcedEntityRouter.stateTypes
+
+  private val entityStateType: Class[S] = stateTypes.get(entity.getClass).asInstanceOf[Class[S]]
+
+  // the last state received from the proxy and its decoded value
+  private var decodedStateSource: ScalaPbAny = _
+  private var decodedState: S = _
 
   private def commandHandlerLookup(commandName: String) =
     commandHandlers.getOrElse(
@@ -61,8 +67,8 @@ class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedEntity[S, E]](
       case _ => // processing runtime event coming from memory
         val typeName = messageCodec.typeUrlFor(event.getClass)
 
-        eventHandlerLookup(typeName).method
-          .invoke(entity, event.asInstanceOf[event.type])
+        eventHandlerLookup(typeName)
+          .invokeDirectly(entity, event.asInstanceOf[AnyRef])
           .asInstanceOf[S]
     }
   }
@@ -91,26 +97,29 @@ class ReflectiveEventSourcedEntityRouter[S, E, ES <: EventSourcedEntity[S, E]](
       .asInstanceOf[EventSourcedEntity.Effect[_]]
   }
 
-  private def _extractAndSetCurrentState(state: S): Unit = {
-    val entityStateType: Class[S] =
-      this.entity.getClass.getGenericSuperclass
-        .asInstanceOf[ParameterizedType]
-        .getActualTypeArguments
-        .head
-        .asInstanceOf[Class[S]]
-
+  private def _extractAndSetCurrentState(state: S): Unit =
     // the state: S received can either be of the entity "state" type (if coming from emptyState/memory)
     // or PB Any type (if coming from the proxy)
     state match {
-      case s if s == null || state.getClass == entityStateType =>
+      case s: ScalaPbAny =>
+        // a state from the proxy stays the same until the entity changes it, so it is only decoded once, relying on
+        // the state not being mutated in place as documented on currentState()
+        if (s ne decodedStateSource) {
+          decodedState = JsonSupport.decodeJson(entityStateType, ScalaPbAny.toJavaProto(s))
+          decodedStateSource = s
+        }
+        entity._internalSetCurrentState(decodedState)
+      case s =>
         // note that we set the state even if null, this is needed in order to
         // be able to call currentState() later
         entity._internalSetCurrentState(s)
-      case s =>
-        val deserializedState =
-          JsonSupport.decodeJson(entityStateType, ScalaPbAny.toJavaProto(s.asInstanceOf[ScalaPbAny]))
-        entity._internalSetCurrentState(deserializedState)
     }
+}
+
+object ReflectiveEventSourcedEntityRouter {
+  private val stateTypes = new ClassValue[Class[_]] {
+    override def computeValue(entityClass: Class[_]): Class[_] =
+      Reflect.superclassTypeArgument(entityClass, classOf[EventSourcedEntity[_, _]], 0)
   }
 }
 
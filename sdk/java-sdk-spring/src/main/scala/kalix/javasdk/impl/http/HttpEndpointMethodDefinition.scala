@@ -19,7 +19,6 @@ package kalix.javasdk.impl.http
 import java.net.URLDecoder
 import java.nio.charset.StandardCharsets.UTF_8
 import java.util
-import java.util.regex.Matcher
 
 import scala.annotation.tailrec
 import scala.jdk.CollectionConverters._
@@ -71,7 +70,8 @@ object HttpEndpointMethodDefinition {
 
   // For descriptive purposes so it's clear what these types do
   private type PathParameterEffect = (FieldDescriptor, Option[Any]) => Unit
-  private type ExtractPathParameters = (Matcher, PathParameterEffect) => Unit
+  // the path and the start and end offsets of the variables of the path template in it
+  private type ExtractPathParameters = (String, Array[Int], PathParameterEffect) => Unit
 
   // This is used to support the "*" custom pattern
   val ANY_METHOD = HttpMethod.custom(
@@ -276,9 +276,9 @@ object HttpEndpointMethodDefinition {
 
     (
       template,
-      (matcher, effect) => {
+      (path, captures, effect) => {
         pathFieldParsers.foreach { case ((_, field, parser), idx) =>
-          val rawValue = matcher.group(idx + 1)
+          val rawValue = path.substring(captures(idx * 2), captures(idx * 2 + 1))
           // When encoding, we need to be careful to only encode / if it's a single segment variable. But when
           // decoding, it doesn't matter, we decode %2F if it's there regardless.
           val decoded = URLDecoder.decode(rawValue, UTF_8)
@@ -325,15 +325,8 @@ final case class HttpEndpointMethodDefinition private (
     bodyDescriptor: Descriptor,
     responseBodyDescriptor: Option[FieldDescriptor]) {
 
-  // Making this a method so we can ensure it's used the same way
-  private def pathMatcher(path: String): Matcher =
-    pathTemplate.regex.pattern
-      .matcher(
-        path
-      ) // FIXME path.toString is costly, and using Regexes are too, switch to using a generated parser instead
-
   def matches(path: String): Boolean =
-    pathMatcher(path).matches()
+    pathTemplate.matcher.matches(path)
 
   private def lookupRequestFieldByPath(selector: String): Descriptors.FieldDescriptor =
     HttpEndpointMethodDefinition.lookupFieldByPath(methodDescriptor.getInputType, selector)
@@ -368,10 +361,12 @@ final case class HttpEndpointMethodDefinition private (
   }
 
   def parsePathParametersInto(path: String, inputBuilder: DynamicMessage.Builder): Unit = {
-    val matcher = pathMatcher(path)
-    matcher.find()
+    val captures = new Array[Int](pathTemplate.matcher.variableCount * 2)
+    if (!pathTemplate.matcher.matchPath(path, captures))
+      throw new IllegalArgumentException(s"Path [$path] does not match [${pathTemplate.path}]")
     pathExtractor(
-      matcher,
+      path,
+      captures,
       (field, value) =>
         inputBuilder.setField(
           field,
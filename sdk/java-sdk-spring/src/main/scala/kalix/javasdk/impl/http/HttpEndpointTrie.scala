@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.http
+
+import scala.collection.mutable
+
+import akka.http.scaladsl.model.HttpMethod
+import kalix.javasdk.impl.http.HttpEndpointMethodDefinition.ANY_METHOD
+
+/**
+ * INTERNAL API
+ *
+ * Finds the endpoint matching a request by walking a trie of path segments, built from the path templates of the
+ * endpoints, instead of matching the path against the regex of every endpoint. Only the few endpoints that the trie
+ * leads to are matched against their regex, in the order they were registered, so the first registered endpoint
+ * matching the path wins just like when trying all of them.
+ */
+private[kalix] final class HttpEndpointTrie private (
+    byMethod: Map[HttpMethod, HttpEndpointTrie.Node],
+    anyMethod: HttpEndpointTrie.Node) {
+  import HttpEndpointTrie._
+
+  def find(httpMethod: HttpMethod, path: String): Option[HttpEndpointMethodDefinition] =
+    if (path.isEmpty || path.charAt(0) != '/') None
+    else {
+      val segments = path.substring(1).split("/", -1)
+      val candidates = mutable.ArrayBuffer.empty[Candidate]
+      byMethod.get(httpMethod).foreach(_.collect(segments, 0, candidates))
+      anyMethod.collect(segments, 0, candidates)
+      candidates.sortInPlaceBy(_.order).collectFirst {
+        case candidate if candidate.endpoint.matches(path) => candidate.endpoint
+      }
+    }
+}
+
+private[kalix] object HttpEndpointTrie {
+
+  val empty: HttpEndpointTrie = apply(Seq.empty)
+
+  def apply(endpoints: Seq[HttpEndpointMethodDefinition]): HttpEndpointTrie = {
+    val byMethod = mutable.Map.empty[HttpMethod, Node]
+    val anyMethod = new Node
+    endpoints.zipWithIndex.foreach { case (endpoint, order) =>
+      val root =
+        if (endpoint.methodPattern == ANY_METHOD) anyMethod
+        else byMethod.getOrElseUpdate(endpoint.methodPattern, new Node)
+      root.add(endpoint.pathTemplate.singleSegments, Candidate(order, endpoint))
+    }
+    new HttpEndpointTrie(byMethod.toMap, anyMethod)
+  }
+
+  private final case class Candidate(order: Int, endpoint: HttpEndpointMethodDefinition)
+
+  private final class Node {
+    private val literals = mutable.HashMap.empty[String, Node]
+    private var anySegment: Node = _
+    // endpoints whose template ends at this node
+    private val complete = mutable.ArrayBuffer.empty[Candidate]
+    // endpoints whose template matches more segments after this node, that the trie doesn't look into
+    private val prefixed = mutable.ArrayBuffer.empty[Candidate]
+
+    def add(segments: List[Option[String]], candidate: Candidate): Unit =
+      segments match {
+        case Nil =>
+          if (candidate.endpoint.pathTemplate.matchesMoreSegments) prefixed += candidate
+          else complete += candidate
+        case Some(literal) :: tail =>
+          literals.getOrElseUpdate(literal, new Node).add(tail, candidate)
+        case None :: tail =>
+          if (anySegment eq null) anySegment = new Node
+          anySegment.add(tail, candidate)
+      }
+
+    def collect(segments: Array[String], index: Int, candidates: mutable.ArrayBuffer[Candidate]): Unit = {
+      candidates ++= prefixed
+      if (index == segments.length) candidates ++= complete
+      else {
+        literals.get(segments(index)).foreach(_.collect(segments, index + 1, candidates))
+        if (anySegment ne null) anySegment.collect(segments, index + 1, candidates)
+      }
+    }
+  }
+}
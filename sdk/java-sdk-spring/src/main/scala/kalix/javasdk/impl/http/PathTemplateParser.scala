@@ -35,7 +35,14 @@ object PathTemplateParser extends Parsers {
   override type Elem = Char
 
   final class ParsedTemplate(val path: String, template: Template) {
-    val regex: Regex = {
+
+    /**
+     * Matches paths against the template and captures the values of its variables, without regexes.
+     */
+    val matcher: PathMatcher = compile(template)
+
+    // only used to check that the matcher and the regex agree
+    lazy val regex: Regex = {
       def doToRegex(
           builder: mutable.StringBuilder,
           segments: List[Segment],
@@ -75,6 +82,30 @@ object PathTemplateParser extends Parsers {
         .r
     }
 
+    /**
+     * The leading segments of the template that each match exactly one path segment, `Some` literal for a literal
+     * segment and `None` for a segment matching any value. Used to narrow down the templates a path can match before
+     * matching it against the regex.
+     */
+    val singleSegments: List[Option[String]] = {
+      def matchesOneSegment(segment: Segment): Option[Option[String]] =
+        segment match {
+          case LiteralSegment(literal)                       => Some(Some(literal))
+          case SingleSegmentMatcher                          => Some(None)
+          case VariableSegment(_, None)                      => Some(None)
+          case VariableSegment(_, Some(nested :: Nil))       => matchesOneSegment(nested).map(_ => None)
+          case VariableSegment(_, _) | MultiSegmentMatcher() => None
+        }
+      val leading = template.segments.iterator.map(matchesOneSegment).takeWhile(_.isDefined).map(_.get).toList
+      // a verb is part of the last segment, so that segment can't be matched on its own
+      if (template.verb.isDefined && leading.size == template.segments.size) leading.dropRight(1) else leading
+    }
+
+    /**
+     * If the template matches more path segments than [[singleSegments]], or segments with a verb.
+     */
+    val matchesMoreSegments: Boolean = singleSegments.size != template.segments.size
+
     val fields: List[TemplateVariable] = {
       var found = Set.empty[List[String]]
       template.segments.collect {
@@ -94,6 +125,98 @@ object PathTemplateParser extends Parsers {
 
   final case class TemplateVariable(fieldPath: List[String], multi: Boolean)
 
+  /**
+   * Matches a path the same way as the regex of the template, by running through steps compiled from the template. No
+   * step needs to backtrack: variables and single segment matchers stop at the next `/` or `:`, and a multi segment
+   * matcher can only be followed by the verb, so it extends to the verb at the end of the path.
+   *
+   * Variables are captured as start and end offsets into the path, in the order of [[ParsedTemplate.fields]].
+   */
+  final class PathMatcher private[PathTemplateParser] (steps: Array[MatchStep], val variableCount: Int) {
+
+    def matches(path: String): Boolean = matchPath(path, null)
+
+    /**
+     * @param captures
+     *   if not null, filled with the start and end offset in the path of each variable, needs to be twice the size of
+     *   the number of variables
+     * @return
+     *   true if the whole path matches the template
+     */
+    def matchPath(path: String, captures: Array[Int]): Boolean = {
+      val length = path.length
+      var pos = 0
+      var i = 0
+      while (i < steps.length) {
+        steps(i) match {
+          case MatchLiteral(literal) =>
+            if (!path.startsWith(literal, pos)) return false
+            pos += literal.length
+          case MatchSingleSegment =>
+            while (pos < length && path.charAt(pos) != '/' && path.charAt(pos) != ':') pos += 1
+          case MatchRest(suffixLength) =>
+            val end = length - suffixLength
+            if (end < pos) return false
+            while (pos < end) {
+              // like . in a regex, anything but line terminators
+              val c = path.charAt(pos)
+              if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') return false
+              pos += 1
+            }
+          case StartVariable(index) =>
+            if (captures ne null) captures(index * 2) = pos
+          case EndVariable(index) =>
+            if (captures ne null) captures(index * 2 + 1) = pos
+        }
+        i += 1
+      }
+      pos == length
+    }
+  }
+
+  private[http] sealed trait MatchStep
+  private final case class MatchLiteral(literal: String) extends MatchStep
+  private case object MatchSingleSegment extends MatchStep
+  private final case class MatchRest(suffixLength: Int) extends MatchStep
+  private final case class StartVariable(index: Int) extends MatchStep
+  private final case class EndVariable(index: Int) extends MatchStep
+
+  private def compile(template: Template): PathMatcher = {
+    val steps = mutable.ArrayBuffer.empty[MatchStep]
+    var variableCount = 0
+    // the verb is the only thing that can follow a multi segment matcher
+    val verbLength = template.verb.fold(0)(_.length + 1)
+
+    def addLiteral(literal: String): Unit =
+      steps.lastOption match {
+        case Some(MatchLiteral(previous)) => steps(steps.size - 1) = MatchLiteral(previous + literal)
+        case _                            => steps += MatchLiteral(literal)
+      }
+
+    def addSegments(segments: Segments, slashFirst: Boolean): Unit =
+      segments.zipWithIndex.foreach { case (segment, idx) =>
+        if (slashFirst || idx > 0) addLiteral("/")
+        segment match {
+          case LiteralSegment(literal) => addLiteral(literal)
+          case SingleSegmentMatcher    => steps += MatchSingleSegment
+          case MultiSegmentMatcher()   => steps += MatchRest(verbLength)
+          case VariableSegment(_, nested) =>
+            val index = variableCount
+            variableCount += 1
+            steps += StartVariable(index)
+            nested match {
+              case None           => steps += MatchSingleSegment
+              case Some(segments) => addSegments(segments, slashFirst = false)
+            }
+            steps += EndVariable(index)
+        }
+      }
+
+    addSegments(template.segments, slashFirst = true)
+    template.verb.foreach(verb => addLiteral(":" + verb))
+    new PathMatcher(steps.toArray, variableCount)
+  }
+
   @nowarn("msg=match may not be exhaustive") // for NoSuccess unapply
   final def parse(path: String): ParsedTemplate =
     template(new CharSequenceReader(path)) match {
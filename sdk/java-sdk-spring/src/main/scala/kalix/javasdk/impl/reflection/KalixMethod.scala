@@ -21,6 +21,7 @@ import scala.annotation.tailrec
 import com.google.protobuf.Descriptors
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import kalix.javasdk.impl.AclDescriptorFactory
+import kalix.javasdk.impl.InvocationContext
 import kalix.javasdk.impl.path.PathPattern
 import kalix.javasdk.impl.path.PathPatternParser
 import kalix.javasdk.impl.reflection.RestServiceIntrospector.PathParameter
@@ -296,7 +297,7 @@ case class KalixMethod private (
 }
 
 trait ExtractorCreator {
-  def apply(descriptor: Descriptors.Descriptor): ParameterExtractor[DynamicMessageContext, AnyRef]
+  def apply(descriptor: Descriptors.Descriptor): ParameterExtractor[InvocationContext, AnyRef]
 }
 
 /**
@@ -23,11 +23,13 @@ import scala.jdk.OptionConverters._
 import com.google.protobuf.ByteString
 import com.google.protobuf.Descriptors
 import com.google.protobuf.DynamicMessage
+import com.google.protobuf.any.{ Any => ScalaPbAny }
 import com.google.protobuf.{ Any => JavaPbAny }
 import kalix.javasdk.JsonSupport
 import kalix.javasdk.Metadata
 import kalix.javasdk.impl.AnySupport
 import kalix.javasdk.impl.ErrorHandling.BadRequestException
+import kalix.javasdk.impl.JsonTypeRegistry
 
 /**
  * Extracts method parameters from an invocation context for the purpose of passing them to a reflective invocation call
@@ -44,8 +46,18 @@ trait DynamicMessageContext {
   def message: DynamicMessage
 }
 
+trait PayloadContext {
+  def payload: ScalaPbAny
+}
+
 object ParameterExtractors {
 
+  // json_body is always field 1 of a synthetic request, type_url and value are fields 1 and 2 of an Any,
+  // all of them length delimited
+  private val JsonBodyTag = 10
+  private val AnyTypeUrlTag = 10
+  private val AnyValueTag = 18
+
   private def toAny(dm: DynamicMessage) = {
     val bytes = dm.getField(JavaPbAny.getDescriptor.findFieldByName("value")).asInstanceOf[ByteString]
     val typeUrl = dm.getField(JavaPbAny.getDescriptor.findFieldByName("type_url")).asInstanceOf[String]
@@ -88,6 +100,44 @@ object ParameterExtractors {
     }
   }
 
+  /**
+   * Extracts the body of a synthetic request straight from the request bytes, for methods where the body is the only
+   * parameter. Only the body field is read, the request is never parsed into a DynamicMessage.
+   */
+  class RequestBodyOnlyExtractor[T](cls: Class[_]) extends ParameterExtractor[PayloadContext, T] {
+
+    override def extract(context: PayloadContext): T = {
+      val input = context.payload.value.newCodedInput()
+      // the body bytes are slices of the payload rather than copies
+      input.enableAliasing(true)
+      var typeUrl = ""
+      var value = ByteString.EMPTY
+      var tag = input.readTag()
+      while (tag != 0) {
+        if (tag == JsonBodyTag) {
+          // like protobuf does, the last value of each field wins if the body is present more than once
+          val limit = input.pushLimit(input.readRawVarint32())
+          var anyTag = input.readTag()
+          while (anyTag != 0) {
+            if (anyTag == AnyTypeUrlTag) typeUrl = input.readStringRequireUtf8()
+            else if (anyTag == AnyValueTag) value = input.readBytes()
+            else input.skipField(anyTag)
+            anyTag = input.readTag()
+          }
+          input.popLimit(limit)
+        } else {
+          input.skipField(tag)
+        }
+        tag = input.readTag()
+      }
+
+      if (cls == classOf[Array[Byte]])
+        AnySupport.decodePrimitiveBytes(value).toByteArray.asInstanceOf[T]
+      else
+        JsonTypeRegistry.lookup(cls).decode(typeUrl, value).asInstanceOf[T]
+    }
+  }
+
   class CollectionBodyExtractor[T, C <: java.util.Collection[T]](
       field: Descriptors.FieldDescriptor,
       cls: Class[T],
@@ -16,12 +16,11 @@
 
 package kalix.javasdk.impl.valueentity
 
-import java.lang.reflect.ParameterizedType
-
 import com.google.protobuf.any.{ Any => ScalaPbAny }
 import kalix.javasdk.JsonSupport
 import kalix.javasdk.impl.CommandHandler
 import kalix.javasdk.impl.InvocationContext
+import kalix.javasdk.impl.Reflect
 import kalix.javasdk.valueentity.CommandContext
 import kalix.javasdk.valueentity.ValueEntity
 
@@ -29,6 +28,13 @@ class ReflectiveValueEntityRouter[S, E <: ValueEntity[S]](
     override protected val entity: E,
     commandHandlers: Map[String, CommandHandler])
     extends ValueEntityRouter[S, E](entity) {
+  import ReflectiveValueEntityRouter.stateTypes
+
+  private val entityStateType: Class[S] = stateTypes.get(entity.getClass).asInstanceOf[Class[S]]
+
+  // the last state received from the proxy and its decoded value
+  private var decodedStateSource: ScalaPbAny = _
+  private var decodedState: S = _
 
   private def commandHandlerLookup(commandName: String) =
     commandHandlers.getOrElse(commandName, throw new RuntimeException(s"no matching method for '$commandName'"))
@@ -56,25 +62,28 @@ class ReflectiveValueEntityRouter[S, E <: ValueEntity[S]](
       .asInstanceOf[ValueEntity.Effect[_]]
   }
 
-  private def _extractAndSetCurrentState(state: S): Unit = {
-    val entityStateType: Class[S] =
-      this.entity.getClass.getGenericSuperclass
-        .asInstanceOf[ParameterizedType]
-        .getActualTypeArguments
-        .head
-        .asInstanceOf[Class[S]]
-
+  private def _extractAndSetCurrentState(state: S): Unit =
     // the state: S received can either be of the entity "state" type (if coming from emptyState/memory)
     // or PB Any type (if coming from the proxy)
     state match {
-      case s if s == null || state.getClass == entityStateType =>
+      case s: ScalaPbAny =>
+        // a state from the proxy stays the same until the entity changes it, so it is only decoded once, relying on
+        // the state not being mutated in place as documented on currentState()
+        if (s ne decodedStateSource) {
+          decodedState = JsonSupport.decodeJson(entityStateType, ScalaPbAny.toJavaProto(s))
+          decodedStateSource = s
+        }
+        entity._internalSetCurrentState(decodedState)
+      case s =>
         // note that we set the state even if null, this is needed in order to
         // be able to call currentState() later
         entity._internalSetCurrentState(s)
-      case s =>
-        val deserializedState =
-          JsonSupport.decodeJson(entityStateType, ScalaPbAny.toJavaProto(s.asInstanceOf[ScalaPbAny]))
-        entity._internalSetCurrentState(deserializedState)
     }
+}
+
+object ReflectiveValueEntityRouter {
+  private val stateTypes = new ClassValue[Class[_]] {
+    override def computeValue(entityClass: Class[_]): Class[_] =
+      Reflect.superclassTypeArgument(entityClass, classOf[ValueEntity[_]], 0)
   }
 }
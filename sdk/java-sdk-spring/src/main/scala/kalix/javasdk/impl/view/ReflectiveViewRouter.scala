@@ -16,7 +16,6 @@
 
 package kalix.javasdk.impl.view
 
-import java.lang.reflect.ParameterizedType
 import java.util.{ Map => JMap }
 
 import scala.jdk.CollectionConverters._
@@ -27,6 +26,7 @@ import kalix.javasdk.impl.AnySupport.ProtobufEmptyTypeUrl
 import kalix.javasdk.impl.CommandHandler
 import kalix.javasdk.impl.ComponentDescriptorFactory
 import kalix.javasdk.impl.InvocationContext
+import kalix.javasdk.impl.Reflect
 import kalix.javasdk.view.View
 
 class ReflectiveViewRouter[S, V <: View[S]](
@@ -35,29 +35,23 @@ class ReflectiveViewRouter[S, V <: View[S]](
     ignoreUnknown: Boolean)
     extends ViewRouter[S, V](view) {
 
+  private val viewStateType: Class[S] = ReflectiveViewRouter.stateTypes.get(view.getClass).asInstanceOf[Class[S]]
+
   private def commandHandlerLookup(commandName: String) =
     commandHandlers.getOrElse(commandName, throw new RuntimeException(s"no matching method for '$commandName'"))
 
   override def handleUpdate(commandName: String, state: S, event: Any): View.UpdateEffect[S] = {
 
-    val viewStateType: Class[S] =
-      this.view.getClass.getGenericSuperclass
-        .asInstanceOf[ParameterizedType]
-        .getActualTypeArguments
-        .head
-        .asInstanceOf[Class[S]]
-
     // the state: S received can either be of the view "state" type (if coming from emptyState)
     // or PB Any type (if coming from the proxy)
     state match {
-      case s if s == null || state.getClass == viewStateType =>
+      case s: ScalaPbAny =>
+        val deserializedState = JsonSupport.decodeJson(viewStateType, ScalaPbAny.toJavaProto(s))
+        view._internalSetViewState(deserializedState)
+      case s =>
         // note that we set the state even if null, this is needed in order to
         // be able to call viewState() later
         view._internalSetViewState(s)
-      case s =>
-        val deserializedState =
-          JsonSupport.decodeJson(viewStateType, ScalaPbAny.toJavaProto(s.asInstanceOf[ScalaPbAny]))
-        view._internalSetViewState(deserializedState)
     }
 
     val commandHandler = commandHandlerLookup(commandName)
@@ -88,6 +82,14 @@ class ReflectiveViewRouter[S, V <: View[S]](
 
 }
 
+object ReflectiveViewRouter {
+  // routers are created for each update, so the state type is resolved once per view class rather than per router
+  private val stateTypes = new ClassValue[Class[_]] {
+    override def computeValue(viewClass: Class[_]): Class[_] =
+      Reflect.superclassTypeArgument(viewClass, classOf[View[_]], 0)
+  }
+}
+
 class ReflectiveViewMultiTableRouter(
     viewTables: JMap[Class[View[_]], View[_]],
     commandHandlers: Map[String, CommandHandler])
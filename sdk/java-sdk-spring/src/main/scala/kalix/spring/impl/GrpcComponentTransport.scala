@@ -0,0 +1,222 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.spring.impl
+
+import java.io.InputStream
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+import scala.util.control.NonFatal
+
+import akka.actor.ActorSystem
+import akka.actor.ClassicActorSystemProvider
+import akka.actor.ExtendedActorSystem
+import akka.actor.Extension
+import akka.actor.ExtensionId
+import akka.actor.ExtensionIdProvider
+import akka.annotation.InternalApi
+import com.google.protobuf.ByteString
+import com.google.protobuf.Descriptors
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import io.grpc.CallOptions
+import io.grpc.ClientCall
+import io.grpc.ManagedChannel
+import io.grpc.ManagedChannelBuilder
+import io.grpc.MethodDescriptor
+import io.grpc.Status
+import io.grpc.{ Metadata => GrpcMetadata }
+import kalix.javasdk.DeferredCallResponseException
+import kalix.javasdk.JsonSupport
+import kalix.javasdk.Metadata
+import kalix.javasdk.impl.ProxyInfoHolder
+import kalix.javasdk.impl.StatusCodeConverter
+import kalix.javasdk.impl.http.HttpEndpointMethodDefinition
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[kalix] object GrpcComponentTransport extends ExtensionId[GrpcComponentTransport] with ExtensionIdProvider {
+  override def get(system: ActorSystem): GrpcComponentTransport = super.get(system)
+
+  override def get(system: ClassicActorSystemProvider): GrpcComponentTransport = super.get(system)
+
+  override def createExtension(system: ExtendedActorSystem): GrpcComponentTransport =
+    new GrpcComponentTransport(system, () => proxyChannel(system))
+  override def lookup: ExtensionId[_ <: Extension] = this
+
+  private def proxyChannel(system: ExtendedActorSystem): ManagedChannel =
+    (ProxyInfoHolder(system).proxyHostname, ProxyInfoHolder(system).proxyPort) match {
+      case (Some(host), Some(port)) =>
+        ManagedChannelBuilder
+          .forAddress(host, port)
+          // (TLS is handled for us by Kalix infra)
+          .usePlaintext()
+          .maxInboundMessageSize(system.settings.config.getBytes("kalix.cross-service.max-content-length").toInt)
+          .executor(system.dispatcher)
+          .build()
+      case _ =>
+        throw new IllegalStateException(
+          "Service proxy hostname and/or port are not set by proxy at discovery, too old proxy version?")
+    }
+
+  /**
+   * @return
+   *   the key for a text header, or None for the keys gRPC does not accept for text, binary `-bin` keys, pseudo-headers
+   *   and keys with characters not allowed in header names
+   */
+  private def textKey(key: String): Option[GrpcMetadata.Key[String]] =
+    if (key.endsWith(GrpcMetadata.BINARY_HEADER_SUFFIX) || key.startsWith(":")) None
+    else
+      try Some(GrpcMetadata.Key.of(key, GrpcMetadata.ASCII_STRING_MARSHALLER))
+      catch {
+        case _: IllegalArgumentException => None
+      }
+
+  /** The request is the already serialized synthetic request message of the component method */
+  private object RequestMarshaller extends MethodDescriptor.Marshaller[ByteString] {
+    override def stream(value: ByteString): InputStream = value.newInput()
+    override def parse(stream: InputStream): ByteString = ByteString.readFrom(stream)
+  }
+
+  private object ResponseMarshaller extends MethodDescriptor.Marshaller[JavaPbAny] {
+    override def stream(value: JavaPbAny): InputStream = value.toByteString.newInput()
+    override def parse(stream: InputStream): JavaPbAny = JavaPbAny.parseFrom(stream)
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Sends component client calls as unary gRPC calls to the Kalix Runtime, instead of JSON over HTTP. The request is the
+ * protobuf message already built for the call, and all calls are multiplexed over one HTTP/2 channel.
+ *
+ * Enabled with `kalix.cross-service.component-client-transport = grpc`.
+ */
+@InternalApi
+private[kalix] final class GrpcComponentTransport(system: ExtendedActorSystem, createChannel: () => ManagedChannel)
+    extends Extension {
+  import GrpcComponentTransport._
+
+  private val proxyInfoHolder = ProxyInfoHolder(system)
+
+  val enabled: Boolean =
+    system.settings.config.getString("kalix.cross-service.component-client-transport") match {
+      case "grpc" => true
+      case "rest" => false
+      case other =>
+        throw new IllegalArgumentException(
+          s"Unknown kalix.cross-service.component-client-transport [$other], must be either [rest] or [grpc]")
+    }
+
+  // the same timeout as for calls over REST, applied as a deadline on each call
+  private val responseTimeout =
+    CrossServiceHttpClientSettings(system.settings.config.getConfig("kalix.cross-service.http-client")).responseTimeout
+
+  private val grpcMethods = new ConcurrentHashMap[Descriptors.MethodDescriptor, MethodDescriptor[ByteString, JavaPbAny]]
+
+  // created on first use, the proxy address is only known after discovery
+  private lazy val channel: ManagedChannel = {
+    val channel = createChannel()
+    system.registerOnTermination(channel.shutdown())
+    channel
+  }
+
+  /**
+   * Only methods replying with a JSON payload in a protobuf Any are called over gRPC, the others, returning raw bytes,
+   * stay on the REST transport.
+   */
+  def supports(httpDef: HttpEndpointMethodDefinition): Boolean =
+    enabled && httpDef.methodDescriptor.getOutputType.getFullName == JavaPbAny.getDescriptor.getFullName
+
+  def call[R](
+      httpDef: HttpEndpointMethodDefinition,
+      message: ScalaPbAny,
+      metadata: Metadata,
+      returnType: Class[R]): CompletionStage[R] = {
+    val result = new CompletableFuture[R]()
+    val callOptions = responseTimeout match {
+      case Some(timeout) => CallOptions.DEFAULT.withDeadlineAfter(timeout.toNanos, TimeUnit.NANOSECONDS)
+      case None          => CallOptions.DEFAULT
+    }
+    // failures to start the call, such as the channel not being available before discovery, fail the result
+    try {
+      val call = channel.newCall(grpcMethod(httpDef.methodDescriptor), callOptions)
+      call.start(
+        new ClientCall.Listener[JavaPbAny] {
+          private var response: JavaPbAny = _
+
+          override def onMessage(message: JavaPbAny): Unit =
+            response = message
+
+          override def onClose(status: Status, trailers: GrpcMetadata): Unit =
+            if (!status.isOk) {
+              result.completeExceptionally(
+                DeferredCallResponseException(
+                  // the description is optional, status codes alone come without one
+                  Option(status.getDescription).getOrElse(status.getCode.toString),
+                  StatusCodeConverter.fromGrpcCode(status.getCode),
+                  status.asRuntimeException(trailers)))
+            } else if (response eq null) {
+              result.completeExceptionally(
+                new IllegalStateException(s"No response received from [${httpDef.methodDescriptor.getFullName}]"))
+            } else {
+              try result.complete(JsonSupport.decodeJson(returnType, response))
+              catch {
+                case NonFatal(e) => result.completeExceptionally(e)
+              }
+            }
+        },
+        headers(metadata))
+      call.sendMessage(message.value)
+      call.halfClose()
+      // one more than the expected response, like the io.grpc stubs, so that a misbehaving server is detected
+      call.request(2)
+    } catch {
+      case NonFatal(e) => result.completeExceptionally(e)
+    }
+
+    result
+  }
+
+  private def grpcMethod(methodDescriptor: Descriptors.MethodDescriptor): MethodDescriptor[ByteString, JavaPbAny] =
+    grpcMethods.computeIfAbsent(
+      methodDescriptor,
+      method =>
+        MethodDescriptor
+          .newBuilder[ByteString, JavaPbAny]()
+          .setType(MethodDescriptor.MethodType.UNARY)
+          .setFullMethodName(MethodDescriptor.generateFullMethodName(method.getService.getFullName, method.getName))
+          .setRequestMarshaller(RequestMarshaller)
+          .setResponseMarshaller(ResponseMarshaller)
+          .build())
+
+  private def headers(metadata: Metadata): GrpcMetadata = {
+    val headers = new GrpcMetadata()
+    proxyInfoHolder.localIdentificationHeader.foreach { case (key, value) =>
+      textKey(key).foreach(headers.put(_, value))
+    }
+    // like the REST transport, only text entries are passed on
+    metadata.forEach(entry =>
+      if (entry.isText)
+        textKey(entry.getKey).foreach(headers.put(_, entry.getValue)))
+    headers
+  }
+}
@@ -311,6 +311,7 @@ case class KalixSpringApplication(applicationContext: ApplicationContext, config
 
   private def componentClient(context: Context): ComponentClient = {
     kalixClient.setWebClient(webClientProvider(context).localWebClient)
+    kalixClient.setGrpcTransport(GrpcComponentTransport(context.materializer().system))
     componentClient
   }
 
@@ -43,6 +43,7 @@ import kalix.javasdk.impl.MetadataImpl
 import kalix.javasdk.impl.RestDeferredCall
 import kalix.javasdk.impl.http.HttpEndpointMethodDefinition
 import kalix.javasdk.impl.http.HttpEndpointMethodDefinition.ANY_METHOD
+import kalix.javasdk.impl.http.HttpEndpointTrie
 import kalix.spring.KalixClient
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
@@ -60,6 +61,9 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
   private val logger: Logger = LoggerFactory.getLogger(getClass)
 
   private var services: Seq[HttpEndpointMethodDefinition] = Seq.empty
+  // rebuilt from the services when a component is registered, which happens before any calls are made
+  @volatile private var endpointTrie: HttpEndpointTrie = HttpEndpointTrie.empty
+  @volatile private var templateEndpoints: Map[(HttpMethod, String), HttpEndpointMethodDefinition] = Map.empty
 
   // At the time of creation, Proxy Discovery has not happened yet
   // and we need the ProxyInfo to build the WebClient, so we need a Promise[WebClient]
@@ -71,8 +75,17 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
 
   private val webClient: Future[WebClient] = promisedWebClient.future
 
+  // component calls go through gRPC instead of the WebClient when the transport is set and enabled
+  @volatile private var grpcTransport: Option[GrpcComponentTransport] = None
+
+  def setGrpcTransport(transport: GrpcComponentTransport): Unit =
+    if (transport.enabled) grpcTransport = Some(transport)
+
   def registerComponent(descriptor: Descriptors.ServiceDescriptor): Unit = {
     services ++= HttpEndpointMethodDefinition.extractForService(descriptor)
+    endpointTrie = HttpEndpointTrie(services)
+    // the first registered endpoint for a template wins, like when matching paths
+    templateEndpoints = services.reverseIterator.map(d => (d.methodPattern, d.pathTemplate.path) -> d).toMap
   }
 
   private def buildWrappedBody[P](
@@ -281,12 +294,13 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
       queryParams: Map[String, util.List[scala.Any]],
       returnType: Class[R]): RestDeferredCall[Any, R] = {
 
-    matchMethodOrThrow(httpMethod, pathTemplate) { httpDef =>
+    matchTemplateOrThrow(httpMethod, pathTemplate) { httpDef =>
       typedRequestToRestDefCall(
         pathVariables,
         queryParams,
         None,
         httpDef,
+        returnType,
         (metadata: Metadata) =>
           webClient.flatMap { client =>
 
@@ -313,12 +327,13 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
       body: Option[P],
       returnType: Class[R]): RestDeferredCall[Any, R] = {
 
-    matchMethodOrThrow(httpMethod, pathTemplate) { httpDef =>
+    matchTemplateOrThrow(httpMethod, pathTemplate) { httpDef =>
       typedRequestToRestDefCall(
         pathVariables,
         queryParams,
         body,
         httpDef,
+        returnType,
         (metadata: Metadata) =>
           webClient.flatMap { client =>
             val requestBodySpec = requestBodyUriSpec(client, httpMethod)
@@ -359,6 +374,7 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
       queryParams: Map[String, util.List[scala.Any]],
       body: Option[P],
       httpDef: HttpEndpointMethodDefinition,
+      returnType: Class[R],
       asyncCall: Metadata => CompletionStage[R]): RestDeferredCall[Any, R] = {
 
     val inputBuilder = DynamicMessage.newBuilder(httpDef.methodDescriptor.getInputType)
@@ -368,6 +384,23 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
 
     val wrappedBody = buildWrappedBody(httpDef, inputBuilder, body)
 
+    grpcTransport match {
+      case Some(transport) if transport.supports(httpDef) =>
+        RestDeferredCall[Any, R](
+          message = wrappedBody,
+          metadata = MetadataImpl.Empty,
+          fullServiceName = httpDef.methodDescriptor.getService.getFullName,
+          methodName = httpDef.methodDescriptor.getName,
+          asyncCall = (metadata: Metadata) => transport.call(httpDef, wrappedBody, metadata, returnType))
+      case _ =>
+        restDeferredCall(httpDef, wrappedBody, asyncCall)
+    }
+  }
+
+  private def restDeferredCall[R](
+      httpDef: HttpEndpointMethodDefinition,
+      wrappedBody: Any,
+      asyncCall: Metadata => CompletionStage[R]): RestDeferredCall[Any, R] = {
     RestDeferredCall[Any, R](
       message = wrappedBody,
       metadata = MetadataImpl.Empty,
@@ -386,14 +419,26 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
 
   private def matchMethodOrThrow[R](httpMethod: HttpMethod, path: String)(
       createDefCall: => HttpEndpointMethodDefinition => RestDeferredCall[Any, R]) = {
-    services
-      .find(d => (d.methodPattern == ANY_METHOD || httpMethod == d.methodPattern) && d.matches(path))
+    endpointTrie
+      .find(httpMethod, path)
       .map {
         createDefCall(_)
       }
       .getOrElse(throw HttpMethodNotFoundException(httpMethod, path))
   }
 
+  /**
+   * Component calls know the path template of the endpoint they call, so most of the time it can be looked up directly
+   * rather than matching the template as a path.
+   */
+  private def matchTemplateOrThrow[R](httpMethod: HttpMethod, pathTemplate: String)(
+      createDefCall: => HttpEndpointMethodDefinition => RestDeferredCall[Any, R]) = {
+    templateEndpoints.get((httpMethod, pathTemplate)).orElse(templateEndpoints.get((ANY_METHOD, pathTemplate))) match {
+      case Some(httpDef) => createDefCall(httpDef)
+      case None          => matchMethodOrThrow(httpMethod, pathTemplate)(createDefCall)
+    }
+  }
+
   private def requestToRestDefCall[P, R](
       uri: Uri,
       body: Option[P],
@@ -407,20 +452,7 @@ final class RestKalixClientImpl(messageCodec: JsonMessageCodec) extends KalixCli
 
     val wrappedBody = buildWrappedBody(httpDef, inputBuilder, body)
 
-    RestDeferredCall[Any, R](
-      message = wrappedBody,
-      metadata = MetadataImpl.Empty,
-      fullServiceName = httpDef.methodDescriptor.getService.getFullName,
-      methodName = httpDef.methodDescriptor.getName,
-      asyncCall = (metadata: Metadata) =>
-        asyncCall(metadata).exceptionally {
-          case responseException: WebClientResponseException =>
-            throw DeferredCallResponseException(
-              responseException.getMessage,
-              fromWebClientResponse(responseException),
-              responseException)
-          case other: Throwable => throw other
-        })
+    restDeferredCall(httpDef, wrappedBody, asyncCall)
   }
 
   private def fromWebClientResponse(webClientResponseException: WebClientResponseException): ErrorCode = {
@@ -16,6 +16,7 @@
 
 package kalix.spring.impl
 
+import java.time.Duration
 import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentMap
 
@@ -37,9 +38,14 @@ import kalix.javasdk.impl.ProxyInfoHolder
 import kalix.spring.WebClientProvider
 import org.springframework.http.HttpHeaders
 import org.springframework.http.MediaType
+import org.springframework.http.client.reactive.ReactorClientHttpConnector
 import org.springframework.http.codec.json.Jackson2JsonEncoder
 import org.springframework.web.reactive.function.client.ExchangeFilterFunctions
 import org.springframework.web.reactive.function.client.WebClient
+import reactor.netty.http.HttpProtocol
+import reactor.netty.http.client.HttpClient
+import reactor.netty.resources.ConnectionProvider
+import reactor.netty.resources.LoopResources
 
 /**
  * INTERNAL API
@@ -74,6 +80,41 @@ private[kalix] class WebClientProviderImpl(system: ExtendedActorSystem) extends
   private val MaxCrossServiceResponseContentLength =
     system.settings.config.getBytes("kalix.cross-service.max-content-length").toInt
 
+  private val httpClientSettings =
+    CrossServiceHttpClientSettings(system.settings.config.getConfig("kalix.cross-service.http-client"))
+
+  // one pool for all the clients, it keeps separate connections per remote host
+  private val connectionProvider: ConnectionProvider =
+    ConnectionProvider
+      .builder("kalix-cross-service")
+      .maxConnections(httpClientSettings.maxConnections)
+      .pendingAcquireMaxCount(httpClientSettings.pendingAcquireMaxCount)
+      .pendingAcquireTimeout(httpClientSettings.pendingAcquireTimeout)
+      .maxIdleTime(httpClientSettings.maxIdleTime)
+      .build()
+
+  private val loopResources: Option[LoopResources] =
+    if (httpClientSettings.eventLoopThreads > 0)
+      Some(LoopResources.create("kalix-cross-service", httpClientSettings.eventLoopThreads, true))
+    else None
+
+  system.registerOnTermination {
+    connectionProvider.dispose()
+    loopResources.foreach(_.dispose())
+  }
+
+  // the underlying client is immutable and shared by all the WebClients, only base url and headers differ
+  private val httpConnector: ReactorClientHttpConnector = {
+    // compression is what the WebClient would enable on the HttpClient it creates itself
+    val pooled = HttpClient.create(connectionProvider).compress(true)
+    val onLoop = loopResources.fold(pooled)(pooled.runOn)
+    val withProtocol =
+      if (httpClientSettings.h2cPriorKnowledge) onLoop.protocol(HttpProtocol.H2C)
+      else onLoop
+    val httpClient = httpClientSettings.responseTimeout.fold(withProtocol)(withProtocol.responseTimeout)
+    new ReactorClientHttpConnector(httpClient)
+  }
+
   override def webClientFor(host: String): WebClient = {
 
     // differently from the gRPC client, we don't need to create an extra config on the fly
@@ -111,6 +152,7 @@ private[kalix] class WebClientProviderImpl(system: ExtendedActorSystem) extends
     val builder =
       WebClient.builder
         .baseUrl(s"http://$host:$port")
+        .clientConnector(httpConnector)
         .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
         .codecs(configurer => {
           configurer.defaultCodecs.jackson2JsonEncoder(
@@ -126,3 +168,32 @@ private[kalix] class WebClientProviderImpl(system: ExtendedActorSystem) extends
 
   }
 }
+
+/**
+ * INTERNAL API
+ */
+private[kalix] final case class CrossServiceHttpClientSettings(
+    maxConnections: Int,
+    pendingAcquireMaxCount: Int,
+    pendingAcquireTimeout: Duration,
+    maxIdleTime: Duration,
+    responseTimeout: Option[Duration],
+    h2cPriorKnowledge: Boolean,
+    eventLoopThreads: Int)
+
+/**
+ * INTERNAL API
+ */
+private[kalix] object CrossServiceHttpClientSettings {
+  def apply(config: Config): CrossServiceHttpClientSettings =
+    CrossServiceHttpClientSettings(
+      maxConnections = config.getInt("max-connections"),
+      pendingAcquireMaxCount = config.getInt("pending-acquire-max-count"),
+      pendingAcquireTimeout = config.getDuration("pending-acquire-timeout"),
+      maxIdleTime = config.getDuration("max-idle-time"),
+      responseTimeout =
+        if (config.getString("response-timeout").equalsIgnoreCase("off")) None
+        else Some(config.getDuration("response-timeout")),
+      h2cPriorKnowledge = config.getBoolean("h2c-prior-knowledge"),
+      eventLoopThreads = config.getInt("event-loop-threads"))
+}
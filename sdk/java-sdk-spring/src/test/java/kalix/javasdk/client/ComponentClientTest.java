@@ -16,6 +16,9 @@
 
 package kalix.javasdk.client;
 
+import akka.actor.ActorSystem;
+import akka.japi.Pair;
+import akka.stream.javadsl.Sink;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
@@ -42,8 +45,20 @@ import kalix.spring.testmodels.view.ViewTestModels.UserByEmailWithGet;
 import kalix.spring.testmodels.view.ViewTestModels.UserByEmailWithGetWithoutAnnotation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -108,6 +123,25 @@ class ComponentClientTest {
     assertMethodParamsMatch(targetMethod, call.message(), param);
   }
 
+  @Test
+  public void shouldReturnDeferredCallsWithTheirOwnParamsForRepeatedCalls() throws InvalidProtocolBufferException {
+    //given
+    var action = descriptorFor(GetWithOneParam.class, messageCodec);
+    restKalixClient.registerComponent(action.serviceDescriptor());
+    var targetMethod = action.serviceDescriptor().findMethodByName("Message");
+
+    for (String param : List.of("first", "second")) {
+      //when
+      RestDeferredCall<Any, Message> call = (RestDeferredCall<Any, Message>) componentClient.forAction()
+          .call(GetWithOneParam::message)
+          .params(param);
+
+      //then
+      assertThat(call.methodName()).isEqualTo(targetMethod.getName());
+      assertMethodParamsMatch(targetMethod, call.message(), param);
+    }
+  }
+
   @Test
   public void shouldReturnDeferredCallForGETRequestWithTwoParams() throws InvalidProtocolBufferException {
     //given
@@ -301,6 +335,80 @@ class ComponentClientTest {
     assertMethodParamsMatch(targetMethod, call.message(), email);
   }
 
+  @Test
+  public void shouldExecuteBatchCallsWithBoundedParallelismInTheOrderOfTheCalls() throws Exception {
+    //given
+    var counter = descriptorFor(Counter.class, messageCodec);
+    restKalixClient.registerComponent(counter.serviceDescriptor());
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+    restKalixClient.setWebClient(stubWebClient(request -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      return Mono.delay(Duration.ofMillis(5)).map(__ -> {
+        inFlight.decrementAndGet();
+        return counterReply(request);
+      });
+    }));
+    var calls = IntStream.rangeClosed(1, 20).mapToObj(i -> Pair.create(String.valueOf(i), new Number(1))).toList();
+
+    //when
+    List<Number> results = componentClient.forValueEntities()
+      .call(Counter::increase)
+      .withParallelism(4)
+      .execute(calls)
+      .toCompletableFuture()
+      .get(5, TimeUnit.SECONDS);
+
+    //then
+    assertThat(results).extracting(number -> number.value)
+      .containsExactlyElementsOf(IntStream.rangeClosed(1, 20).boxed().toList());
+    assertThat(maxInFlight.get()).isBetween(1, 4);
+  }
+
+  @Test
+  public void shouldStreamBatchCallResultsWithTheirIds() throws Exception {
+    //given
+    var counter = descriptorFor(Counter.class, messageCodec);
+    restKalixClient.registerComponent(counter.serviceDescriptor());
+    restKalixClient.setWebClient(stubWebClient(request -> Mono.just(counterReply(request))));
+    var system = ActorSystem.create("ComponentClientTest");
+
+    try {
+      //when
+      List<Pair<String, Number>> results = componentClient.forValueEntities()
+        .call(Counter::get)
+        .source(List.of("1", "2", "3"))
+        .runWith(Sink.seq(), system)
+        .toCompletableFuture()
+        .get(5, TimeUnit.SECONDS);
+
+      //then
+      assertThat(results).extracting(pair -> pair.first() + "=" + pair.second().value)
+        .containsExactlyInAnyOrder("1=1", "2=2", "3=3");
+    } finally {
+      system.terminate();
+    }
+  }
+
+  @Test
+  public void shouldRejectBatchCallsWithoutParallelism() {
+    assertThatThrownBy(() -> componentClient.forValueEntities().call(Counter::increase).withParallelism(0))
+      .hasMessage("Parallelism must be at least 1, was [0]");
+  }
+
+  private WebClient stubWebClient(ExchangeFunction exchangeFunction) {
+    return WebClient.builder().exchangeFunction(exchangeFunction).build();
+  }
+
+  // replies with the counter id as value, the path being /counter/{counterId}/...
+  private ClientResponse counterReply(ClientRequest request) {
+    var counterId = request.url().getPath().split("/")[2];
+    return ClientResponse.create(HttpStatus.OK)
+      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+      .body("{\"value\":" + counterId + "}")
+      .build();
+  }
+
   private ComponentDescriptor descriptorFor(Class<?> clazz, JsonMessageCodec messageCodec) {
     Validations.validate(clazz).failIfInvalid();
     return ComponentDescriptor.descriptorFor(clazz, messageCodec);
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.client
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionStage
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.jdk.CollectionConverters._
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class BatchComponentCallSpec extends AnyWordSpec with Matchers {
+
+  private def await[T](stage: CompletionStage[T]): T =
+    stage.toCompletableFuture.get(3, TimeUnit.SECONDS)
+
+  "Executing a batch of calls" should {
+    "return the results in the order of the inputs" in {
+      val pending = (0 until 5).map(_ => new CompletableFuture[String]()).toVector
+      val result = BatchComponentCall.executeAll((0 until 5).toVector, parallelism = 5)(pending(_))
+      pending.zipWithIndex.reverse.foreach { case (future, i) => future.complete(s"result-$i") }
+      await(result).asScala shouldBe (0 until 5).map(i => s"result-$i")
+    }
+
+    "have at most parallelism calls in flight" in {
+      val pending = (0 until 10).map(_ => new CompletableFuture[Int]()).toVector
+      val started = new AtomicInteger(0)
+      val result = BatchComponentCall.executeAll((0 until 10).toVector, parallelism = 3) { i =>
+        started.incrementAndGet()
+        pending(i)
+      }
+      started.get() shouldBe 3
+      pending(1).complete(1)
+      started.get() shouldBe 4
+      pending.zipWithIndex.foreach { case (future, i) => future.complete(i) }
+      await(result).asScala shouldBe (0 until 10)
+    }
+
+    "not grow the stack with calls that complete right away" in {
+      val inputs = (0 until 100000).toVector
+      val result = BatchComponentCall.executeAll(inputs, parallelism = 2)(CompletableFuture.completedFuture(_))
+      await(result).size shouldBe inputs.size
+    }
+
+    "fail with the first failure and not start further calls" in {
+      val started = new AtomicInteger(0)
+      val result = BatchComponentCall.executeAll((0 until 10).toVector, parallelism = 1) { i =>
+        started.incrementAndGet()
+        if (i == 2) CompletableFuture.failedFuture[Int](new RuntimeException("boom"))
+        else CompletableFuture.completedFuture(i)
+      }
+      intercept[ExecutionException](await(result)).getCause.getMessage shouldBe "boom"
+      started.get() shouldBe 3
+    }
+
+    "complete right away without inputs" in {
+      await(BatchComponentCall.executeAll(Vector.empty[Int], parallelism = 2)(CompletableFuture.completedFuture(_)))
+        .isEmpty shouldBe true
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.common
+
+import java.time.Duration
+
+import kalix.javasdk.annotations.Snapshot
+import kalix.javasdk.impl.eventsourcedentity.AnyOfSnapshotPolicy
+import kalix.javasdk.impl.eventsourcedentity.EveryEventBytesSnapshotPolicy
+import kalix.javasdk.impl.eventsourcedentity.ReplayTimeBudgetSnapshotPolicy
+import kalix.javasdk.impl.eventsourcedentity.StateGrowthSnapshotPolicy
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+object SnapshotPolicyExtractorSpec {
+  class NotAnnotated
+
+  @Snapshot(everyEventBytes = 1024)
+  class SingleThreshold
+
+  @Snapshot(replayTimeBudgetMillis = 50, stateGrowthFactor = 2.0)
+  class TwoThresholds
+
+  @Snapshot
+  class NoThreshold
+}
+
+class SnapshotPolicyExtractorSpec extends AnyWordSpec with Matchers {
+  import SnapshotPolicyExtractorSpec._
+
+  "The SnapshotPolicyExtractor" should {
+    "not set a policy without annotation" in {
+      SnapshotPolicyExtractor.extractFrom(classOf[NotAnnotated]).isPresent shouldBe false
+    }
+
+    "use the single threshold of the annotation" in {
+      SnapshotPolicyExtractor.extractFrom(classOf[SingleThreshold]).get shouldBe EveryEventBytesSnapshotPolicy(1024)
+    }
+
+    "combine several thresholds" in {
+      SnapshotPolicyExtractor.extractFrom(classOf[TwoThresholds]).get match {
+        case policy: AnyOfSnapshotPolicy =>
+          policy.policies should contain theSameElementsInOrderAs Seq(
+            ReplayTimeBudgetSnapshotPolicy(Duration.ofMillis(50)),
+            StateGrowthSnapshotPolicy(2.0))
+        case other => fail(s"Unexpected policy $other")
+      }
+    }
+
+    "reject an annotation without threshold" in {
+      intercept[IllegalArgumentException] {
+        SnapshotPolicyExtractor.extractFrom(classOf[NoThreshold])
+      }
+    }
+  }
+}
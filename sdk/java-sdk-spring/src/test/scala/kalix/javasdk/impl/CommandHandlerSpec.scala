@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl
+
+import com.google.protobuf.{ Any => JavaPbAny }
+import kalix.javasdk.impl.reflection.ParameterExtractor
+import kalix.javasdk.workflow.Result
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ResultHandler {
+  def handle(result: Result): String = result.toString
+  def handleFailed(result: Result.Failed): String = result.errorMsg()
+}
+
+class CommandHandlerSpec extends AnyWordSpec with Matchers {
+
+  private val messageCodec = new JsonMessageCodec
+
+  private def invoker(methodName: String, paramType: Class[_]) =
+    MethodInvoker(
+      classOf[ResultHandler].getMethod(methodName, paramType),
+      Array.empty[ParameterExtractor[InvocationContext, AnyRef]])
+
+  private val superTypeInvoker = invoker("handle", classOf[Result])
+  private val failedInvoker = invoker("handleFailed", classOf[Result.Failed])
+
+  private val commandHandler =
+    CommandHandler(
+      "Handle",
+      messageCodec,
+      JavaPbAny.getDescriptor,
+      Map(messageCodec.typeUrlFor(classOf[Result.Failed]) -> failedInvoker, "json.kalix.io/other" -> superTypeInvoker))
+
+  "CommandHandler" should {
+
+    "find the method registered for a type url" in {
+      commandHandler.lookupInvoker(messageCodec.typeUrlFor(classOf[Result.Failed])) shouldBe Some(failedInvoker)
+      commandHandler.lookupInvoker("json.kalix.io/other") shouldBe Some(superTypeInvoker)
+    }
+
+    "ignore the version of the type url" in {
+      commandHandler.lookupInvoker(messageCodec.typeUrlFor(classOf[Result.Failed]) + "#2") shouldBe Some(failedInvoker)
+    }
+
+    "find the method accepting a super type of the type url" in {
+      commandHandler.lookupInvoker(messageCodec.typeUrlFor(classOf[Result.Succeed])) shouldBe Some(superTypeInvoker)
+    }
+
+    "not find a method for an unknown type url" in {
+      commandHandler.lookupInvoker("json.kalix.io/unknown") shouldBe None
+      an[NoSuchElementException] should be thrownBy commandHandler.getInvoker("json.kalix.io/unknown")
+    }
+  }
+}
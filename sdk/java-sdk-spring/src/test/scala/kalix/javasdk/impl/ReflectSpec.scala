@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl
+
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+object ReflectSpec {
+  abstract class Component[S, E]
+  class DirectComponent extends Component[String, java.lang.Integer]
+  abstract class GenericMiddle[T] extends Component[T, String]
+  class DeepComponent extends GenericMiddle[java.lang.Long]
+  class DeeperComponent extends DeepComponent
+  class ParameterizedStateComponent extends Component[java.util.List[String], String]
+  class NotAComponent
+}
+
+class ReflectSpec extends AnyWordSpec with Matchers {
+  import ReflectSpec._
+
+  "Reflect.superclassTypeArgument" should {
+
+    "resolve the type argument of the direct superclass" in {
+      Reflect.superclassTypeArgument(classOf[DirectComponent], classOf[Component[_, _]], 0) shouldBe classOf[String]
+      Reflect.superclassTypeArgument(classOf[DirectComponent], classOf[Component[_, _]], 1) shouldBe
+      classOf[java.lang.Integer]
+    }
+
+    "resolve type arguments passed through intermediate generic classes" in {
+      Reflect.superclassTypeArgument(classOf[DeepComponent], classOf[Component[_, _]], 0) shouldBe
+      classOf[java.lang.Long]
+      Reflect.superclassTypeArgument(classOf[DeeperComponent], classOf[Component[_, _]], 0) shouldBe
+      classOf[java.lang.Long]
+      Reflect.superclassTypeArgument(classOf[DeeperComponent], classOf[Component[_, _]], 1) shouldBe classOf[String]
+    }
+
+    "resolve parameterized type arguments to their raw class" in {
+      Reflect.superclassTypeArgument(classOf[ParameterizedStateComponent], classOf[Component[_, _]], 0) shouldBe
+      classOf[java.util.List[_]]
+    }
+
+    "fail for classes not extending the superclass" in {
+      an[IllegalArgumentException] should be thrownBy
+      Reflect.superclassTypeArgument(classOf[NotAComponent], classOf[Component[_, _]], 0)
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.javasdk.impl.http
+
+import akka.http.scaladsl.model.HttpMethod
+import akka.http.scaladsl.model.HttpMethods
+import kalix.javasdk.impl.ComponentDescriptor
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.http.HttpEndpointMethodDefinition.ANY_METHOD
+import kalix.spring.testmodels.action.ActionsTestModels.GetClassLevel
+import kalix.spring.testmodels.action.ActionsTestModels.GetWithOneParam
+import kalix.spring.testmodels.action.ActionsTestModels.GetWithoutParam
+import kalix.spring.testmodels.action.ActionsTestModels.PostWithTwoParam
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class HttpEndpointTrieSpec extends AnyWordSpec with Matchers {
+
+  private val messageCodec = new JsonMessageCodec
+
+  private val endpoints =
+    Seq(classOf[GetWithoutParam], classOf[GetWithOneParam], classOf[GetClassLevel], classOf[PostWithTwoParam])
+      .flatMap { component =>
+        HttpEndpointMethodDefinition.extractForService(
+          ComponentDescriptor.descriptorFor(component, messageCodec).serviceDescriptor)
+      }
+
+  private val trie = HttpEndpointTrie(endpoints)
+
+  private def linearFind(httpMethod: HttpMethod, path: String) =
+    endpoints.find(d => (d.methodPattern == ANY_METHOD || httpMethod == d.methodPattern) && d.matches(path))
+
+  "HttpEndpointTrie" should {
+
+    "find the same endpoint as trying all endpoints in order" in {
+      val paths = Seq(
+        "/message",
+        "/message/hello",
+        "/message/{one}",
+        "/message/one/2",
+        "/action/test/message/2",
+        "/action/test/message2/2",
+        "/action/test/message3/2",
+        "/action/{one}/message/{two}",
+        "/action/test",
+        "/message/one/2/3",
+        "/unknown",
+        "/",
+        "")
+
+      for {
+        httpMethod <- Seq(HttpMethods.GET, HttpMethods.POST, HttpMethods.DELETE)
+        path <- paths
+      } withClue(s"$httpMethod $path") {
+        trie.find(httpMethod, path) shouldBe linearFind(httpMethod, path)
+      }
+    }
+
+    "find endpoints" in {
+      trie.find(HttpMethods.GET, "/action/test/message2/2") shouldBe defined
+      trie.find(HttpMethods.POST, "/message/one/2") shouldBe defined
+      trie.find(HttpMethods.GET, "/unknown") shouldBe None
+      HttpEndpointTrie.empty.find(HttpMethods.GET, "/message") shouldBe None
+    }
+  }
+}
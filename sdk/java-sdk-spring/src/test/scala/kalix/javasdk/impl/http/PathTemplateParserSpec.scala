@@ -111,4 +111,68 @@ class PathTemplateParserSpec extends AnyWordSpec with Matchers {
     }
   }
 
+  "The path matcher of a template" should {
+
+    def matcherMatches(template: PathTemplateParser.ParsedTemplate, path: String): Option[List[String]] = {
+      val captures = new Array[Int](template.matcher.variableCount * 2)
+      if (template.matcher.matchPath(path, captures)) {
+        Some((0 until template.matcher.variableCount).map { i =>
+          path.substring(captures(i * 2), captures(i * 2 + 1))
+        }.toList)
+      } else None
+    }
+
+    val templates = Seq(
+      "/",
+      "/foo",
+      "/foo/bar",
+      "/foo/{bar}",
+      "/foo/{bar}/baz",
+      "/foo/{bar}/baz/{other}",
+      "/foo/*/baz",
+      "/foo/**",
+      "/foo/{bar=*/a/*}/baz",
+      "/foo/{bar=**}",
+      "/foo/{bar=**}:watch",
+      "/foo/{bar}:watch",
+      "/foo/**:watch",
+      "/{a}/{b}/{c}")
+
+    val paths = Seq(
+      "",
+      "/",
+      "//",
+      "/foo",
+      "/foo/",
+      "/fo",
+      "/foobar",
+      "/foo/bar",
+      "/foo/bar/",
+      "/foo/blah/baz",
+      "/foo/bl/ah/baz",
+      "/foo/blah/baz/blah2",
+      "/foo/bl/a/h/baz",
+      "/foo/bl/b/h/baz",
+      "/foo/blah:watch",
+      "/foo/blah:watch:watch",
+      "/foo/bl/ah:watch",
+      "/foo/blah:other",
+      "/foo/bl:ah/baz",
+      "/foo/bl\nah",
+      "/foo/%2F/baz",
+      "/a/b/c",
+      "/a/b/c/d",
+      "/a//c")
+
+    "match the same paths and capture the same values as the regex of the template" in {
+      for {
+        template <- templates.map(PathTemplateParser.parse)
+        path <- paths
+      } withClue(s"template [${template.path}] path [$path]") {
+        matcherMatches(template, path) shouldBe matches(template, path)
+        template.matcher.matches(path) shouldBe matches(template, path).isDefined
+      }
+    }
+  }
+
 }
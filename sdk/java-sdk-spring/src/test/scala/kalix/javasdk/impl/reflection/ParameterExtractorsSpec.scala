@@ -27,7 +27,9 @@ import kalix.javasdk.impl.ComponentDescriptor
 import kalix.javasdk.impl.InvocationContext
 import kalix.javasdk.impl.JsonMessageCodec
 import kalix.javasdk.impl.reflection.ParameterExtractors.BodyExtractor
+import kalix.javasdk.impl.reflection.ParameterExtractors.RequestBodyOnlyExtractor
 import kalix.spring.testmodels.Message
+import kalix.spring.testmodels.action.ActionsTestModels.PostWithoutParam
 import kalix.spring.testmodels.action.EchoAction
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
@@ -98,4 +100,44 @@ class ParameterExtractorsSpec extends AnyWordSpec with Matchers {
     }
   }
 
+  "RequestBodyOnlyExtractor" should {
+
+    "extract json payload from the request bytes" in {
+      val componentDescriptor = descriptorFor[PostWithoutParam]
+      val method = componentDescriptor.commandHandlers("Message")
+
+      val field = method.requestMessageDescriptor.findFieldByNumber(1)
+      val message = DynamicMessage
+        .newBuilder(method.requestMessageDescriptor)
+        .setField(field, JsonSupport.encodeJson(new Message("test")))
+        .build()
+
+      val wrappedMessage = ScalaPbAny().withValue(message.toByteString)
+      val extractor = method.methodInvokers.values.head.parameterExtractors.head
+      extractor shouldBe a[RequestBodyOnlyExtractor[_]]
+
+      val context = InvocationContext(wrappedMessage, method.requestMessageDescriptor)
+      extractor.extract(context).asInstanceOf[Message].value() shouldBe "test"
+    }
+
+    "reject non json payload" in {
+      val componentDescriptor = descriptorFor[PostWithoutParam]
+      val method = componentDescriptor.commandHandlers("Message")
+
+      val nonJsonBody = JavaPbAny.newBuilder().setTypeUrl("something.empty").setValue(ByteString.EMPTY).build()
+      val field = method.requestMessageDescriptor.findFieldByNumber(1)
+      val message = DynamicMessage
+        .newBuilder(method.requestMessageDescriptor)
+        .setField(field, nonJsonBody)
+        .build()
+
+      val wrappedMessage = ScalaPbAny().withValue(message.toByteString)
+      val extractor = method.methodInvokers.values.head.parameterExtractors.head
+      val context = InvocationContext(wrappedMessage, method.requestMessageDescriptor)
+
+      intercept[IllegalArgumentException] {
+        extractor.extract(context)
+      }
+    }
+  }
 }
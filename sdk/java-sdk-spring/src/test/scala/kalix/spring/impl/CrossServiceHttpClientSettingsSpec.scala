@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.spring.impl
+
+import java.time.Duration
+
+import com.typesafe.config.ConfigException
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class CrossServiceHttpClientSettingsSpec extends AnyWordSpec with Matchers {
+
+  private def settings(config: String): CrossServiceHttpClientSettings =
+    CrossServiceHttpClientSettings(
+      ConfigFactory
+        .parseString(config)
+        .withFallback(ConfigFactory.defaultReference())
+        .getConfig("kalix.cross-service.http-client"))
+
+  "The cross-service HTTP client settings" should {
+    "have the defaults of the reference configuration" in {
+      settings("") shouldBe CrossServiceHttpClientSettings(
+        maxConnections = 100,
+        pendingAcquireMaxCount = 1000,
+        pendingAcquireTimeout = Duration.ofSeconds(45),
+        maxIdleTime = Duration.ofSeconds(60),
+        responseTimeout = None,
+        h2cPriorKnowledge = false,
+        eventLoopThreads = 0)
+    }
+
+    "not time out responses when the response timeout is off" in {
+      settings("kalix.cross-service.http-client.response-timeout = off").responseTimeout shouldBe None
+    }
+
+    "time out responses after a configured duration" in {
+      settings("kalix.cross-service.http-client.response-timeout = 5s").responseTimeout shouldBe Some(
+        Duration.ofSeconds(5))
+    }
+
+    "fail on a response timeout that is neither off nor a duration" in {
+      intercept[ConfigException.BadValue] {
+        settings("kalix.cross-service.http-client.response-timeout = sometimes")
+      }
+    }
+  }
+}
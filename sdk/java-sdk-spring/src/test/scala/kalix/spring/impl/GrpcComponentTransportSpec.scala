@@ -0,0 +1,207 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.spring.impl
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.actor.ExtendedActorSystem
+import com.google.protobuf.ByteString
+import com.google.protobuf.StringValue
+import com.google.protobuf.any.{ Any => ScalaPbAny }
+import com.google.protobuf.{ Any => JavaPbAny }
+import com.typesafe.config.ConfigFactory
+import io.grpc.MethodDescriptor
+import io.grpc.Server
+import io.grpc.ServerCall
+import io.grpc.ServerCallHandler
+import io.grpc.ServerServiceDefinition
+import io.grpc.Status
+import io.grpc.inprocess.InProcessChannelBuilder
+import io.grpc.inprocess.InProcessServerBuilder
+import io.grpc.{ Metadata => GrpcMetadata }
+import kalix.javasdk.DeferredCallResponseException
+import kalix.javasdk.JsonSupport
+import kalix.javasdk.Metadata
+import kalix.javasdk.StatusCode.ErrorCode
+import kalix.javasdk.impl.ComponentDescriptor
+import kalix.javasdk.impl.JsonMessageCodec
+import kalix.javasdk.impl.http.HttpEndpointMethodDefinition
+import kalix.spring.testmodels.Message
+import kalix.spring.testmodels.action.ActionsTestModels.GetWithoutParam
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class GrpcComponentTransportSpec extends AnyWordSpec with Matchers with BeforeAndAfterAll {
+
+  private val system = ActorSystem(
+    "GrpcComponentTransportSpec",
+    ConfigFactory.parseString("""
+      kalix.cross-service.component-client-transport = grpc
+      kalix.cross-service.http-client.response-timeout = 1s
+      """))
+
+  private val httpDef: HttpEndpointMethodDefinition = {
+    val descriptor = ComponentDescriptor.descriptorFor(classOf[GetWithoutParam], new JsonMessageCodec)
+    HttpEndpointMethodDefinition
+      .extractForService(descriptor.serviceDescriptor)
+      .find(_.methodDescriptor.getName == "Message")
+      .get
+  }
+
+  // what the stub runtime replies with to the next call, null to not reply at all, and the headers it received with it
+  private val nextReply = new AtomicReference[(Option[JavaPbAny], Status)]()
+  private val receivedHeaders = new AtomicReference[GrpcMetadata]()
+
+  private val serverName = InProcessServerBuilder.generateName()
+  private val server: Server = {
+    val serviceName = httpDef.methodDescriptor.getService.getFullName
+    val method = MethodDescriptor
+      .newBuilder[ByteString, JavaPbAny]()
+      .setType(MethodDescriptor.MethodType.UNARY)
+      .setFullMethodName(MethodDescriptor.generateFullMethodName(serviceName, "Message"))
+      .setRequestMarshaller(new MethodDescriptor.Marshaller[ByteString] {
+        override def stream(value: ByteString): InputStream = value.newInput()
+        override def parse(stream: InputStream): ByteString = ByteString.readFrom(stream)
+      })
+      .setResponseMarshaller(new MethodDescriptor.Marshaller[JavaPbAny] {
+        override def stream(value: JavaPbAny): InputStream = value.toByteString.newInput()
+        override def parse(stream: InputStream): JavaPbAny = JavaPbAny.parseFrom(stream)
+      })
+      .build()
+
+    val handler = new ServerCallHandler[ByteString, JavaPbAny] {
+      override def startCall(
+          call: ServerCall[ByteString, JavaPbAny],
+          headers: GrpcMetadata): ServerCall.Listener[ByteString] = {
+        receivedHeaders.set(headers)
+        call.request(1)
+        new ServerCall.Listener[ByteString] {
+          override def onHalfClose(): Unit =
+            nextReply.get() match {
+              case null =>
+              case (reply, status) =>
+                call.sendHeaders(new GrpcMetadata())
+                reply.foreach(call.sendMessage)
+                call.close(status, new GrpcMetadata())
+            }
+        }
+      }
+    }
+
+    InProcessServerBuilder
+      .forName(serverName)
+      .directExecutor()
+      .addService(ServerServiceDefinition.builder(serviceName).addMethod(method, handler).build())
+      .build()
+      .start()
+  }
+
+  private val transport = new GrpcComponentTransport(
+    system.asInstanceOf[ExtendedActorSystem],
+    () => InProcessChannelBuilder.forName(serverName).directExecutor().build())
+
+  override def afterAll(): Unit = {
+    Await.result(system.terminate(), 10.seconds)
+    server.shutdownNow()
+  }
+
+  private val request = ScalaPbAny("type.googleapis.com/" + httpDef.methodDescriptor.getInputType.getFullName)
+
+  private def call(metadata: Metadata = Metadata.EMPTY): Message =
+    transport.call(httpDef, request, metadata, classOf[Message]).toCompletableFuture.get(3, TimeUnit.SECONDS)
+
+  private def failedCall(): Throwable =
+    intercept[ExecutionException](call()).getCause
+
+  "The gRPC component transport" should {
+    "call component methods replying with JSON" in {
+      transport.supports(httpDef) shouldBe true
+      nextReply.set(Some(JsonSupport.encodeJson(new Message("hello"))) -> Status.OK)
+      call().value shouldBe "hello"
+    }
+
+    "fail with the mapped error code when the call fails" in {
+      nextReply.set(None -> Status.NOT_FOUND.withDescription("No such message"))
+      failedCall() match {
+        case DeferredCallResponseException(description, errorCode, _) =>
+          description shouldBe "No such message"
+          errorCode shouldBe ErrorCode.NOT_FOUND
+      }
+    }
+
+    "fail with the status code when the failed status has no description" in {
+      nextReply.set(None -> Status.UNAVAILABLE)
+      failedCall() match {
+        case DeferredCallResponseException(description, errorCode, _) =>
+          description shouldBe "UNAVAILABLE"
+          errorCode shouldBe ErrorCode.SERVICE_UNAVAILABLE
+      }
+    }
+
+    "fail when no response is received" in {
+      nextReply.set(None -> Status.OK)
+      failedCall() shouldBe an[IllegalStateException]
+    }
+
+    "fail when the response can not be decoded" in {
+      nextReply.set(Some(JavaPbAny.pack(StringValue.of("not json"))) -> Status.OK)
+      failedCall() shouldBe an[IllegalArgumentException]
+    }
+
+    "fail when no response is received within the response timeout" in {
+      nextReply.set(null)
+      failedCall() match {
+        case DeferredCallResponseException(_, errorCode, _) =>
+          errorCode shouldBe ErrorCode.GATEWAY_TIMEOUT
+      }
+    }
+
+    "fail the call instead of throwing when the channel can not be created" in {
+      val beforeDiscovery = new GrpcComponentTransport(
+        system.asInstanceOf[ExtendedActorSystem],
+        () => throw new IllegalStateException("Service proxy hostname and/or port are not set"))
+      val result = beforeDiscovery.call(httpDef, request, Metadata.EMPTY, classOf[Message]).toCompletableFuture
+      intercept[ExecutionException](result.get(3, TimeUnit.SECONDS)).getCause shouldBe an[IllegalStateException]
+    }
+
+    "only pass on the text metadata gRPC accepts" in {
+      nextReply.set(Some(JsonSupport.encodeJson(new Message("hello"))) -> Status.OK)
+      val metadata = Metadata.EMPTY
+        .add("x-text", "text")
+        .add("x-text-bin", "text with a binary key")
+        .add(":authority", "pseudo-header")
+        .add("x text", "invalid key")
+        .addBinary("x-binary-bin", ByteBuffer.wrap(Array[Byte](1, 2, 3)))
+      call(metadata).value shouldBe "hello"
+
+      val headers = receivedHeaders.get()
+      headers.get(GrpcMetadata.Key.of("x-text", GrpcMetadata.ASCII_STRING_MARSHALLER)) shouldBe "text"
+      headers.keys() should not contain "x-text-bin"
+      headers.keys() should not contain "x-binary-bin"
+      headers.keys() should not contain "x text"
+    }
+  }
+}
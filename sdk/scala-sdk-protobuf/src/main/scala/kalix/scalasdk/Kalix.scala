@@ -39,6 +39,9 @@ import com.typesafe.config.Config
 import kalix.javasdk.impl.MessageCodec
 
 object Kalix {
+  // registers the Scala module with the shared object mapper before any JSON type is looked up
+  JsonSupport.getObjectMapper()
+
   def apply() = new Kalix(new javasdk.Kalix().preferScalaProtobufs().withSdkName(ScalaSdkBuildInfo.name))
 
   private[scalasdk] def apply(impl: javasdk.Kalix) =
@@ -36,6 +36,16 @@ trait EventSourcedEntityOptions extends EntityOptions {
    */
   def withSnapshotEvery(numberOfEvents: Int): EventSourcedEntityOptions
 
+  /** The policy set with `withSnapshotPolicy`, if any. */
+  def snapshotPolicy: Option[SnapshotPolicy] = None
+
+  /**
+   * Decide when to snapshot with the given policy, for example based on the size of the events or the time it takes to
+   * replay them, instead of a fixed number of events. Takes precedence over `withSnapshotEvery`.
+   */
+  def withSnapshotPolicy(policy: SnapshotPolicy): EventSourcedEntityOptions =
+    throw new UnsupportedOperationException(s"Snapshot policies are not supported by [${getClass.getName}]")
+
   @deprecated(message = "passivation strategy is ignored", since = "1.1.4")
   override def withPassivationStrategy(strategy: PassivationStrategy): EventSourcedEntityOptions
   override def withForwardHeaders(headers: Set[String]): EventSourcedEntityOptions
@@ -56,12 +66,16 @@ object EventSourcedEntityOptions {
   private[kalix] final case class EventSourcedEntityOptionsImpl(
       override val snapshotEvery: Int,
       override val passivationStrategy: PassivationStrategy,
-      override val forwardHeaders: Set[String])
+      override val forwardHeaders: Set[String],
+      override val snapshotPolicy: Option[SnapshotPolicy] = None)
       extends EventSourcedEntityOptions {
 
     override def withSnapshotEvery(numberOfEvents: Int): EventSourcedEntityOptions =
       copy(snapshotEvery = numberOfEvents)
 
+    override def withSnapshotPolicy(policy: SnapshotPolicy): EventSourcedEntityOptions =
+      copy(snapshotPolicy = Some(policy))
+
     override def withPassivationStrategy(strategy: PassivationStrategy): EventSourcedEntityOptions =
       copy(passivationStrategy = strategy)
 
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.scalasdk.eventsourcedentity
+
+import scala.concurrent.duration.FiniteDuration
+
+import kalix.javasdk
+import kalix.scalasdk.impl.eventsourcedentity.ScalaSnapshotPolicyAdapter
+import kalix.scalasdk.impl.eventsourcedentity.SnapshotPolicyConverters
+import scala.compat.java8.DurationConverters.FiniteDurationops
+
+/**
+ * Decides when a snapshot of the state of an event sourced entity is stored, consulted after each command that
+ * persisted events. Snapshots bound the number of events to replay when the entity is recovered, but each one is an
+ * additional write of the full state.
+ *
+ * The counters in [[SnapshotPolicy.Stats]] are tracked per entity instance, since it was started or since the last
+ * snapshot it stored.
+ */
+trait SnapshotPolicy {
+
+  /**
+   * @return
+   *   true if the current state should be stored as a snapshot together with the events of the command
+   */
+  def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean
+}
+
+object SnapshotPolicy {
+
+  /** The counters a policy decides on, since the last snapshot of the entity instance. */
+  trait Stats {
+
+    /** Number of events since the last snapshot, including the replayed ones. */
+    def eventsSinceSnapshot: Long
+
+    /** Accumulated size of the serialized events since the last snapshot, in bytes. */
+    def eventBytesSinceSnapshot: Long
+
+    /**
+     * Estimated time it takes to replay the events since the last snapshot, from the time measured when replaying them
+     * and the command handling time for events persisted by this instance.
+     */
+    def estimatedReplayTime: FiniteDuration
+
+    /** Size of the serialized last snapshot in bytes, 0 if the entity has no snapshot yet. */
+    def lastSnapshotBytes: Long
+  }
+
+  /**
+   * Snapshot once this many events were persisted since the last snapshot.
+   *
+   * @param numberOfEvents
+   *   a positive number of events
+   */
+  def everyEvents(numberOfEvents: Int): SnapshotPolicy =
+    ScalaSnapshotPolicyAdapter(javasdk.eventsourcedentity.SnapshotPolicy.everyEvents(numberOfEvents))
+
+  /**
+   * Snapshot once the events persisted since the last snapshot add up to this many bytes serialized, a better fit than
+   * a number of events when event sizes vary a lot.
+   *
+   * @param bytes
+   *   a positive number of bytes
+   */
+  def everyEventBytes(bytes: Long): SnapshotPolicy =
+    ScalaSnapshotPolicyAdapter(javasdk.eventsourcedentity.SnapshotPolicy.everyEventBytes(bytes))
+
+  /**
+   * Snapshot once replaying the events since the last snapshot is estimated to take longer than the given budget,
+   * bounding the recovery time of the entity.
+   *
+   * @param budget
+   *   a positive duration
+   */
+  def replayTimeBudget(budget: FiniteDuration): SnapshotPolicy =
+    ScalaSnapshotPolicyAdapter(javasdk.eventsourcedentity.SnapshotPolicy.replayTimeBudget(budget.toJava))
+
+  /**
+   * Snapshot once the events since the last snapshot add up to more than `factor` times the size of that snapshot.
+   * Does not trigger before the entity has a first snapshot, so combine it with another policy using `anyOf`.
+   *
+   * @param factor
+   *   a positive factor of the last snapshot size
+   */
+  def stateGrowth(factor: Double): SnapshotPolicy =
+    ScalaSnapshotPolicyAdapter(javasdk.eventsourcedentity.SnapshotPolicy.stateGrowth(factor))
+
+  /** Snapshot when any of the given policies says so. */
+  def anyOf(policies: SnapshotPolicy*): SnapshotPolicy =
+    ScalaSnapshotPolicyAdapter(
+      javasdk.eventsourcedentity.SnapshotPolicy.anyOf(policies.map(SnapshotPolicyConverters.toJava): _*))
+}
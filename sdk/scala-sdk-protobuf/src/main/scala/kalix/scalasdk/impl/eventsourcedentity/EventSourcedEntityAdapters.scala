@@ -26,6 +26,7 @@ import kalix.javasdk.eventsourcedentity.{ EventSourcedEntity => JavaSdkEventSour
 import kalix.javasdk.eventsourcedentity.{ EventSourcedEntityContext => JavaSdkEventSourcedEntityContext }
 import kalix.javasdk.eventsourcedentity.{ EventSourcedEntityOptions => JavaSdkEventSourcedEntityOptions }
 import kalix.javasdk.eventsourcedentity.{ EventSourcedEntityProvider => JavaSdkEventSourcedEntityProvider }
+import kalix.javasdk.eventsourcedentity.{ SnapshotPolicy => JavaSdkSnapshotPolicy }
 import kalix.javasdk.impl.eventsourcedentity.{ EventSourcedEntityRouter => JavaSdkEventSourcedEntityRouter }
 import kalix.scalasdk.eventsourcedentity.CommandContext
 import kalix.scalasdk.eventsourcedentity.EventContext
@@ -88,6 +89,13 @@ private[scalasdk] final class JavaEventSourcedEntityOptionsAdapter(
   def withSnapshotEvery(numberOfEvents: Int) = new JavaEventSourcedEntityOptionsAdapter(
     scalaSdkEventSourcedEntityOptions.withSnapshotEvery(numberOfEvents))
 
+  override def snapshotPolicy(): Optional[JavaSdkSnapshotPolicy] =
+    scalaSdkEventSourcedEntityOptions.snapshotPolicy.map(SnapshotPolicyConverters.toJava).toJava
+
+  override def withSnapshotPolicy(policy: JavaSdkSnapshotPolicy): JavaSdkEventSourcedEntityOptions =
+    new JavaEventSourcedEntityOptionsAdapter(
+      scalaSdkEventSourcedEntityOptions.withSnapshotPolicy(SnapshotPolicyConverters.toScala(policy)))
+
   def withForwardHeaders(headers: java.util.Set[String]): JavaSdkEventSourcedEntityOptions =
     new JavaEventSourcedEntityOptionsAdapter(
       scalaSdkEventSourcedEntityOptions.withForwardHeaders(Set.from(headers.asScala)))
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 Lightbend Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package kalix.scalasdk.impl.eventsourcedentity
+
+import java.time.Duration
+
+import scala.concurrent.duration.FiniteDuration
+
+import kalix.javasdk.eventsourcedentity.{ SnapshotPolicy => JavaSdkSnapshotPolicy }
+import kalix.scalasdk.eventsourcedentity.SnapshotPolicy
+import scala.compat.java8.DurationConverters.DurationOps
+import scala.compat.java8.DurationConverters.FiniteDurationops
+
+private[scalasdk] final case class ScalaSnapshotPolicyAdapter(javaSdkSnapshotPolicy: JavaSdkSnapshotPolicy)
+    extends SnapshotPolicy {
+  override def shouldSnapshot(stats: SnapshotPolicy.Stats): Boolean =
+    javaSdkSnapshotPolicy.shouldSnapshot(new JavaSnapshotStatsAdapter(stats))
+}
+
+private[scalasdk] final class JavaSnapshotStatsAdapter(scalaSdkStats: SnapshotPolicy.Stats)
+    extends JavaSdkSnapshotPolicy.Stats {
+  override def eventsSinceSnapshot(): Long = scalaSdkStats.eventsSinceSnapshot
+  override def eventBytesSinceSnapshot(): Long = scalaSdkStats.eventBytesSinceSnapshot
+  override def estimatedReplayTime(): Duration = scalaSdkStats.estimatedReplayTime.toJava
+  override def lastSnapshotBytes(): Long = scalaSdkStats.lastSnapshotBytes
+}
+
+private[scalasdk] final class ScalaSnapshotStatsAdapter(javaSdkStats: JavaSdkSnapshotPolicy.Stats)
+    extends SnapshotPolicy.Stats {
+  override def eventsSinceSnapshot: Long = javaSdkStats.eventsSinceSnapshot()
+  override def eventBytesSinceSnapshot: Long = javaSdkStats.eventBytesSinceSnapshot()
+  override def estimatedReplayTime: FiniteDuration = javaSdkStats.estimatedReplayTime().toScala
+  override def lastSnapshotBytes: Long = javaSdkStats.lastSnapshotBytes()
+}
+
+private[scalasdk] object SnapshotPolicyConverters {
+
+  def toJava(policy: SnapshotPolicy): JavaSdkSnapshotPolicy =
+    policy match {
+      case ScalaSnapshotPolicyAdapter(javaSdkSnapshotPolicy) => javaSdkSnapshotPolicy
+      case custom => stats => custom.shouldSnapshot(new ScalaSnapshotStatsAdapter(stats))
+    }
+
+  def toScala(policy: JavaSdkSnapshotPolicy): SnapshotPolicy =
+    ScalaSnapshotPolicyAdapter(policy)
+}